@@ -5,17 +5,28 @@ import com.buuz135.simpleclaims.claim.ClaimManager;
 import com.buuz135.simpleclaims.commands.SimpleClaimProtectCommand;
 import com.buuz135.simpleclaims.commands.SimpleClaimsPartyCommand;
 import com.buuz135.simpleclaims.config.SimpleClaimsConfig;
+import com.buuz135.simpleclaims.gui.ChunkInfoMapCache;
 import com.buuz135.simpleclaims.interactions.ClaimCycleBlockGroupInteraction;
 import com.buuz135.simpleclaims.interactions.ClaimPickupBucketInteraction;
 import com.buuz135.simpleclaims.interactions.ClaimPlaceBucketInteraction;
 import com.buuz135.simpleclaims.interactions.ClaimUseBlockInteraction;
+import com.buuz135.simpleclaims.map.MapColorTable;
 import com.buuz135.simpleclaims.map.SimpleClaimsWorldMapProvider;
+import com.buuz135.simpleclaims.map.TerrainImageCache;
 import com.buuz135.simpleclaims.papi.PAPIIntegration;
 import com.buuz135.simpleclaims.systems.events.*;
 import com.buuz135.simpleclaims.systems.tick.*;
+import com.buuz135.simpleclaims.util.BlockInteractionTable;
 import com.buuz135.simpleclaims.util.PartyInactivityThread;
+import com.buuz135.simpleclaims.util.NameCacheFlushThread;
+import com.buuz135.simpleclaims.util.BackupThread;
+import com.buuz135.simpleclaims.util.PermissionCache;
 import com.buuz135.simpleclaims.util.WindowExtraResourcesState;
 import com.buuz135.simpleclaims.util.WindowPacketAdapters;
+import com.hypixel.hytale.assetstore.event.LoadedAssetsEvent;
+import com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType;
+import com.hypixel.hytale.server.core.asset.type.environment.config.Environment;
+import com.hypixel.hytale.server.core.asset.type.fluid.Fluid;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.event.events.player.AddPlayerToWorldEvent;
 import com.hypixel.hytale.server.core.event.events.player.PlayerChatEvent;
@@ -24,7 +35,9 @@ import com.hypixel.hytale.server.core.modules.interaction.interaction.config.Int
 import com.hypixel.hytale.server.core.plugin.JavaPlugin;
 import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.universe.world.events.AddWorldEvent;
+import com.hypixel.hytale.server.core.universe.world.events.RemoveWorldEvent;
 import com.hypixel.hytale.server.core.universe.world.worldmap.provider.IWorldMapProvider;
 import com.hypixel.hytale.server.core.universe.world.worldmap.provider.chunk.WorldGenWorldMapProvider;
 import com.hypixel.hytale.server.core.util.Config;
@@ -39,6 +52,8 @@ public class Main extends JavaPlugin {
     public static Config<SimpleClaimsConfig> CONFIG;
 
     private PartyInactivityThread partyInactivityTickingSystem;
+    private NameCacheFlushThread nameCacheFlushThread;
+    private BackupThread backupThread;
 
     public Main(@NonNullDecl JavaPluginInit init) {
         super(init);
@@ -76,9 +91,32 @@ public class Main extends JavaPlugin {
 
         WindowPacketAdapters.install();
         ClaimManager.getInstance();
+        // Worlds added before the plugin was set up never fire the event, their claims are in place before anyone can join them
+        for (String world : Universe.get().getWorlds().keySet()) {
+            ClaimManager.getInstance().loadDimension(world).join();
+        }
+        ClaimManager.getInstance().finishStartupLoads();
+
+        this.getEventRegistry().register(LoadedAssetsEvent.class, BlockType.class, (event) -> {
+            BlockInteractionTable.invalidate();
+            MapColorTable.invalidate();
+            TerrainImageCache.clear();
+            ChunkInfoMapCache.clear();
+        });
+        this.getEventRegistry().register(LoadedAssetsEvent.class, Fluid.class, (event) -> {
+            MapColorTable.invalidate();
+            TerrainImageCache.clear();
+            ChunkInfoMapCache.clear();
+        });
+        this.getEventRegistry().register(LoadedAssetsEvent.class, Environment.class, (event) -> {
+            MapColorTable.invalidate();
+            TerrainImageCache.clear();
+            ChunkInfoMapCache.clear();
+        });
 
         this.getEventRegistry().registerGlobal(AddWorldEvent.class, (event) -> {
             this.getLogger().at(Level.INFO).log("Registered world: " + event.getWorld().getName());
+            ClaimManager.getInstance().loadDimension(event.getWorld().getName());
 
             if (CONFIG.get().isForceSimpleClaimsChunkWorldMap() && !event.getWorld().getWorldConfig().isDeleteOnRemove()) {
                 this.getLogger().at(Level.INFO).log("Registered map for world: " + event.getWorld().getName());
@@ -88,10 +126,17 @@ public class Main extends JavaPlugin {
             }
         });
 
+        this.getEventRegistry().registerGlobal(RemoveWorldEvent.class, (event) -> {
+            ClaimManager.getInstance().unloadDimension(event.getWorld().getName());
+            TerrainImageCache.invalidateWorld(event.getWorld().getName());
+            ChunkInfoMapCache.invalidateWorld(event.getWorld().getName());
+        });
+
         this.getEventRegistry().registerGlobal(AddPlayerToWorldEvent.class, (event) -> {
             var player = event.getHolder().getComponent(Player.getComponentType());
             var playerRef = event.getHolder().getComponent(PlayerRef.getComponentType());
             ClaimManager.getInstance().setPlayerName(playerRef.getUuid(), player.getDisplayName(), System.currentTimeMillis());
+            PermissionCache.warm(playerRef.getUuid());
 
             var ch = playerRef.getPacketHandler().getChannel();
             WindowExtraResourcesState.getOrCreateMap(ch);
@@ -115,6 +160,12 @@ public class Main extends JavaPlugin {
 
         partyInactivityTickingSystem = new PartyInactivityThread();
         partyInactivityTickingSystem.start();
+        nameCacheFlushThread = new NameCacheFlushThread();
+        nameCacheFlushThread.start();
+        if (CONFIG.get().getBackupIntervalMinutes() > 0) {
+            backupThread = new BackupThread();
+            backupThread.start();
+        }
     }
 
     @Override
@@ -126,6 +177,12 @@ public class Main extends JavaPlugin {
     protected void shutdown() {
         super.shutdown();
         WindowPacketAdapters.uninstall();
+        // Stop everything that queues writes before draining the queue
+        if (partyInactivityTickingSystem != null) partyInactivityTickingSystem.stopThread(5000);
+        if (nameCacheFlushThread != null) nameCacheFlushThread.stopThread();
+        if (backupThread != null) backupThread.stopThread();
+        PermissionCache.shutdown();
+        ClaimManager.getInstance().shutdown(CONFIG.get().getShutdownDrainTimeoutMillis());
     }
 
 }
\ No newline at end of file
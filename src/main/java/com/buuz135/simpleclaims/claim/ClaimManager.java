@@ -6,8 +6,14 @@ import com.buuz135.simpleclaims.claim.party.PartyOverride;
 import com.buuz135.simpleclaims.claim.party.PartyOverrides;
 import com.buuz135.simpleclaims.commands.CommandMessages;
 import com.buuz135.simpleclaims.files.*;
+import com.buuz135.simpleclaims.files.DatabaseWriteQueue.WriteKey;
+import com.buuz135.simpleclaims.map.ClaimLabelCache;
+import com.buuz135.simpleclaims.map.MapInvalidationQueue;
 import com.buuz135.simpleclaims.util.FileUtils;
+import com.buuz135.simpleclaims.util.PermissionCache;
 import com.buuz135.simpleclaims.claim.chunk.ChunkInfo;
+import com.buuz135.simpleclaims.claim.chunk.ConcurrentChunkMap;
+import com.buuz135.simpleclaims.claim.chunk.PerimeterTracker;
 import com.buuz135.simpleclaims.claim.chunk.ReservedChunk;
 import com.buuz135.simpleclaims.claim.party.PartyInfo;
 import com.buuz135.simpleclaims.claim.player_name.PlayerNameTracker;
@@ -18,39 +24,70 @@ import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.universe.world.World;
+import it.unimi.dsi.fastutil.longs.LongIterator;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
 
 import javax.annotation.Nullable;
 import java.awt.*;
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 public class ClaimManager {
 
     private static final ClaimManager INSTANCE = new ClaimManager();
+    private static final String PENDING_WRITES_HEADER = "Unflushed writes: ";
+    private static final long DIMENSION_LOAD_RETRY_SECONDS = 30;
+
+    /**
+     * Unclaims made while the claims of a dimension are read. Removed chunks were in memory already, the loaded copy of them is stale.
+     * Queued chunks weren't loaded yet, they are unclaimed again once the load merged them
+     */
+    private record DimensionLoad(LongSet removed, LongSet queued) {}
 
     private final Map<UUID, UUID> adminUsageParty;
     private final Map<UUID, PartyInvite> partyInvites;
     private final Map<UUID, UUID> playerToParty;
     private final Map<UUID, Integer> partyClaimCounts;
-    private Set<String> worldsNeedingUpdates;
     private HytaleLogger logger = HytaleLogger.getLogger().getSubLogger("SimpleClaims");
     private PlayerNameTracker playerNameTracker;
-    private HashMap<String, PartyInfo> parties;
-    private HashMap<String, HashMap<String, ChunkInfo>> chunks;
-    private HashMap<String, HashMap<String, ReservedChunk>> reservedChunks;
-    private Set<UUID> adminOverrides;
-    private DatabaseManager databaseManager;
-    private HashMap<String, LongSet> mapUpdateQueue;
-    private ExecutorService executorService;
+    // Players whose name, last seen or play time changed since the last name cache flush
+    private final Set<UUID> dirtyNames;
+    private final Map<String, PartyInfo> parties;
+    private final Map<String, ConcurrentChunkMap<ChunkInfo>> chunks;
+    private final Map<String, ConcurrentChunkMap<ReservedChunk>> reservedChunks;
+    // Claims are only kept in memory for the worlds that are loaded
+    private final Set<String> loadedDimensions;
+    // Only changed while holding the claim write lock, read without it by the protection checks
+    private final Map<String, DimensionLoad> loadingDimensions;
+    // Reads the claims of added worlds, so the thread adding the world never waits for the write queue
+    private final ExecutorService dimensionLoader;
+    private final Map<UUID, Map<String, LongSet>> partyClaims;
+    // Only touched while holding the claim write lock
+    private final Map<UUID, Map<String, LongSet>> partyReserved;
+    private final PerimeterTracker perimeterTracker;
+    // Flag the perimeter counts were built with, only touched while holding the claim write lock
+    private boolean perimeterReservationEnabled;
+    private final Set<UUID> adminOverrides;
+    private final ClaimStorage storage;
+    private final MapInvalidationQueue mapInvalidations;
+    // Claim mutations touch several maps at once, they are serialized on this lock while readers stay lock free
+    private final Object claimWriteLock = new Object();
+    private final DatabaseWriteQueue writeQueue;
+    private final ClaimBackups backups;
 
     public static ClaimManager getInstance() {
         return INSTANCE;
@@ -58,91 +95,273 @@ public class ClaimManager {
 
     private ClaimManager() {
         this.adminUsageParty = new ConcurrentHashMap<>();
-        this.worldsNeedingUpdates = new HashSet<>();
         this.partyInvites = new ConcurrentHashMap<>();
         this.playerToParty = new ConcurrentHashMap<>();
         this.partyClaimCounts = new ConcurrentHashMap<>();
-        this.parties = new HashMap<>();
-        this.chunks = new HashMap<>();
-        this.reservedChunks = new HashMap<>();
+        this.parties = new ConcurrentHashMap<>();
+        this.chunks = new ConcurrentHashMap<>();
+        this.reservedChunks = new ConcurrentHashMap<>();
+        this.loadedDimensions = ConcurrentHashMap.newKeySet();
+        this.loadingDimensions = new ConcurrentHashMap<>();
+        this.dimensionLoader = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "SimpleClaims-DimensionLoader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.partyClaims = new ConcurrentHashMap<>();
+        this.partyReserved = new HashMap<>();
+        this.perimeterTracker = new PerimeterTracker();
+        this.perimeterReservationEnabled = Main.CONFIG.get().isEnablePerimeterReservation();
         this.playerNameTracker = new PlayerNameTracker();
-        this.adminOverrides = new HashSet<>();
-        this.databaseManager = new DatabaseManager(logger);
-        this.mapUpdateQueue = new HashMap<>();
-        this.executorService = Executors.newFixedThreadPool(4);
+        this.dirtyNames = ConcurrentHashMap.newKeySet();
+        this.adminOverrides = ConcurrentHashMap.newKeySet();
+        this.mapInvalidations = new MapInvalidationQueue();
+        var config = Main.CONFIG.get();
+        // A backup scheduled for restore is put in place before the storage opens its files
+        ClaimBackups.restoreIfScheduled(logger);
+        this.storage = ClaimStorage.create(logger, config);
+        ClaimConverter.convertLeftoverJournal(logger, this.storage);
+        logger.at(Level.INFO).log("Using " + this.storage.getName() + " storage");
+        this.writeQueue = this.storage.isWriteBehind() ? new DatabaseWriteQueue(logger, this.storage, config.getDatabaseBatchSize(), config.getDatabaseWriteQueueCapacity(), config.getDatabaseFlushIntervalMillis()) : null;
+        this.backups = new ClaimBackups(logger, this.storage, config.getBackupsToKeep());
 
         FileUtils.ensureMainDirectory();
+        checkPendingWrites();
 
         logger.at(Level.INFO).log("Loading simple claims data...");
 
-        if (this.databaseManager.isMigrationNecessary()) {
-            logger.at(Level.INFO).log("Migration needed, loading JSON files...");
-            PartyBlockingFile partyBlockingFile = new PartyBlockingFile();
-            ClaimedChunkBlockingFile claimedChunkBlockingFile = new ClaimedChunkBlockingFile();
-            PlayerNameTrackerBlockingFile playerNameTrackerBlockingFile = new PlayerNameTrackerBlockingFile();
-            AdminOverridesBlockingFile adminOverridesBlockingFile = new AdminOverridesBlockingFile();
-
-            if (new File(FileUtils.PARTY_PATH).exists()) {
-                FileUtils.loadWithBackup(partyBlockingFile::syncLoad, FileUtils.PARTY_PATH, logger);
-            }
-            if (new File(FileUtils.CLAIM_PATH).exists()) {
-                FileUtils.loadWithBackup(claimedChunkBlockingFile::syncLoad, FileUtils.CLAIM_PATH, logger);
-            }
-            if (new File(FileUtils.NAMES_CACHE_PATH).exists()) {
-                FileUtils.loadWithBackup(playerNameTrackerBlockingFile::syncLoad, FileUtils.NAMES_CACHE_PATH, logger);
-            }
-            if (new File(FileUtils.ADMIN_OVERRIDES_PATH).exists()) {
-                FileUtils.loadWithBackup(adminOverridesBlockingFile::syncLoad, FileUtils.ADMIN_OVERRIDES_PATH, logger);
-            }
-
-            this.databaseManager.migrate(partyBlockingFile, claimedChunkBlockingFile, playerNameTrackerBlockingFile, adminOverridesBlockingFile);
+        if (this.storage.isMigrationNecessary()) {
+            logger.at(Level.INFO).log("Migration needed, streaming JSON files...");
+            new LegacyJsonMigrator(logger, this.storage).migrate();
         }
 
+        // Claims and reserved chunks are loaded per world when it is added, only the claim counts of the parties are read at startup.
+        // Counts and names don't depend on each other, so they are read in parallel while the parties load
+        long loadStart = System.currentTimeMillis();
+        ExecutorService loadExecutor = Executors.newFixedThreadPool(2);
+        var countsFuture = CompletableFuture.supplyAsync(() -> timed("claim counts", this.storage::countClaimsByParty), loadExecutor);
+        var namesFuture = CompletableFuture.supplyAsync(() -> timed("name cache", this.storage::loadNameCache), loadExecutor);
+        loadExecutor.shutdown();
+
         logger.at(Level.INFO).log("Loading party data from DB...");
-        this.parties.putAll(this.databaseManager.loadParties());
+        this.parties.putAll(timed("parties", this.storage::loadParties));
         for (PartyInfo party : this.parties.values()) {
             for (UUID member : party.getMembers()) {
                 playerToParty.put(member, party.getId());
             }
-        }
-
-        logger.at(Level.INFO).log("Loading chunk data from DB...");
-        this.chunks.putAll(this.databaseManager.loadClaims());
-        for (HashMap<String, ChunkInfo> dimensionChunks : this.chunks.values()) {
-            for (ChunkInfo chunk : dimensionChunks.values()) {
-                partyClaimCounts.merge(chunk.getPartyOwner(), 1, Integer::sum);
+            // Party limits read the permissions of offline members too, they are resolved in the background instead of on a world thread
+            for (UUID member : party.getAllMembers()) {
+                PermissionCache.warm(member);
             }
         }
 
+        logger.at(Level.INFO).log("Loading admin overrides data from DB...");
+        this.adminOverrides.addAll(timed("admin overrides", this.storage::loadAdminOverrides));
+
+        logger.at(Level.INFO).log("Loading claim counts from DB...");
+        this.partyClaimCounts.putAll(countsFuture.join());
+
         logger.at(Level.INFO).log("Loading name cache data from DB...");
-        PlayerNameTracker tracker = this.databaseManager.loadNameCache();
-        for (PlayerNameTracker.PlayerName name : tracker.getNames()) {
+        for (PlayerNameTracker.PlayerName name : namesFuture.join().getNames()) {
             this.playerNameTracker.setPlayerName(name.getUuid(), name.getName(), name.getLastSeen(), name.getPlayTime());
         }
+        logger.at(Level.INFO).log("Loaded simple claims data in " + (System.currentTimeMillis() - loadStart) + "ms");
 
-        logger.at(Level.INFO).log("Loading admin overrides data from DB...");
-        this.adminOverrides.addAll(this.databaseManager.loadAdminOverrides());
-
-        logger.at(Level.INFO).log("Loading reserved chunks data from DB...");
-        this.reservedChunks.putAll(this.databaseManager.loadReservedChunks());
-      
         migrateOldClaimOverrides();
     }
 
+    /**
+     * Reports the writes the previous run couldn't flush, then marks this run as started.
+     * The file is only removed by a shutdown that flushed everything, so finding the start marker means the server didn't shut down cleanly
+     */
+    private void checkPendingWrites() {
+        Path marker = Path.of(FileUtils.PENDING_WRITES_PATH);
+        try {
+            if (Files.exists(marker)) {
+                List<String> lines = Files.readAllLines(marker);
+                if (!lines.isEmpty() && lines.get(0).startsWith(PENDING_WRITES_HEADER)) {
+                    logger.at(Level.SEVERE).log("The previous shutdown couldn't flush " + (lines.size() - 1) + " database writes, they were lost: " + String.join(", ", lines.subList(1, lines.size())));
+                } else {
+                    logger.at(Level.WARNING).log("The previous run didn't shut down cleanly, database writes queued right before it stopped may have been lost");
+                }
+            }
+            Files.writeString(marker, "Started " + LocalDateTime.now() + System.lineSeparator());
+        } catch (IOException e) {
+            logger.at(Level.WARNING).log("Error checking the pending writes of the previous run: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops accepting writes and flushes the pending ones within the timeout, then closes the storage.
+     * Writes that couldn't be flushed in time are listed in the pending writes file so the next startup reports them
+     */
+    public void shutdown(long timeoutMs) {
+        long start = System.currentTimeMillis();
+        this.dimensionLoader.shutdownNow();
+        flushNameCache();
+        boolean drained = true;
+        if (this.writeQueue != null) {
+            long flushedBefore = this.writeQueue.getFlushedWrites();
+            int pendingBefore = this.writeQueue.getQueueDepth();
+            drained = this.writeQueue.shutdown(timeoutMs);
+            long flushed = this.writeQueue.getFlushedWrites() - flushedBefore;
+            if (drained) {
+                logger.at(Level.INFO).log("Flushed " + flushed + " pending database writes in " + (System.currentTimeMillis() - start) + "ms");
+            } else {
+                List<String> unflushed = this.writeQueue.getPendingKeys();
+                logger.at(Level.SEVERE).log("Flushed " + flushed + " of " + pendingBefore + " pending database writes in " + (System.currentTimeMillis() - start) + "ms, " + unflushed.size() + " couldn't be flushed in time");
+                try {
+                    List<String> lines = new ArrayList<>();
+                    lines.add(PENDING_WRITES_HEADER + unflushed.size());
+                    lines.addAll(unflushed);
+                    Files.write(Path.of(FileUtils.PENDING_WRITES_PATH), lines);
+                } catch (IOException e) {
+                    logger.at(Level.SEVERE).log("Error saving the unflushed database writes: " + e.getMessage());
+                }
+            }
+        }
+        if (this.writeQueue != null && this.writeQueue.getDroppedWrites() > 0) {
+            logger.at(Level.WARNING).log("Dropped " + this.writeQueue.getDroppedWrites() + " database writes submitted after the write queue was shut down");
+        }
+        // The writer may still be using the storage when it didn't finish in time
+        if (!drained) return;
+        this.backups.shutdown();
+        this.storage.close();
+        try {
+            Files.deleteIfExists(Path.of(FileUtils.PENDING_WRITES_PATH));
+        } catch (IOException e) {
+            logger.at(Level.WARNING).log("Error removing the pending writes file: " + e.getMessage());
+        }
+    }
+
+    private <T> T timed(String phase, Supplier<T> loader) {
+        long start = System.currentTimeMillis();
+        T result = loader.get();
+        logger.at(Level.INFO).log("Loaded " + phase + " in " + (System.currentTimeMillis() - start) + "ms");
+        return result;
+    }
+
+    /**
+     * Loads the claims and reserved chunks of a world on the dimension loader, the returned future completes once they are merged.
+     * The maps of the world are created right away, so changes made while it loads aren't lost and win over the loaded state.
+     * Claim counts are loaded for every world at startup, so they aren't touched here. Until the claims are merged the world is locked,
+     * see {@link #isDimensionLoading(String)}. A load that fails keeps the world locked and is retried until it succeeds or the world is removed
+     */
+    public CompletableFuture<Void> loadDimension(String dimension) {
+        if (!this.loadedDimensions.add(dimension)) return CompletableFuture.completedFuture(null);
+        synchronized (claimWriteLock) {
+            this.chunks.computeIfAbsent(dimension, k -> new ConcurrentChunkMap<>());
+            this.reservedChunks.computeIfAbsent(dimension, k -> new ConcurrentChunkMap<>());
+            this.loadingDimensions.computeIfAbsent(dimension, k -> new DimensionLoad(new LongOpenHashSet(), new LongOpenHashSet()));
+        }
+        return CompletableFuture.runAsync(() -> readDimension(dimension), this.dimensionLoader).exceptionally(throwable -> {
+            logger.at(Level.SEVERE).log("Error loading the claims of " + dimension + ", retrying in " + DIMENSION_LOAD_RETRY_SECONDS + " seconds: " + throwable.getMessage());
+            throwable.printStackTrace();
+            synchronized (claimWriteLock) {
+                this.loadedDimensions.remove(dimension);
+                this.loadingDimensions.computeIfAbsent(dimension, k -> new DimensionLoad(new LongOpenHashSet(), new LongOpenHashSet()));
+            }
+            CompletableFuture.delayedExecutor(DIMENSION_LOAD_RETRY_SECONDS, TimeUnit.SECONDS).execute(() -> {
+                // Removed worlds drop their load, so they aren't retried
+                if (!this.dimensionLoader.isShutdown() && this.loadingDimensions.containsKey(dimension)) loadDimension(dimension);
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Whether the claims of the world are still being read. Protection checks deny everything and claims are refused until they are merged,
+     * otherwise the chunks that aren't read yet would look like wilderness
+     */
+    public boolean isDimensionLoading(String dimension) {
+        return this.loadingDimensions.containsKey(dimension);
+    }
+
+    /**
+     * Reads a dimension from the storage and merges it under the changes made while it was read.
+     * Pending writes are flushed first so the storage returns the latest state
+     */
+    private void readDimension(String dimension) {
+        long start = System.currentTimeMillis();
+        if (this.writeQueue != null && this.writeQueue.getQueueDepth() > 0) this.writeQueue.flush(30_000);
+        var dimensionChunks = this.storage.loadClaims(dimension);
+        var dimensionReserved = this.storage.loadReservedChunks(dimension);
+        synchronized (claimWriteLock) {
+            var load = this.loadingDimensions.remove(dimension);
+            var chunkMap = this.chunks.get(dimension);
+            var reservedMap = this.reservedChunks.get(dimension);
+            // The world was removed while it loaded
+            if (load == null || chunkMap == null || reservedMap == null) return;
+            for (ChunkInfo chunk : dimensionChunks.values()) {
+                long index = chunk.getChunkIndex();
+                if (!chunkMap.containsKey(index) && !load.removed().contains(index)) {
+                    chunkMap.put(index, chunk);
+                    indexPartyClaim(chunk.getPartyOwner(), dimension, index);
+                } else {
+                    // Claimed over or unclaimed while loading, the counts read at startup still hold the stored claim
+                    partyClaimCounts.computeIfPresent(chunk.getPartyOwner(), (k, v) -> v > 1 ? v - 1 : null);
+                }
+            }
+            for (ReservedChunk reserved : dimensionReserved.values()) {
+                long index = ChunkUtil.indexChunk(reserved.getChunkX(), reserved.getChunkZ());
+                if (!reservedMap.containsKey(index)) {
+                    reservedMap.put(index, reserved);
+                    indexPartyReserved(reserved.getReservedBy(), dimension, index);
+                }
+            }
+            for (LongIterator iterator = load.queued().iterator(); iterator.hasNext(); ) {
+                long index = iterator.nextLong();
+                unclaim(dimension, ChunkUtil.xOfChunkIndex(index), ChunkUtil.zOfChunkIndex(index));
+            }
+        }
+        logger.at(Level.INFO).log("Loaded " + dimensionChunks.size() + " claims and " + dimensionReserved.size() + " reserved chunks of " + dimension + " in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * Called once the worlds that existed at startup are loaded, the storage drops what it kept around for those loads
+     */
+    public void finishStartupLoads() {
+        this.storage.finishStartupLoads();
+    }
+
+    /**
+     * Drops the claims and reserved chunks of a removed world from memory, they stay in the storage and in the claim counts
+     */
+    public void unloadDimension(String dimension) {
+        boolean loaded = this.loadedDimensions.remove(dimension);
+        synchronized (claimWriteLock) {
+            // A world whose load failed isn't loaded, but its load is still retried
+            if (this.loadingDimensions.remove(dimension) == null && !loaded) return;
+            this.mapInvalidations.removeWorld(dimension);
+            this.chunks.remove(dimension);
+            this.reservedChunks.remove(dimension);
+            this.partyClaims.values().removeIf(partyDimensions -> {
+                partyDimensions.remove(dimension);
+                return partyDimensions.isEmpty();
+            });
+            this.partyReserved.values().removeIf(partyDimensions -> {
+                partyDimensions.remove(dimension);
+                return partyDimensions.isEmpty();
+            });
+            this.perimeterTracker.untrackDimension(dimension);
+        }
+        logger.at(Level.INFO).log("Unloaded the claims of " + dimension);
+    }
+
     public void saveParty(PartyInfo partyInfo) {
-        this.runAsync(() -> this.databaseManager.saveParty(partyInfo));
+        this.persist(WriteKey.of(WriteKey.Kind.PARTY, partyInfo.getId()), () -> this.storage.saveParty(partyInfo));
     }
 
     private void saveClaim(String dimension, ChunkInfo chunkInfo) {
-        this.runAsync(() -> this.databaseManager.saveClaim(dimension, chunkInfo));
+        this.persist(claimKey(dimension, chunkInfo.getChunkX(), chunkInfo.getChunkZ()), () -> this.storage.saveClaim(dimension, chunkInfo));
     }
 
     private void saveNameCache(UUID uuid, String name, long lastSeen, float playTime) {
-        this.runAsync(() -> this.databaseManager.saveNameCache(uuid, name, lastSeen, playTime));
+        this.persist(WriteKey.of(WriteKey.Kind.NAME, uuid), () -> this.storage.saveNameCache(uuid, name, lastSeen, playTime));
     }
 
     private void saveAdminOverride(UUID uuid) {
-        this.runAsync(() -> this.databaseManager.saveAdminOverride(uuid));
+        this.persist(WriteKey.of(WriteKey.Kind.ADMIN, uuid), () -> this.storage.saveAdminOverride(uuid));
     }
 
     public void addParty(PartyInfo partyInfo){
@@ -152,6 +371,7 @@ public class ClaimManager {
 
     public boolean isAllowedToInteract(UUID playerUUID, String dimension, int chunkX, int chunkZ, Predicate<PartyInfo> interactMethod, String permission) {
         if (playerUUID != null && adminOverrides.contains(playerUUID)) return true;
+        if (isDimensionLoading(dimension)) return false;
 
         var chunkInfo = getChunkRawCoords(dimension, chunkX, chunkZ);
         if (chunkInfo == null) return !Arrays.asList(Main.CONFIG.get().getFullWorldProtection()).contains(dimension);
@@ -209,9 +429,9 @@ public class ClaimManager {
 
     @Nullable
     public ChunkInfo getChunk(String dimension, int chunkX, int chunkZ){
-        var chunkInfo = this.chunks.computeIfAbsent(dimension, k -> new HashMap<>());
-        var formattedChunk = ChunkInfo.formatCoordinates(chunkX, chunkZ);
-        return chunkInfo.getOrDefault(formattedChunk, null);
+        var chunkDimension = this.chunks.get(dimension);
+        if (chunkDimension == null) return null;
+        return chunkDimension.get(ChunkUtil.indexChunk(chunkX, chunkZ));
     }
 
     @Nullable
@@ -219,35 +439,63 @@ public class ClaimManager {
         return this.getChunk(dimension, ChunkUtil.chunkCoordinate(blockX), ChunkUtil.chunkCoordinate(blockZ));
     }
 
+    /**
+     * Claims the chunk for the party, returns null without claiming it while the claims of the dimension are still loading
+     */
+    @Nullable
     public ChunkInfo claimChunkBy(String dimension, int chunkX, int chunkZ, PartyInfo partyInfo, Player owner, PlayerRef playerRef) {
         var chunkInfo = new ChunkInfo(partyInfo.getId(), chunkX, chunkZ);
-        var chunkDimension = this.chunks.computeIfAbsent(dimension, k -> new HashMap<>());
-        chunkDimension.put(ChunkInfo.formatCoordinates(chunkX, chunkZ), chunkInfo);
         chunkInfo.setCreatedTracked(new ModifiedTracking(playerRef.getUuid(), owner.getDisplayName(), LocalDateTime.now().toString()));
-        partyClaimCounts.merge(partyInfo.getId(), 1, Integer::sum);
-        
-        // Remove this chunk from reserved chunks if it was reserved by this party
-        if (Main.CONFIG.get().isEnablePerimeterReservation()) {
-            var reservedDimension = this.reservedChunks.get(dimension);
-            if (reservedDimension != null) {
-                ReservedChunk reserved = reservedDimension.get(ReservedChunk.formatCoordinates(chunkX, chunkZ));
+        long index = ChunkUtil.indexChunk(chunkX, chunkZ);
+        synchronized (claimWriteLock) {
+            // The chunk may be claimed in the storage by another party
+            if (this.loadingDimensions.containsKey(dimension)) return null;
+            boolean perimeterReservation = isPerimeterReservationEnabled();
+            var chunkDimension = this.chunks.computeIfAbsent(dimension, k -> new ConcurrentChunkMap<>());
+            if (perimeterReservation) {
+                ensurePerimeterTracked(dimension, partyInfo.getId());
+                // The counts of the previous owner have to be built while the chunk is still one of its claims, or releasing it would miss them
+                var current = chunkDimension.get(index);
+                if (current != null && !current.getPartyOwner().equals(partyInfo.getId())) {
+                    ensurePerimeterTracked(dimension, current.getPartyOwner());
+                }
+            }
+
+            var previous = chunkDimension.put(index, chunkInfo);
+            boolean alreadyOwned = previous != null && previous.getPartyOwner().equals(partyInfo.getId());
+            if (previous != null) {
+                partyClaimCounts.computeIfPresent(previous.getPartyOwner(), (k, v) -> v > 1 ? v - 1 : null);
+                unindexPartyClaim(previous.getPartyOwner(), dimension, index);
+                if (perimeterReservation && !alreadyOwned) {
+                    releasePerimeter(dimension, previous.getPartyOwner(), index);
+                }
+            }
+            partyClaimCounts.merge(partyInfo.getId(), 1, Integer::sum);
+            indexPartyClaim(partyInfo.getId(), dimension, index);
+
+            this.persist(claimKey(dimension, chunkInfo.getChunkX(), chunkInfo.getChunkZ()), () -> storage.saveClaim(dimension, chunkInfo));
+
+            if (perimeterReservation) {
+                // Remove this chunk from reserved chunks if it was reserved by this party
+                ReservedChunk reserved = getReservedChunk(dimension, chunkX, chunkZ);
                 if (reserved != null && reserved.getReservedBy().equals(partyInfo.getId())) {
-                    reservedDimension.remove(ReservedChunk.formatCoordinates(chunkX, chunkZ));
-                    this.runAsync(() -> databaseManager.deleteReservedChunk(dimension, chunkX, chunkZ));
+                    unreserveChunk(dimension, index);
+                }
+                // Reserve the neighbours that just became part of the perimeter
+                if (!alreadyOwned) {
+                    perimeterTracker.addClaim(dimension, partyInfo.getId(), index, neighbour -> {
+                        if (!isClaimIndexed(partyInfo.getId(), dimension, neighbour)) {
+                            reserveChunk(dimension, partyInfo.getId(), neighbour);
+                        }
+                    });
                 }
             }
         }
         
-        this.runAsync(() -> databaseManager.saveClaim(dimension, chunkInfo));
-        
-        // Calculate and reserve perimeter chunks if enabled
-        if (Main.CONFIG.get().isEnablePerimeterReservation()) {
-            updateReservedPerimeter(dimension, partyInfo.getId());
-        }
-        
         return chunkInfo;
     }
 
+    @Nullable
     public ChunkInfo claimChunkByRawCoords(String dimension, int blockX, int blockZ, PartyInfo partyInfo, Player owner, PlayerRef playerRef) {
         return this.claimChunkBy(dimension, ChunkUtil.chunkCoordinate(blockX), ChunkUtil.chunkCoordinate(blockZ), partyInfo, owner, playerRef);
     }
@@ -264,16 +512,33 @@ public class ClaimManager {
 
     public void unclaim(String dimension, int chunkX, int chunkZ) {
         var chunkMap = this.chunks.get(dimension);
-        if (chunkMap != null) {
-            ChunkInfo removed = chunkMap.remove(ChunkInfo.formatCoordinates(chunkX, chunkZ));
-            if (removed != null) {
-                UUID partyId = removed.getPartyOwner();
-                partyClaimCounts.computeIfPresent(partyId, (k, v) -> v > 1 ? v - 1 : null);
-                this.runAsync(() -> databaseManager.deleteClaim(dimension, chunkX, chunkZ));
-                
-                // Recalculate reserved perimeter after unclaiming if enabled
-                if (Main.CONFIG.get().isEnablePerimeterReservation()) {
-                    updateReservedPerimeter(dimension, partyId);
+        if (chunkMap == null) return;
+        long index = ChunkUtil.indexChunk(chunkX, chunkZ);
+        synchronized (claimWriteLock) {
+            var existing = chunkMap.get(index);
+            var load = this.loadingDimensions.get(dimension);
+            if (existing == null) {
+                // The chunk may not be read from the storage yet, it is unclaimed again once the dimension is loaded
+                if (load != null) load.queued().add(index);
+                return;
+            }
+            if (load != null) load.removed().add(index);
+            UUID partyId = existing.getPartyOwner();
+            boolean perimeterReservation = isPerimeterReservationEnabled();
+            if (perimeterReservation) ensurePerimeterTracked(dimension, partyId);
+
+            chunkMap.remove(index);
+            partyClaimCounts.computeIfPresent(partyId, (k, v) -> v > 1 ? v - 1 : null);
+            unindexPartyClaim(partyId, dimension, index);
+            this.persist(claimKey(dimension, chunkX, chunkZ), () -> storage.deleteClaim(dimension, chunkX, chunkZ));
+
+            if (perimeterReservation) {
+                releasePerimeter(dimension, partyId, index);
+                // The unclaimed chunk stays reserved while it still touches other claims of the party
+                if (perimeterTracker.getCount(dimension, partyId, index) > 0) {
+                    reserveChunk(dimension, partyId, index);
+                } else {
+                    handOverReservation(dimension, partyId, index);
                 }
             }
         }
@@ -283,19 +548,54 @@ public class ClaimManager {
         this.unclaim(dimension, ChunkUtil.chunkCoordinate(blockX), ChunkUtil.chunkCoordinate(blockZ));
     }
 
-    public Set<String> getWorldsNeedingUpdates() {
-        return worldsNeedingUpdates;
+    /**
+     * Gets the chunk indexes claimed by a party in a dimension, the returned set is a copy
+     */
+    public LongSet getClaimsOf(UUID partyId, String dimension) {
+        synchronized (claimWriteLock) {
+            var partyDimensions = this.partyClaims.get(partyId);
+            if (partyDimensions == null) return LongSets.EMPTY_SET;
+            var indexes = partyDimensions.get(dimension);
+            if (indexes == null) return LongSets.EMPTY_SET;
+            return new LongOpenHashSet(indexes);
+        }
+    }
+
+    /**
+     * Gets the dimensions where a party has at least one claim
+     */
+    public Set<String> getClaimDimensionsOf(UUID partyId) {
+        var partyDimensions = this.partyClaims.get(partyId);
+        if (partyDimensions == null) return Collections.emptySet();
+        return new HashSet<>(partyDimensions.keySet());
     }
 
-    public void setNeedsMapUpdate(String world) {
-        this.worldsNeedingUpdates.add(world);
+    private void indexPartyClaim(UUID partyId, String dimension, long index) {
+        this.partyClaims.computeIfAbsent(partyId, k -> new ConcurrentHashMap<>()).computeIfAbsent(dimension, k -> new LongOpenHashSet()).add(index);
+    }
+
+    private void unindexPartyClaim(UUID partyId, String dimension, long index) {
+        var partyDimensions = this.partyClaims.get(partyId);
+        if (partyDimensions == null) return;
+        var indexes = partyDimensions.get(dimension);
+        if (indexes == null) return;
+        indexes.remove(index);
+        if (indexes.isEmpty()) partyDimensions.remove(dimension);
+        if (partyDimensions.isEmpty()) this.partyClaims.remove(partyId);
+    }
+
+    private boolean isClaimIndexed(UUID partyId, String dimension, long index) {
+        var partyDimensions = this.partyClaims.get(partyId);
+        if (partyDimensions == null) return false;
+        var indexes = partyDimensions.get(dimension);
+        return indexes != null && indexes.contains(index);
     }
 
     public void setPlayerName(UUID uuid, String name, long lastSeen) {
         var existing = this.playerNameTracker.getNamesMap().get(uuid);
         float playTime = existing != null ? existing.getPlayTime() : 0;
         this.playerNameTracker.setPlayerName(uuid, name, lastSeen, playTime);
-        this.saveNameCache(uuid, name, lastSeen, playTime);
+        this.dirtyNames.add(uuid);
     }
 
     public void setPlayerPlayTime(UUID uuid, float playTime) {
@@ -303,22 +603,59 @@ public class ClaimManager {
         if (existing != null) {
             if (Math.abs(existing.getPlayTime() - playTime) < 0.01) return;
             this.playerNameTracker.setPlayerName(uuid, existing.getName(), existing.getLastSeen(), playTime);
-            this.saveNameCache(uuid, existing.getName(), existing.getLastSeen(), playTime);
+            this.dirtyNames.add(uuid);
+        }
+    }
+
+    /**
+     * Queues the names and play times that changed since the last flush, they reach the database together in the next batch.
+     * Called on an interval by the {@link com.buuz135.simpleclaims.util.NameCacheFlushThread} and at shutdown
+     */
+    public void flushNameCache() {
+        int count = 0;
+        for (Iterator<UUID> iterator = this.dirtyNames.iterator(); iterator.hasNext(); ) {
+            UUID uuid = iterator.next();
+            iterator.remove();
+            var name = this.playerNameTracker.getNamesMap().get(uuid);
+            if (name == null) continue;
+            this.saveNameCache(uuid, name.getName(), name.getLastSeen(), name.getPlayTime());
+            count++;
         }
+        if (count > 0) logger.at(Level.FINE).log("Queued " + count + " name cache rows");
     }
 
     public PlayerNameTracker getPlayerNameTracker() {
         return playerNameTracker;
     }
 
-    public HashMap<String, PartyInfo> getParties() {
+    public Map<String, PartyInfo> getParties() {
         return parties;
     }
 
-    public HashMap<String, HashMap<String, ChunkInfo>> getChunks() {
+    /**
+     * Gets every claimed chunk, grouped by dimension and keyed by {@link ChunkUtil#indexChunk(int, int)}
+     */
+    public Map<String, ConcurrentChunkMap<ChunkInfo>> getClaimedChunks() {
         return this.chunks;
     }
 
+    /**
+     * Compatibility view of the claimed chunks keyed by {@link ChunkInfo#formatCoordinates(int, int)}.
+     * This is a copy, prefer {@link #getClaimedChunks()} or {@link #getChunk(String, int, int)}
+     */
+    @Deprecated
+    public HashMap<String, HashMap<String, ChunkInfo>> getChunks() {
+        HashMap<String, HashMap<String, ChunkInfo>> view = new HashMap<>();
+        this.chunks.forEach((dimension, chunkInfos) -> {
+            HashMap<String, ChunkInfo> dimensionView = new HashMap<>();
+            for (ChunkInfo chunkInfo : chunkInfos.values()) {
+                dimensionView.put(chunkInfo.getCoordinates(), chunkInfo);
+            }
+            view.put(dimension, dimensionView);
+        });
+        return view;
+    }
+
     public Map<UUID, UUID> getAdminUsageParty() {
         return adminUsageParty;
     }
@@ -367,33 +704,44 @@ public class ClaimManager {
             playerToParty.remove(member);
         }
         queueMapUpdateForParty(partyInfo);
-        this.chunks.forEach((dimension, chunkInfos) -> chunkInfos.values().removeIf(chunkInfo -> {
-            boolean matches = chunkInfo.getPartyOwner().equals(partyInfo.getId());
-            if (matches) {
-                this.runAsync(() -> databaseManager.deleteClaim(dimension, chunkInfo.getChunkX(), chunkInfo.getChunkZ()));
+        ClaimLabelCache.invalidate(partyInfo.getId());
+        synchronized (claimWriteLock) {
+            var partyDimensions = this.partyClaims.remove(partyInfo.getId());
+            if (partyDimensions != null) {
+                partyDimensions.forEach((dimension, indexes) -> {
+                    var chunkInfos = this.chunks.get(dimension);
+                    if (chunkInfos == null) return;
+                    for (LongIterator iterator = indexes.iterator(); iterator.hasNext(); ) {
+                        chunkInfos.remove(iterator.nextLong());
+                    }
+                });
             }
-            return matches;
-        }));
-        
-        // Remove all reserved chunks for this party
-        this.reservedChunks.forEach((dimension, reservedMap) -> {
-            reservedMap.values().removeIf(reserved -> reserved.getReservedBy().equals(partyInfo.getId()));
-        });
-        this.runAsync(() -> {
-            this.chunks.forEach((dimension, chunkInfos) -> {
-                databaseManager.deleteReservedChunksByParty(dimension, partyInfo.getId());
-            });
-        });
-        
-        partyClaimCounts.remove(partyInfo.getId());
+
+            // Remove all reserved chunks for this party
+            perimeterTracker.untrack(partyInfo.getId());
+            var reservedDimensions = this.partyReserved.remove(partyInfo.getId());
+            if (reservedDimensions != null) {
+                reservedDimensions.forEach((dimension, indexes) -> {
+                    var reservedMap = this.reservedChunks.get(dimension);
+                    if (reservedMap == null) return;
+                    for (LongIterator iterator = indexes.iterator(); iterator.hasNext(); ) {
+                        reservedMap.remove(iterator.nextLong());
+                    }
+                });
+            }
+            // A single delete also covers the claims in worlds that aren't loaded
+            this.persist(WriteKey.of(WriteKey.Kind.PARTY_CHUNKS, partyInfo.getId()), () -> storage.deletePartyChunks(partyInfo.getId()));
+
+            partyClaimCounts.remove(partyInfo.getId());
+        }
 
         this.parties.remove(partyInfo.getId().toString());
-        this.runAsync(() -> databaseManager.deleteParty(partyInfo.getId()));
+        this.persist(WriteKey.of(WriteKey.Kind.PARTY, partyInfo.getId()), () -> storage.deleteParty(partyInfo.getId()));
     }
 
     public void removeAdminOverride(UUID uuid) {
         if (this.adminOverrides.remove(uuid)) {
-            this.runAsync(() -> databaseManager.deleteAdminOverride(uuid));
+            this.persist(WriteKey.of(WriteKey.Kind.ADMIN, uuid), () -> storage.deleteAdminOverride(uuid));
         }
     }
 
@@ -407,37 +755,38 @@ public class ClaimManager {
         return adminOverrides;
     }
 
+    /**
+     * Queues the claimed and reserved chunks of the party, a colour or name change doesn't touch the tiles around them
+     */
     public void queueMapUpdateForParty(PartyInfo partyInfo) {
-        this.getChunks().forEach((dimension, chunkInfos) -> {
-            var world = Universe.get().getWorlds().get(dimension);
-            if (world != null) {
-                for (ChunkInfo value : chunkInfos.values()) {
-                    if (value.getPartyOwner().equals(partyInfo.getId())) {
-                        queueMapUpdate(world, value.getChunkX(), value.getChunkZ());
-                    }
-                }
+        Map<String, LongSet> tiles = new HashMap<>();
+        synchronized (claimWriteLock) {
+            for (var partyTiles : Arrays.asList(this.partyClaims.get(partyInfo.getId()), this.partyReserved.get(partyInfo.getId()))) {
+                if (partyTiles == null) continue;
+                partyTiles.forEach((dimension, indexes) -> tiles.computeIfAbsent(dimension, k -> new LongOpenHashSet()).addAll(indexes));
             }
+        }
+        tiles.forEach((dimension, indexes) -> {
+            if (Universe.get().getWorlds().get(dimension) == null) return;
+            mapInvalidations.addAll(dimension, indexes);
         });
     }
 
+    /**
+     * Queues the chunk and the chunks around it, their claim borders depend on who owns this one
+     */
     public void queueMapUpdate(World world, int chunkX, int chunkZ) {
-        if (!mapUpdateQueue.containsKey(world.getName())) {
-            mapUpdateQueue.put(world.getName(), new LongOpenHashSet());
-        }
-        int[] dx = {-1, 0, 1, -1, 1, -1, 0, 1};
-        int[] dz = {-1, -1, -1, 0, 0, 1, 1, 1};
-
-        for (int i = 0; i < dx.length; i++) {
-            int adjX = chunkX + dx[i];
-            int adjZ = chunkZ + dz[i];
-            mapUpdateQueue.get(world.getName()).add(ChunkUtil.indexChunk(adjX, adjZ));
+        LongSet indexes = new LongOpenHashSet(9);
+        for (int x = chunkX - 1; x <= chunkX + 1; x++) {
+            for (int z = chunkZ - 1; z <= chunkZ + 1; z++) {
+                indexes.add(ChunkUtil.indexChunk(x, z));
+            }
         }
-        mapUpdateQueue.get(world.getName()).add(ChunkUtil.indexChunk(chunkX, chunkZ));
-        this.setNeedsMapUpdate(world.getName());
+        mapInvalidations.addAll(world.getName(), indexes);
     }
 
-    public HashMap<String, LongSet> getMapUpdateQueue() {
-        return mapUpdateQueue;
+    public MapInvalidationQueue getMapInvalidations() {
+        return mapInvalidations;
     }
 
     public Map<UUID, UUID> getPlayerToParty() {
@@ -496,8 +845,8 @@ public class ClaimManager {
         for (PartyInfo party : this.parties.values()) {
             var oldOverride = party.getOverride(PartyOverrides.CLAIM_CHUNK_AMOUNT);
             if (oldOverride != null) {
-                int oldValue = (Integer) oldOverride.getValue().getTypedValue();
                 int configDefault = Main.CONFIG.get().getDefaultPartyClaimsAmount();
+                int oldValue = oldOverride.getValue().getInt(configDefault);
                 
                 if (oldValue != configDefault) {
                     // Split into base + bonus
@@ -529,8 +878,44 @@ public class ClaimManager {
         }
     }
 
-    public void runAsync(Runnable runnable) {
-        this.executorService.submit(runnable);
+    /**
+     * Queues a database write, a pending write with the same key is replaced by this one.
+     * Storages that aren't write behind get the write right away
+     */
+    private void persist(WriteKey key, Runnable write) {
+        if (this.writeQueue == null) {
+            write.run();
+            return;
+        }
+        this.writeQueue.submit(key, write);
+    }
+
+    private static WriteKey claimKey(String dimension, int chunkX, int chunkZ) {
+        return WriteKey.chunk(WriteKey.Kind.CLAIM, dimension, ChunkUtil.indexChunk(chunkX, chunkZ));
+    }
+
+    private static WriteKey reservedKey(String dimension, int chunkX, int chunkZ) {
+        return WriteKey.chunk(WriteKey.Kind.RESERVED, dimension, ChunkUtil.indexChunk(chunkX, chunkZ));
+    }
+
+    /**
+     * Amount of database writes waiting to be flushed
+     */
+    public int getWriteQueueDepth() {
+        return this.writeQueue == null ? 0 : this.writeQueue.getQueueDepth();
+    }
+
+    @Nullable
+    public DatabaseWriteQueue getWriteQueue() {
+        return writeQueue;
+    }
+
+    public ClaimStorage getStorage() {
+        return storage;
+    }
+
+    public ClaimBackups getBackups() {
+        return backups;
     }
 
     /**
@@ -560,7 +945,7 @@ public class ClaimManager {
         var reservedDimension = this.reservedChunks.get(dimension);
         if (reservedDimension == null) return false;
         
-        ReservedChunk reserved = reservedDimension.get(ReservedChunk.formatCoordinates(chunkX, chunkZ));
+        ReservedChunk reserved = reservedDimension.get(ChunkUtil.indexChunk(chunkX, chunkZ));
         return reserved != null && !reserved.getReservedBy().equals(excludePartyId);
     }
 
@@ -571,7 +956,7 @@ public class ClaimManager {
         var reservedDimension = this.reservedChunks.get(dimension);
         if (reservedDimension == null) return false;
         
-        ReservedChunk reserved = reservedDimension.get(ReservedChunk.formatCoordinates(chunkX, chunkZ));
+        ReservedChunk reserved = reservedDimension.get(ChunkUtil.indexChunk(chunkX, chunkZ));
         return reserved != null && reserved.getReservedBy().equals(partyId);
     }
 
@@ -601,7 +986,7 @@ public class ClaimManager {
             }
             
             // Check if this adjacent chunk is reserved by another party
-            ReservedChunk reserved = reservedDimension.get(ReservedChunk.formatCoordinates(adjX, adjZ));
+            ReservedChunk reserved = reservedDimension.get(ChunkUtil.indexChunk(adjX, adjZ));
             if (reserved != null && !reserved.getReservedBy().equals(partyId)) {
                 // This chunk would be in the perimeter and is already reserved by another party
                 return true;
@@ -618,106 +1003,124 @@ public class ClaimManager {
     public ReservedChunk getReservedChunk(String dimension, int chunkX, int chunkZ) {
         var reservedDimension = this.reservedChunks.get(dimension);
         if (reservedDimension == null) return null;
-        return reservedDimension.get(ReservedChunk.formatCoordinates(chunkX, chunkZ));
+        return reservedDimension.get(ChunkUtil.indexChunk(chunkX, chunkZ));
     }
 
     /**
-     * Calculates and updates the reserved perimeter chunks for a party
-     * This creates a protective border around all claimed chunks
+     * Reads the perimeter reservation flag, must be called while holding the claim write lock. The counts are dropped when the flag changed,
+     * claims made while it was off didn't update them, so they get rebuilt and reconciled the next time each party is touched
      */
-    private void updateReservedPerimeter(String dimension, UUID partyId) {
-        var chunkDimension = this.chunks.get(dimension);
-        if (chunkDimension == null) return;
-        
-        // Get all chunks claimed by this party in this dimension
-        Set<String> partyChunkCoords = new HashSet<>();
-        for (ChunkInfo chunk : chunkDimension.values()) {
-            if (chunk.getPartyOwner().equals(partyId)) {
-                partyChunkCoords.add(ChunkInfo.formatCoordinates(chunk.getChunkX(), chunk.getChunkZ()));
-            }
-        }
-        
-        // If no chunks claimed, remove all reserved chunks for this party
-        if (partyChunkCoords.isEmpty()) {
-            var reservedDimension = this.reservedChunks.get(dimension);
-            if (reservedDimension != null) {
-                List<ReservedChunk> toRemove = new ArrayList<>();
-                for (ReservedChunk reserved : reservedDimension.values()) {
-                    if (reserved.getReservedBy().equals(partyId)) {
-                        toRemove.add(reserved);
-                    }
-                }
-                for (ReservedChunk reserved : toRemove) {
-                    reservedDimension.remove(ReservedChunk.formatCoordinates(reserved.getChunkX(), reserved.getChunkZ()));
-                    this.runAsync(() -> databaseManager.deleteReservedChunk(dimension, reserved.getChunkX(), reserved.getChunkZ()));
-                }
-            }
-            return;
+    private boolean isPerimeterReservationEnabled() {
+        boolean enabled = Main.CONFIG.get().isEnablePerimeterReservation();
+        if (enabled != this.perimeterReservationEnabled) {
+            this.perimeterReservationEnabled = enabled;
+            this.perimeterTracker.clear();
         }
-        
-        // Calculate perimeter: all chunks adjacent to claimed chunks that are not themselves claimed
-        Set<String> perimeterCoords = new HashSet<>();
-        for (String coord : partyChunkCoords) {
-            String[] parts = coord.split(":");
-            int chunkX = Integer.parseInt(parts[0]);
-            int chunkZ = Integer.parseInt(parts[1]);
-            
-            // Check all 8 directions (including diagonals for corners)
-            int[] dx = {-1, 0, 1, -1, 1, -1, 0, 1};
-            int[] dz = {-1, -1, -1, 0, 0, 1, 1, 1};
-            
-            for (int i = 0; i < dx.length; i++) {
-                int adjX = chunkX + dx[i];
-                int adjZ = chunkZ + dz[i];
-                String adjCoord = ChunkInfo.formatCoordinates(adjX, adjZ);
-                
-                // Only add if not already claimed by this party
-                if (!partyChunkCoords.contains(adjCoord)) {
-                    // Check if it's already claimed by another party - if so, don't reserve it
-                    ChunkInfo existingChunk = getChunk(dimension, adjX, adjZ);
-                    if (existingChunk == null || !existingChunk.getPartyOwner().equals(partyId)) {
-                        perimeterCoords.add(ReservedChunk.formatCoordinates(adjX, adjZ));
-                    }
-                }
-            }
-        }
-        
+        return enabled;
+    }
+
+    /**
+     * Makes sure the perimeter counts of a party are built, the first time a party is touched its existing
+     * reservations are reconciled against its claims, afterward every change only touches the 3x3 area around it
+     */
+    private void ensurePerimeterTracked(String dimension, UUID partyId) {
+        if (perimeterTracker.isTracked(dimension, partyId)) return;
+        LongSet claims = getClaimsOf(partyId, dimension);
+        perimeterTracker.track(dimension, partyId, claims);
+        LongSet perimeter = perimeterTracker.getPerimeter(dimension, partyId, claims);
+
         // Remove old reserved chunks that are no longer in the perimeter
-        var reservedDimension = this.reservedChunks.computeIfAbsent(dimension, k -> new HashMap<>());
-        List<ReservedChunk> toRemove = new ArrayList<>();
-        for (ReservedChunk reserved : reservedDimension.values()) {
-            if (reserved.getReservedBy().equals(partyId) && !perimeterCoords.contains(ReservedChunk.formatCoordinates(reserved.getChunkX(), reserved.getChunkZ()))) {
-                toRemove.add(reserved);
+        for (LongIterator iterator = getReservedOf(partyId, dimension).iterator(); iterator.hasNext(); ) {
+            long index = iterator.nextLong();
+            if (!perimeter.contains(index)) {
+                unreserveChunk(dimension, index);
+                handOverReservation(dimension, partyId, index);
             }
         }
-        for (ReservedChunk reserved : toRemove) {
-            reservedDimension.remove(ReservedChunk.formatCoordinates(reserved.getChunkX(), reserved.getChunkZ()));
-            this.runAsync(() -> databaseManager.deleteReservedChunk(dimension, reserved.getChunkX(), reserved.getChunkZ()));
+        // Add missing reserved chunks
+        for (LongIterator iterator = perimeter.iterator(); iterator.hasNext(); ) {
+            reserveChunk(dimension, partyId, iterator.nextLong());
         }
-        
-        // Add new reserved chunks
-        for (String coord : perimeterCoords) {
-            String[] parts = coord.split(":");
-            int chunkX = Integer.parseInt(parts[0]);
-            int chunkZ = Integer.parseInt(parts[1]);
-            
-            String formattedCoord = ReservedChunk.formatCoordinates(chunkX, chunkZ);
-            if (!reservedDimension.containsKey(formattedCoord)) {
-                ReservedChunk reserved = new ReservedChunk(partyId, chunkX, chunkZ);
-                reservedDimension.put(formattedCoord, reserved);
-                this.runAsync(() -> databaseManager.saveReservedChunk(dimension, reserved));
-            } else {
-                // Update if reserved by different party (shouldn't happen, but just in case)
-                ReservedChunk existing = reservedDimension.get(formattedCoord);
-                if (!existing.getReservedBy().equals(partyId)) {
-                    existing.setReservedBy(partyId);
-                    this.runAsync(() -> databaseManager.saveReservedChunk(dimension, existing));
+    }
+
+    /**
+     * Drops a claim from the perimeter counts of a party and frees the reservations it was holding alone
+     */
+    private void releasePerimeter(String dimension, UUID partyId, long index) {
+        perimeterTracker.removeClaim(dimension, partyId, index, neighbour -> {
+            ReservedChunk reserved = getReservedChunk(dimension, ChunkUtil.xOfChunkIndex(neighbour), ChunkUtil.zOfChunkIndex(neighbour));
+            if (reserved != null && reserved.getReservedBy().equals(partyId)) {
+                unreserveChunk(dimension, neighbour);
+                handOverReservation(dimension, partyId, neighbour);
+            }
+        });
+    }
+
+    /**
+     * Reserves a chunk released by a party for another party that still claims next to it. Reserving a chunk takes it over from
+     * the party that held it, so that party may still be touching it once the party that took it over lets it go
+     */
+    private void handOverReservation(String dimension, UUID releasedBy, long index) {
+        var chunkDimension = this.chunks.get(dimension);
+        if (chunkDimension == null || chunkDimension.get(index) != null) return;
+        int chunkX = ChunkUtil.xOfChunkIndex(index);
+        int chunkZ = ChunkUtil.zOfChunkIndex(index);
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                if (dx == 0 && dz == 0) continue;
+                ChunkInfo neighbour = chunkDimension.get(ChunkUtil.indexChunk(chunkX + dx, chunkZ + dz));
+                if (neighbour != null && !neighbour.getPartyOwner().equals(releasedBy)) {
+                    reserveChunk(dimension, neighbour.getPartyOwner(), index);
+                    return;
                 }
             }
         }
     }
 
-    public HashMap<String, HashMap<String, ReservedChunk>> getReservedChunks() {
+    private void reserveChunk(String dimension, UUID partyId, long index) {
+        var reservedDimension = this.reservedChunks.computeIfAbsent(dimension, k -> new ConcurrentChunkMap<>());
+        ReservedChunk existing = reservedDimension.get(index);
+        if (existing != null && existing.getReservedBy().equals(partyId)) return;
+        // Update if reserved by different party (shouldn't happen, but just in case)
+        ReservedChunk reserved = new ReservedChunk(partyId, ChunkUtil.xOfChunkIndex(index), ChunkUtil.zOfChunkIndex(index));
+        reservedDimension.put(index, reserved);
+        if (existing != null) unindexPartyReserved(existing.getReservedBy(), dimension, index);
+        indexPartyReserved(partyId, dimension, index);
+        this.persist(reservedKey(dimension, reserved.getChunkX(), reserved.getChunkZ()), () -> storage.saveReservedChunk(dimension, reserved));
+    }
+
+    private void unreserveChunk(String dimension, long index) {
+        var reservedDimension = this.reservedChunks.get(dimension);
+        if (reservedDimension == null) return;
+        ReservedChunk removed = reservedDimension.remove(index);
+        if (removed == null) return;
+        unindexPartyReserved(removed.getReservedBy(), dimension, index);
+        this.persist(reservedKey(dimension, removed.getChunkX(), removed.getChunkZ()), () -> storage.deleteReservedChunk(dimension, removed.getChunkX(), removed.getChunkZ()));
+    }
+
+    private LongSet getReservedOf(UUID partyId, String dimension) {
+        var partyDimensions = this.partyReserved.get(partyId);
+        if (partyDimensions == null) return LongSets.EMPTY_SET;
+        var indexes = partyDimensions.get(dimension);
+        if (indexes == null) return LongSets.EMPTY_SET;
+        return new LongOpenHashSet(indexes);
+    }
+
+    private void indexPartyReserved(UUID partyId, String dimension, long index) {
+        this.partyReserved.computeIfAbsent(partyId, k -> new HashMap<>()).computeIfAbsent(dimension, k -> new LongOpenHashSet()).add(index);
+    }
+
+    private void unindexPartyReserved(UUID partyId, String dimension, long index) {
+        var partyDimensions = this.partyReserved.get(partyId);
+        if (partyDimensions == null) return;
+        var indexes = partyDimensions.get(dimension);
+        if (indexes == null) return;
+        indexes.remove(index);
+        if (indexes.isEmpty()) partyDimensions.remove(dimension);
+        if (partyDimensions.isEmpty()) this.partyReserved.remove(partyId);
+    }
+
+    public Map<String, ConcurrentChunkMap<ReservedChunk>> getReservedChunks() {
         return reservedChunks;
     }
 }
@@ -1,6 +1,7 @@
 package com.buuz135.simpleclaims.claim.chunk;
 
 import com.buuz135.simpleclaims.claim.tracking.ModifiedTracking;
+import com.hypixel.hytale.math.util.ChunkUtil;
 import dev.unnm3d.codeclib.config.FieldName;
 
 import java.time.LocalDateTime;
@@ -22,10 +23,14 @@ public class ChunkInfo {
     private ModifiedTracking createdTracked;
 
     public ChunkInfo(UUID partyOwner, int chunkX, int chunkZ) {
+        this(partyOwner, chunkX, chunkZ, new ModifiedTracking(UUID.randomUUID(), "-", LocalDateTime.now().toString()));
+    }
+
+    public ChunkInfo(UUID partyOwner, int chunkX, int chunkZ, ModifiedTracking createdTracked) {
         this.partyOwner = partyOwner;
         this.chunkX = chunkX;
         this.chunkZ = chunkZ;
-        this.createdTracked = new ModifiedTracking(UUID.randomUUID(), "-", LocalDateTime.now().toString());
+        this.createdTracked = createdTracked;
     }
 
     public ChunkInfo() {
@@ -68,6 +73,10 @@ public class ChunkInfo {
         return formatCoordinates(chunkX, chunkZ);
     }
 
+    public long getChunkIndex() {
+        return ChunkUtil.indexChunk(chunkX, chunkZ);
+    }
+
     public static final class DimensionStorage {
 
 
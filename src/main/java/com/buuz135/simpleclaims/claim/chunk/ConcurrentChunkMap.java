@@ -0,0 +1,149 @@
+package com.buuz135.simpleclaims.claim.chunk;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+
+/**
+ * Chunk index keyed map for a single dimension that can be read from any thread.
+ * Lookups use an optimistic read of a {@link StampedLock} so they never block world ticks and allocate nothing,
+ * writes take the exclusive lock. Iteration always works on a snapshot.
+ */
+public class ConcurrentChunkMap<T> {
+
+    private final Long2ObjectOpenHashMap<T> map;
+    private final StampedLock lock;
+
+    public ConcurrentChunkMap() {
+        this.map = new Long2ObjectOpenHashMap<>();
+        this.lock = new StampedLock();
+    }
+
+    public ConcurrentChunkMap(Long2ObjectMap<T> values) {
+        this.map = new Long2ObjectOpenHashMap<>(values);
+        this.lock = new StampedLock();
+    }
+
+    @Nullable
+    public T get(long index) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            T value;
+            try {
+                value = map.get(index);
+            } catch (RuntimeException e) {
+                // A writer resized the table under us, fall back to a real read lock
+                value = null;
+                stamp = 0L;
+            }
+            if (stamp != 0L && lock.validate(stamp)) return value;
+        }
+        stamp = lock.readLock();
+        try {
+            return map.get(index);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean containsKey(long index) {
+        return get(index) != null;
+    }
+
+    @Nullable
+    public T put(long index, T value) {
+        long stamp = lock.writeLock();
+        try {
+            return map.put(index, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public T computeIfAbsent(long index, LongFunction<T> mappingFunction) {
+        long stamp = lock.writeLock();
+        try {
+            T value = map.get(index);
+            if (value == null) {
+                value = mappingFunction.apply(index);
+                map.put(index, value);
+            }
+            return value;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Nullable
+    public T remove(long index) {
+        long stamp = lock.writeLock();
+        try {
+            return map.remove(index);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes every value matching the predicate and returns them
+     */
+    public List<T> removeIf(Predicate<T> predicate) {
+        List<T> removed = new ArrayList<>();
+        long stamp = lock.writeLock();
+        try {
+            map.values().removeIf(value -> {
+                if (predicate.test(value)) {
+                    removed.add(value);
+                    return true;
+                }
+                return false;
+            });
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return removed;
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return map.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Snapshot of the values, safe to iterate while other threads keep writing
+     */
+    public List<T> values() {
+        long stamp = lock.readLock();
+        try {
+            return new ArrayList<>(map.values());
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Snapshot copy of the underlying map
+     */
+    public Long2ObjectMap<T> snapshot() {
+        long stamp = lock.readLock();
+        try {
+            return new Long2ObjectOpenHashMap<>(map);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
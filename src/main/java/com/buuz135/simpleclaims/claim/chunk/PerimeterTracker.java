@@ -0,0 +1,134 @@
+package com.buuz135.simpleclaims.claim.chunk;
+
+import com.hypixel.hytale.math.util.ChunkUtil;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+/**
+ * Keeps, per dimension and party, how many chunks claimed by the party touch each chunk (including diagonals).
+ * A chunk is part of the perimeter of a party while that count is above zero and the party doesn't claim it itself,
+ * so a claim or unclaim only has to look at the 3x3 neighbourhood of the changed chunk.
+ * Not thread safe, callers must serialize the updates.
+ */
+public class PerimeterTracker {
+
+    private static final int[] DX = {-1, 0, 1, -1, 1, -1, 0, 1};
+    private static final int[] DZ = {-1, -1, -1, 0, 0, 1, 1, 1};
+
+    private final Map<String, Map<UUID, Long2IntOpenHashMap>> counts;
+
+    public PerimeterTracker() {
+        this.counts = new HashMap<>();
+    }
+
+    public boolean isTracked(String dimension, UUID partyId) {
+        var dimensionCounts = this.counts.get(dimension);
+        return dimensionCounts != null && dimensionCounts.containsKey(partyId);
+    }
+
+    /**
+     * Builds the neighbour counts of a party from all of its claims in the dimension
+     */
+    public void track(String dimension, UUID partyId, LongSet claims) {
+        var partyCounts = new Long2IntOpenHashMap(claims.size() * 4);
+        for (LongIterator iterator = claims.iterator(); iterator.hasNext(); ) {
+            long index = iterator.nextLong();
+            int chunkX = ChunkUtil.xOfChunkIndex(index);
+            int chunkZ = ChunkUtil.zOfChunkIndex(index);
+            for (int i = 0; i < DX.length; i++) {
+                partyCounts.addTo(ChunkUtil.indexChunk(chunkX + DX[i], chunkZ + DZ[i]), 1);
+            }
+        }
+        this.counts.computeIfAbsent(dimension, k -> new HashMap<>()).put(partyId, partyCounts);
+    }
+
+    public void untrack(UUID partyId) {
+        this.counts.values().removeIf(dimensionCounts -> {
+            dimensionCounts.remove(partyId);
+            return dimensionCounts.isEmpty();
+        });
+    }
+
+    public void untrackDimension(String dimension) {
+        this.counts.remove(dimension);
+    }
+
+    public void clear() {
+        this.counts.clear();
+    }
+
+    /**
+     * Gets the chunks that are touched by the claims of the party but not claimed by it
+     */
+    public LongSet getPerimeter(String dimension, UUID partyId, LongSet claims) {
+        LongSet perimeter = new LongOpenHashSet();
+        var partyCounts = getCounts(dimension, partyId);
+        if (partyCounts == null) return perimeter;
+        for (Long2IntMap.Entry entry : partyCounts.long2IntEntrySet()) {
+            if (!claims.contains(entry.getLongKey())) perimeter.add(entry.getLongKey());
+        }
+        return perimeter;
+    }
+
+    /**
+     * Gets how many claims of the party touch the chunk
+     */
+    public int getCount(String dimension, UUID partyId, long index) {
+        var partyCounts = getCounts(dimension, partyId);
+        return partyCounts == null ? 0 : partyCounts.get(index);
+    }
+
+    /**
+     * Registers a new claim of the party, entered is called for every neighbour that wasn't touched by the party before
+     */
+    public void addClaim(String dimension, UUID partyId, long index, LongConsumer entered) {
+        var partyCounts = this.counts.computeIfAbsent(dimension, k -> new HashMap<>()).computeIfAbsent(partyId, k -> new Long2IntOpenHashMap());
+        int chunkX = ChunkUtil.xOfChunkIndex(index);
+        int chunkZ = ChunkUtil.zOfChunkIndex(index);
+        for (int i = 0; i < DX.length; i++) {
+            long neighbour = ChunkUtil.indexChunk(chunkX + DX[i], chunkZ + DZ[i]);
+            if (partyCounts.addTo(neighbour, 1) == 0) {
+                entered.accept(neighbour);
+            }
+        }
+    }
+
+    /**
+     * Removes a claim of the party, left is called for every neighbour that isn't touched by the party anymore
+     */
+    public void removeClaim(String dimension, UUID partyId, long index, LongConsumer left) {
+        var partyCounts = getCounts(dimension, partyId);
+        if (partyCounts == null) return;
+        int chunkX = ChunkUtil.xOfChunkIndex(index);
+        int chunkZ = ChunkUtil.zOfChunkIndex(index);
+        for (int i = 0; i < DX.length; i++) {
+            long neighbour = ChunkUtil.indexChunk(chunkX + DX[i], chunkZ + DZ[i]);
+            int count = partyCounts.get(neighbour);
+            if (count <= 1) {
+                partyCounts.remove(neighbour);
+                if (count == 1) left.accept(neighbour);
+            } else {
+                partyCounts.put(neighbour, count - 1);
+            }
+        }
+        if (partyCounts.isEmpty()) {
+            var dimensionCounts = this.counts.get(dimension);
+            dimensionCounts.remove(partyId);
+            if (dimensionCounts.isEmpty()) this.counts.remove(dimension);
+        }
+    }
+
+    private Long2IntOpenHashMap getCounts(String dimension, UUID partyId) {
+        var dimensionCounts = this.counts.get(dimension);
+        if (dimensionCounts == null) return null;
+        return dimensionCounts.get(partyId);
+    }
+}
@@ -3,14 +3,23 @@ package com.buuz135.simpleclaims.claim.party;
 import com.buuz135.simpleclaims.Main;
 import com.buuz135.simpleclaims.claim.ClaimManager;
 import com.buuz135.simpleclaims.claim.tracking.ModifiedTracking;
-import com.buuz135.simpleclaims.util.Permissions;
+import com.buuz135.simpleclaims.util.PermissionCache;
 import com.hypixel.hytale.server.core.permissions.PermissionsModule;
 
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class PartyInfo {
 
+    public static final int DIRTY_FIELDS = 1;
+    public static final int DIRTY_MEMBERS = 1 << 1;
+    public static final int DIRTY_OVERRIDES = 1 << 2;
+    public static final int DIRTY_ALLIES = 1 << 3;
+    public static final int DIRTY_PERMISSIONS = 1 << 4;
+    public static final int DIRTY_ALL = DIRTY_FIELDS | DIRTY_MEMBERS | DIRTY_OVERRIDES | DIRTY_ALLIES | DIRTY_PERMISSIONS;
+
     private UUID id;
     private UUID owner;
     private String name;
@@ -23,27 +32,37 @@ public class PartyInfo {
     private final Set<UUID> partyAllies;
     private final Set<UUID> playerAllies;
     private final Map<UUID, Map<String, Boolean>> permissionOverrides;
+    private volatile PartyProtection protection;
+    private volatile PermissionLimits permissionLimits;
+    private final AtomicInteger dirtySections;
+
+    /**
+     * Permission values of the owner and every member, -1 when a member doesn't have the permission
+     */
+    private record PermissionLimits(int ownerClaimAmount, int[] claimAmounts, int[] maxAddChunkAmounts, long expiresAtMs) {}
 
     public PartyInfo(UUID id, UUID owner, String name, String description, UUID[] members, int color) {
+        this.dirtySections = new AtomicInteger(DIRTY_ALL);
         this.id = id;
         this.owner = owner;
         this.name = name;
         this.description = description;
-        this.memberSet = new HashSet<>();
+        this.memberSet = ConcurrentHashMap.newKeySet();
         this.memberSet.addAll(Arrays.asList(members));
         this.color = color;
-        this.overrideMap = new HashMap<>();
+        this.overrideMap = new ConcurrentHashMap<>();
         // Don't set default CLAIM_CHUNK_AMOUNT override - calculate dynamically from config/permissions
-        setOverride(new PartyOverride(PartyOverrides.PARTY_PROTECTION_PLACE_BLOCKS, new PartyOverride.PartyOverrideValue("bool", Main.CONFIG.get().isDefaultPartyBlockPlaceEnabled())));
-        setOverride(new PartyOverride(PartyOverrides.PARTY_PROTECTION_BREAK_BLOCKS, new PartyOverride.PartyOverrideValue("bool", Main.CONFIG.get().isDefaultPartyBlockBreakEnabled())));
-        setOverride(new PartyOverride(PartyOverrides.PARTY_PROTECTION_INTERACT, new PartyOverride.PartyOverrideValue("bool", Main.CONFIG.get().isDefaultPartyBlockInteractEnabled())));
-        setOverride(new PartyOverride(PartyOverrides.PARTY_PROTECTION_ALLOW_ENTRY, new PartyOverride.PartyOverrideValue("bool", Main.CONFIG.get().isDefaultPartyAllowEntry())));
-        setOverride(new PartyOverride(PartyOverrides.PARTY_PROTECTION_INTERACT_PORTAL, new PartyOverride.PartyOverrideValue("bool", Main.CONFIG.get().isDefaultPartyInteractPortal())));
+        putOverride(new PartyOverride(PartyOverrides.PARTY_PROTECTION_PLACE_BLOCKS, new PartyOverride.PartyOverrideValue("bool", Main.CONFIG.get().isDefaultPartyBlockPlaceEnabled())));
+        putOverride(new PartyOverride(PartyOverrides.PARTY_PROTECTION_BREAK_BLOCKS, new PartyOverride.PartyOverrideValue("bool", Main.CONFIG.get().isDefaultPartyBlockBreakEnabled())));
+        putOverride(new PartyOverride(PartyOverrides.PARTY_PROTECTION_INTERACT, new PartyOverride.PartyOverrideValue("bool", Main.CONFIG.get().isDefaultPartyBlockInteractEnabled())));
+        putOverride(new PartyOverride(PartyOverrides.PARTY_PROTECTION_ALLOW_ENTRY, new PartyOverride.PartyOverrideValue("bool", Main.CONFIG.get().isDefaultPartyAllowEntry())));
+        putOverride(new PartyOverride(PartyOverrides.PARTY_PROTECTION_INTERACT_PORTAL, new PartyOverride.PartyOverrideValue("bool", Main.CONFIG.get().isDefaultPartyInteractPortal())));
+        this.protection = PartyProtection.compile(this.overrideMap);
         this.createdTracked = new ModifiedTracking();
         this.modifiedTracked = new ModifiedTracking();
-        this.partyAllies = new HashSet<>();
-        this.playerAllies = new HashSet<>();
-        this.permissionOverrides = new HashMap<>();
+        this.partyAllies = ConcurrentHashMap.newKeySet();
+        this.playerAllies = ConcurrentHashMap.newKeySet();
+        this.permissionOverrides = new ConcurrentHashMap<>();
     }
 
     public PartyInfo() {
@@ -56,6 +75,7 @@ public class PartyInfo {
 
     public void setId(UUID id) {
         this.id = id;
+        markDirty(DIRTY_FIELDS);
     }
 
     public UUID getOwner() {
@@ -87,19 +107,26 @@ public class PartyInfo {
 
     public void setOwner(UUID owner) {
         this.owner = owner;
+        markDirty(DIRTY_FIELDS);
+        invalidatePermissionLimits();
+        PermissionCache.warm(owner);
     }
 
     public void setName(String name) {
         this.name = name;
+        markDirty(DIRTY_FIELDS);
     }
 
     public void setDescription(String description) {
         this.description = description;
+        markDirty(DIRTY_FIELDS);
     }
 
     public void setMembers(UUID[] members) {
         this.memberSet.clear();
         this.memberSet.addAll(Arrays.asList(members));
+        markDirty(DIRTY_MEMBERS);
+        invalidatePermissionLimits();
     }
 
     public boolean isOwner(UUID uuid){
@@ -120,6 +147,7 @@ public class PartyInfo {
 
     public void setColor(int color) {
         this.color = color;
+        markDirty(DIRTY_FIELDS);
     }
 
     public List<PartyOverride> getOverrides() {
@@ -131,18 +159,49 @@ public class PartyInfo {
             return;
         }
         memberSet.add(uuid);
+        markDirty(DIRTY_MEMBERS);
+        invalidatePermissionLimits();
+        PermissionCache.warm(uuid);
     }
 
     public void removeMember(UUID uuid){
         memberSet.remove(uuid);
+        markDirty(DIRTY_MEMBERS);
         ClaimManager.getInstance().getPlayerToParty().remove(uuid);
+        invalidatePermissionLimits();
+    }
+
+    /**
+     * Drops the cached permission values of the members, called when the members or their permissions change
+     */
+    public void invalidatePermissionLimits() {
+        this.permissionLimits = null;
+    }
+
+    private PermissionLimits getPermissionLimits() {
+        var limits = this.permissionLimits;
+        if (limits != null && System.currentTimeMillis() < limits.expiresAtMs()) return limits;
+        var members = getAllMembers();
+        int[] claimAmounts = new int[members.size()];
+        int[] maxAddChunkAmounts = new int[members.size()];
+        // Valid as long as the permissions of every member it was built from
+        long expiresAtMs = Long.MAX_VALUE;
+        for (int i = 0; i < members.size(); i++) {
+            var memberLimits = PermissionCache.get(members.get(i));
+            claimAmounts[i] = memberLimits.claimAmount();
+            maxAddChunkAmounts[i] = memberLimits.maxAddChunkAmount();
+            expiresAtMs = Math.min(expiresAtMs, PermissionCache.getExpiresAt(members.get(i)));
+        }
+        limits = new PermissionLimits(claimAmounts[0], claimAmounts, maxAddChunkAmounts, expiresAtMs);
+        this.permissionLimits = limits;
+        return limits;
     }
 
     public int getBaseClaimAmount() {
         // Check for admin base override first
-        var baseOverride = this.getOverride(PartyOverrides.CLAIM_CHUNK_BASE);
-        if (baseOverride != null) {
-            int baseValue = (Integer) baseOverride.getValue().getTypedValue();
+        var protection = getProtection();
+        int baseValue = protection.getBaseClaimAmount();
+        if (baseValue != PartyProtection.NO_VALUE) {
             // If scaling enabled, multiply admin override by member count
             if (Main.CONFIG.get().isScaleClaimLimitByMembers()) {
                 return baseValue * getTotalMemberCount();
@@ -151,17 +210,17 @@ public class PartyInfo {
         }
         
         // Check for legacy CLAIM_CHUNK_AMOUNT override (backward compatibility)
-        var legacyOverride = this.getOverride(PartyOverrides.CLAIM_CHUNK_AMOUNT);
-        if (legacyOverride != null) {
-            int legacyValue = (Integer) legacyOverride.getValue().getTypedValue();
+        int legacyValue = protection.getLegacyClaimAmount();
+        if (legacyValue != PartyProtection.NO_VALUE) {
             // Legacy overrides are treated as absolute (no scaling)
             return legacyValue;
         }
         
         // No override - calculate from permissions/config
+        var limits = getPermissionLimits();
         if (!Main.CONFIG.get().isScaleClaimLimitByMembers()) {
             // Legacy mode: only owner's permission or config default
-            var amount = Permissions.getPermissionClaimAmount(owner);
+            var amount = limits.ownerClaimAmount();
             if (amount != -1) {
                 return amount;
             }
@@ -169,8 +228,7 @@ public class PartyInfo {
         } else {
             // Scaling mode: sum all members' permissions or config defaults
             int total = 0;
-            for (UUID member : getAllMembers()) {
-                var amount = Permissions.getPermissionClaimAmount(member);
+            for (int amount : limits.claimAmounts()) {
                 if (amount != -1) {
                     total += amount;
                 } else {
@@ -181,14 +239,6 @@ public class PartyInfo {
         }
     }
 
-    public int getBonusChunks() {
-        var bonusOverride = this.getOverride(PartyOverrides.BONUS_CLAIM_CHUNKS);
-        if (bonusOverride != null) {
-            return (Integer) bonusOverride.getValue().getTypedValue();
-        }
-        return 0;
-    }
-
     public int getMaxBonusLimit() {
         if (!Main.CONFIG.get().isScaleClaimLimitByMembers()) {
             // Legacy mode: config max only
@@ -196,8 +246,7 @@ public class PartyInfo {
         } else {
             // Scaling mode: sum all members' max permissions or config max
             int total = 0;
-            for (UUID member : getAllMembers()) {
-                var maxAmount = Permissions.getPermissionMaxAddChunkAmount(member);
+            for (int maxAmount : getPermissionLimits().maxAddChunkAmounts()) {
                 if (maxAmount != -1 && maxAmount > Main.CONFIG.get().getMaxAddChunkAmount()) {
                     total += maxAmount;
                 } else {
@@ -213,109 +262,80 @@ public class PartyInfo {
     }
 
     public boolean isBlockPlaceEnabled(){
-        var override = this.getOverride(PartyOverrides.PARTY_PROTECTION_PLACE_BLOCKS);
-        if (override != null) {
-            return (Boolean) override.getValue().getTypedValue();
-        }
-        return Main.CONFIG.get().isDefaultPartyBlockPlaceEnabled();
+        return getProtection().has(PartyProtection.PLACE_BLOCKS);
     }
 
     public boolean isBlockBreakEnabled(){
-        var override = this.getOverride(PartyOverrides.PARTY_PROTECTION_BREAK_BLOCKS);
-        if (override != null) {
-            return (Boolean) override.getValue().getTypedValue();
-        }
-        return Main.CONFIG.get().isDefaultPartyBlockBreakEnabled();
+        return getProtection().has(PartyProtection.BREAK_BLOCKS);
     }
 
     public boolean isBlockInteractEnabled(){
-        var override = this.getOverride(PartyOverrides.PARTY_PROTECTION_INTERACT);
-        if (override != null) {
-            return (Boolean) override.getValue().getTypedValue();
-        }
-        return Main.CONFIG.get().isDefaultPartyBlockInteractEnabled();
+        return getProtection().has(PartyProtection.INTERACT);
     }
 
     public boolean isPVPEnabled() {
-        var override = this.getOverride(PartyOverrides.PARTY_PROTECTION_PVP);
-        if (override != null) {
-            return (Boolean) override.getValue().getTypedValue();
-        }
-        return Main.CONFIG.get().isDefaultPartyPVPEnabled();
+        return getProtection().has(PartyProtection.PVP);
     }
 
     public boolean isFriendlyFireEnabled() {
-        var override = this.getOverride(PartyOverrides.PARTY_PROTECTION_FRIENDLY_FIRE);
-        if (override != null) {
-            return (Boolean) override.getValue().getTypedValue();
-        }
-        return Main.CONFIG.get().isDefaultPartyFriendlyFireEnabled();
+        return getProtection().has(PartyProtection.FRIENDLY_FIRE);
     }
 
     public boolean isAllowEntryEnabled() {
-        var override = this.getOverride(PartyOverrides.PARTY_PROTECTION_ALLOW_ENTRY);
-        if (override != null) {
-            return (Boolean) override.getValue().getTypedValue();
-        }
-        return Main.CONFIG.get().isDefaultPartyAllowEntry();
+        return getProtection().has(PartyProtection.ALLOW_ENTRY);
     }
 
     public boolean isChestInteractEnabled() {
-        var override = this.getOverride(PartyOverrides.PARTY_PROTECTION_INTERACT_CHEST);
-        if (override != null) {
-            return (Boolean) override.getValue().getTypedValue();
-        }
-        return Main.CONFIG.get().isDefaultPartyInteractChest();
+        return getProtection().has(PartyProtection.INTERACT_CHEST);
     }
 
     public boolean isDoorInteractEnabled() {
-        var override = this.getOverride(PartyOverrides.PARTY_PROTECTION_INTERACT_DOOR);
-        if (override != null) {
-            return (Boolean) override.getValue().getTypedValue();
-        }
-        return Main.CONFIG.get().isDefaultPartyInteractDoor();
+        return getProtection().has(PartyProtection.INTERACT_DOOR);
     }
 
     public boolean isBenchInteractEnabled() {
-        var override = this.getOverride(PartyOverrides.PARTY_PROTECTION_INTERACT_BENCH);
-        if (override != null) {
-            return (Boolean) override.getValue().getTypedValue();
-        }
-        return Main.CONFIG.get().isDefaultPartyInteractBench();
+        return getProtection().has(PartyProtection.INTERACT_BENCH);
     }
 
     public boolean isChairInteractEnabled() {
-        var override = this.getOverride(PartyOverrides.PARTY_PROTECTION_INTERACT_CHAIR);
-        if (override != null) {
-            return (Boolean) override.getValue().getTypedValue();
-        }
-        return Main.CONFIG.get().isDefaultPartyInteractChair();
+        return getProtection().has(PartyProtection.INTERACT_CHAIR);
     }
 
     public boolean isPortalInteractEnabled() {
-        var override = this.getOverride(PartyOverrides.PARTY_PROTECTION_INTERACT_PORTAL);
-        if (override != null) {
-            return (Boolean) override.getValue().getTypedValue();
-        }
-        return Main.CONFIG.get().isDefaultPartyInteractPortal();
+        return getProtection().has(PartyProtection.INTERACT_PORTAL);
     }
 
     public void setOverride(PartyOverride override){
+        putOverride(override);
+        recompileProtection();
+    }
+
+    /**
+     * Sets several overrides at once, compiling the protection settings only once
+     */
+    public void setOverrides(Collection<PartyOverride> overrides) {
+        for (PartyOverride override : overrides) {
+            putOverride(override);
+        }
+        recompileProtection();
+    }
+
+    private void putOverride(PartyOverride override) {
         // Remove override if it matches default value (optimization)
         if (override.getType().equals(PartyOverrides.CLAIM_CHUNK_AMOUNT)
-                && (int) override.getValue().tryGetTypedValue().orElse(0) == Main.CONFIG.get().getDefaultPartyClaimsAmount()) {
+                && override.getValue().getInt(0) == Main.CONFIG.get().getDefaultPartyClaimsAmount()) {
             overrideMap.remove(override.getType());
             return;
         }
         // Remove CLAIM_CHUNK_BASE if it equals default
         if (override.getType().equals(PartyOverrides.CLAIM_CHUNK_BASE)
-                && (int) override.getValue().tryGetTypedValue().orElse(0) == Main.CONFIG.get().getDefaultPartyClaimsAmount()) {
+                && override.getValue().getInt(0) == Main.CONFIG.get().getDefaultPartyClaimsAmount()) {
             overrideMap.remove(override.getType());
             return;
         }
         // Remove BONUS_CLAIM_CHUNKS if it's 0
         if (override.getType().equals(PartyOverrides.BONUS_CLAIM_CHUNKS)
-                && (int) override.getValue().tryGetTypedValue().orElse(0) == 0) {
+                && override.getValue().getInt(0) == 0) {
             overrideMap.remove(override.getType());
             return;
         }
@@ -328,6 +348,24 @@ public class PartyInfo {
 
     public void removeOverride(String type) {
         overrideMap.remove(type);
+        recompileProtection();
+    }
+
+    /**
+     * Gets the compiled protection settings, rebuilding them if the config changed since they were compiled
+     */
+    public PartyProtection getProtection() {
+        var protection = this.protection;
+        if (!protection.isCurrent()) {
+            protection = PartyProtection.compile(overrideMap);
+            this.protection = protection;
+        }
+        return protection;
+    }
+
+    private void recompileProtection() {
+        this.protection = PartyProtection.compile(overrideMap);
+        markDirty(DIRTY_OVERRIDES);
     }
 
     public ModifiedTracking getCreatedTracked() {
@@ -336,6 +374,7 @@ public class PartyInfo {
 
     public void setCreatedTracked(ModifiedTracking createdTracked) {
         this.createdTracked = createdTracked;
+        markDirty(DIRTY_FIELDS);
     }
 
     public ModifiedTracking getModifiedTracked() {
@@ -344,6 +383,7 @@ public class PartyInfo {
 
     public void setModifiedTracked(ModifiedTracking modifiedTracked) {
         this.modifiedTracked = modifiedTracked;
+        markDirty(DIRTY_FIELDS);
     }
 
     public Set<UUID> getPartyAllies() {
@@ -359,10 +399,12 @@ public class PartyInfo {
             return;
         }
         partyAllies.add(uuid);
+        markDirty(DIRTY_ALLIES);
     }
 
     public void removePartyAllies(UUID uuid) {
         partyAllies.remove(uuid);
+        markDirty(DIRTY_ALLIES);
     }
 
     public void addPlayerAllies(UUID uuid) {
@@ -370,10 +412,12 @@ public class PartyInfo {
             return;
         }
         playerAllies.add(uuid);
+        markDirty(DIRTY_ALLIES);
     }
 
     public void removePlayerAllies(UUID uuid) {
         playerAllies.remove(uuid);
+        markDirty(DIRTY_ALLIES);
     }
 
     public boolean isPlayerAllied(UUID uuid) {
@@ -422,11 +466,13 @@ public class PartyInfo {
     }
 
     public void setPermission(UUID uuid, String permission, boolean value) {
-        permissionOverrides.computeIfAbsent(uuid, k -> new HashMap<>()).put(permission, value);
+        permissionOverrides.computeIfAbsent(uuid, k -> new ConcurrentHashMap<>()).put(permission, value);
+        markDirty(DIRTY_PERMISSIONS);
     }
 
     public void removePermission(UUID uuid, String permission) {
         if (permissionOverrides.containsKey(uuid)) {
+            markDirty(DIRTY_PERMISSIONS);
             permissionOverrides.get(uuid).remove(permission);
             if (permissionOverrides.get(uuid).isEmpty()) {
                 permissionOverrides.remove(uuid);
@@ -434,6 +480,24 @@ public class PartyInfo {
         }
     }
 
+    /**
+     * Flags sections of the party as changed since they were last saved
+     */
+    public void markDirty(int sections) {
+        this.dirtySections.getAndUpdate(current -> current | sections);
+    }
+
+    /**
+     * Gets the sections changed since the last save and clears them
+     */
+    public int takeDirty() {
+        return this.dirtySections.getAndSet(0);
+    }
+
+    public void clearDirty() {
+        this.dirtySections.set(0);
+    }
+
     @Override
     public String toString() {
         return "PartyInfo{" +
@@ -6,6 +6,8 @@ import com.hypixel.hytale.codec.KeyedCodec;
 import com.hypixel.hytale.codec.builder.BuilderCodec;
 import com.hypixel.hytale.codec.codecs.array.ArrayCodec;
 
+import javax.annotation.Nullable;
+import java.util.Locale;
 import java.util.Optional;
 
 public class PartyOverride {
@@ -46,14 +48,31 @@ public class PartyOverride {
                 '}';
     }
 
+    /**
+     * Override value, the type and value are kept as strings for persistence but parsed once into a typed slot
+     * so reads don't go through {@link TypeConversion} every time.
+     */
     public static class PartyOverrideValue{
 
+        public enum Kind {
+            INTEGER,
+            LONG,
+            BOOLEAN,
+            UUID,
+            OTHER,
+            INVALID
+        }
+
         private String type;
         private String value;
+        private Kind kind;
+        private long primitive;
+        private Object object;
 
         public PartyOverrideValue(String type, String value) {
             this.type = type;
             this.value = value;
+            parse();
         }
 
         public PartyOverrideValue(String type, int value) {
@@ -65,6 +84,48 @@ public class PartyOverride {
         }
 
         public PartyOverrideValue() {
+            this.kind = Kind.INVALID;
+        }
+
+        private void parse() {
+            this.primitive = 0;
+            this.object = null;
+            this.kind = Kind.INVALID;
+            if (this.type == null || this.value == null) return;
+            try {
+                switch (this.type.trim().toLowerCase(Locale.ROOT)) {
+                    case "int", "integer", "java.lang.integer" -> {
+                        this.primitive = Integer.parseInt(this.value.trim());
+                        this.kind = Kind.INTEGER;
+                    }
+                    case "short", "java.lang.short" -> {
+                        this.primitive = Short.parseShort(this.value.trim());
+                        this.kind = Kind.INTEGER;
+                    }
+                    case "byte", "java.lang.byte" -> {
+                        this.primitive = Byte.parseByte(this.value.trim());
+                        this.kind = Kind.INTEGER;
+                    }
+                    case "long", "java.lang.long" -> {
+                        this.primitive = Long.parseLong(this.value.trim());
+                        this.kind = Kind.LONG;
+                    }
+                    case "bool", "boolean", "java.lang.boolean" -> {
+                        this.primitive = TypeConversion.parseBooleanFlexible(this.value) ? 1 : 0;
+                        this.kind = Kind.BOOLEAN;
+                    }
+                    case "uuid", "java.util.uuid" -> {
+                        this.object = java.util.UUID.fromString(this.value.trim());
+                        this.kind = Kind.UUID;
+                    }
+                    default -> {
+                        this.object = TypeConversion.tryConvert(this.type, this.value).orElse(null);
+                        if (this.object != null) this.kind = Kind.OTHER;
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                this.kind = Kind.INVALID;
+            }
         }
 
         public String getType() {
@@ -75,20 +136,50 @@ public class PartyOverride {
             return value;
         }
 
+        public Kind getKind() {
+            return kind;
+        }
+
+        public int getInt(int fallback) {
+            return kind == Kind.INTEGER || kind == Kind.LONG ? (int) primitive : fallback;
+        }
+
+        public long getLong(long fallback) {
+            return kind == Kind.INTEGER || kind == Kind.LONG ? primitive : fallback;
+        }
+
+        public boolean getBoolean(boolean fallback) {
+            return kind == Kind.BOOLEAN ? primitive != 0 : fallback;
+        }
+
+        @Nullable
+        public java.util.UUID getUUID() {
+            return kind == Kind.UUID ? (java.util.UUID) object : null;
+        }
+
         public Object getTypedValue() {
-            return TypeConversion.convert(this.type, this.value);
+            return tryGetTypedValue()
+                    .orElseThrow(() -> new IllegalArgumentException("Unsupported type or invalid value: type=" + type + ", value='" + value + "'"));
         }
 
         public Optional<Object> tryGetTypedValue() {
-            return TypeConversion.tryConvert(this.type, this.value);
+            return switch (kind) {
+                case INTEGER -> Optional.of((int) primitive);
+                case LONG -> Optional.of(primitive);
+                case BOOLEAN -> Optional.of(primitive != 0);
+                case UUID, OTHER -> Optional.of(object);
+                case INVALID -> Optional.empty();
+            };
         }
 
         public void setValue(String value) {
             this.value = value;
+            parse();
         }
 
         public void setType(String type) {
             this.type = type;
+            parse();
         }
 
         @Override
@@ -0,0 +1,101 @@
+package com.buuz135.simpleclaims.claim.party;
+
+import com.buuz135.simpleclaims.Main;
+import com.buuz135.simpleclaims.config.SimpleClaimsConfig;
+
+import java.util.Map;
+
+/**
+ * Immutable compiled view of the protection overrides of a party.
+ * Boolean settings are packed in a bitmask with the config defaults already applied, so protection checks are a single bit test.
+ * It is rebuilt when the overrides of the party change or when the config is reloaded, the reload replaces the config instance it was
+ * compiled from.
+ */
+public final class PartyProtection {
+
+    public static final int PLACE_BLOCKS = 1;
+    public static final int BREAK_BLOCKS = 1 << 1;
+    public static final int INTERACT = 1 << 2;
+    public static final int PVP = 1 << 3;
+    public static final int FRIENDLY_FIRE = 1 << 4;
+    public static final int ALLOW_ENTRY = 1 << 5;
+    public static final int INTERACT_CHEST = 1 << 6;
+    public static final int INTERACT_DOOR = 1 << 7;
+    public static final int INTERACT_BENCH = 1 << 8;
+    public static final int INTERACT_CHAIR = 1 << 9;
+    public static final int INTERACT_PORTAL = 1 << 10;
+
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+
+    private final int flags;
+    private final int baseClaimAmount;
+    private final int legacyClaimAmount;
+    private final int bonusChunks;
+    private final SimpleClaimsConfig config;
+
+    private PartyProtection(int flags, int baseClaimAmount, int legacyClaimAmount, int bonusChunks, SimpleClaimsConfig config) {
+        this.flags = flags;
+        this.baseClaimAmount = baseClaimAmount;
+        this.legacyClaimAmount = legacyClaimAmount;
+        this.bonusChunks = bonusChunks;
+        this.config = config;
+    }
+
+    public static PartyProtection compile(Map<String, PartyOverride> overrides) {
+        SimpleClaimsConfig config = Main.CONFIG.get();
+        int flags = 0;
+        flags |= flag(overrides, PartyOverrides.PARTY_PROTECTION_PLACE_BLOCKS, config.isDefaultPartyBlockPlaceEnabled(), PLACE_BLOCKS);
+        flags |= flag(overrides, PartyOverrides.PARTY_PROTECTION_BREAK_BLOCKS, config.isDefaultPartyBlockBreakEnabled(), BREAK_BLOCKS);
+        flags |= flag(overrides, PartyOverrides.PARTY_PROTECTION_INTERACT, config.isDefaultPartyBlockInteractEnabled(), INTERACT);
+        flags |= flag(overrides, PartyOverrides.PARTY_PROTECTION_PVP, config.isDefaultPartyPVPEnabled(), PVP);
+        flags |= flag(overrides, PartyOverrides.PARTY_PROTECTION_FRIENDLY_FIRE, config.isDefaultPartyFriendlyFireEnabled(), FRIENDLY_FIRE);
+        flags |= flag(overrides, PartyOverrides.PARTY_PROTECTION_ALLOW_ENTRY, config.isDefaultPartyAllowEntry(), ALLOW_ENTRY);
+        flags |= flag(overrides, PartyOverrides.PARTY_PROTECTION_INTERACT_CHEST, config.isDefaultPartyInteractChest(), INTERACT_CHEST);
+        flags |= flag(overrides, PartyOverrides.PARTY_PROTECTION_INTERACT_DOOR, config.isDefaultPartyInteractDoor(), INTERACT_DOOR);
+        flags |= flag(overrides, PartyOverrides.PARTY_PROTECTION_INTERACT_BENCH, config.isDefaultPartyInteractBench(), INTERACT_BENCH);
+        flags |= flag(overrides, PartyOverrides.PARTY_PROTECTION_INTERACT_CHAIR, config.isDefaultPartyInteractChair(), INTERACT_CHAIR);
+        flags |= flag(overrides, PartyOverrides.PARTY_PROTECTION_INTERACT_PORTAL, config.isDefaultPartyInteractPortal(), INTERACT_PORTAL);
+        return new PartyProtection(flags,
+                integer(overrides, PartyOverrides.CLAIM_CHUNK_BASE, NO_VALUE),
+                integer(overrides, PartyOverrides.CLAIM_CHUNK_AMOUNT, NO_VALUE),
+                integer(overrides, PartyOverrides.BONUS_CLAIM_CHUNKS, 0),
+                config);
+    }
+
+    private static int flag(Map<String, PartyOverride> overrides, String type, boolean defaultValue, int flag) {
+        var override = overrides.get(type);
+        boolean value = override != null ? override.getValue().getBoolean(defaultValue) : defaultValue;
+        return value ? flag : 0;
+    }
+
+    private static int integer(Map<String, PartyOverride> overrides, String type, int defaultValue) {
+        var override = overrides.get(type);
+        return override != null ? override.getValue().getInt(defaultValue) : defaultValue;
+    }
+
+    public boolean isCurrent() {
+        return this.config == Main.CONFIG.get();
+    }
+
+    public boolean has(int flag) {
+        return (this.flags & flag) != 0;
+    }
+
+    /**
+     * Admin set base claim amount, {@link #NO_VALUE} when there isn't one
+     */
+    public int getBaseClaimAmount() {
+        return baseClaimAmount;
+    }
+
+    /**
+     * Legacy absolute claim amount, {@link #NO_VALUE} when there isn't one
+     */
+    public int getLegacyClaimAmount() {
+        return legacyClaimAmount;
+    }
+
+    public int getBonusChunks() {
+        return bonusChunks;
+    }
+}
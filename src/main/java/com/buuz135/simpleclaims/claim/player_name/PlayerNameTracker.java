@@ -3,15 +3,16 @@ package com.buuz135.simpleclaims.claim.player_name;
 import dev.unnm3d.codeclib.config.FieldName;
 
 import javax.annotation.Nullable;
-import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PlayerNameTracker {
 
-    private HashMap<UUID, PlayerName> names;
+    private Map<UUID, PlayerName> names;
 
     public PlayerNameTracker() {
-        this.names = new HashMap<>();
+        this.names = new ConcurrentHashMap<>();
     }
 
     public PlayerName[] getNames() {
@@ -19,21 +20,22 @@ public class PlayerNameTracker {
     }
 
     public void setNames(PlayerName[] names) {
-        this.names = new HashMap<>();
+        this.names = new ConcurrentHashMap<>();
         for (PlayerName name : names) {
             this.names.put(name.uuid, name);
         }
     }
 
     public String getPlayerName(UUID uuid) {
-        if (names.containsKey(uuid)) return names.get(uuid).name;
+        var playerName = names.get(uuid);
+        if (playerName != null) return playerName.name;
         return "Unknown";
     }
 
     @Nullable
     public UUID getPlayerUUID(String name) {
-        for (UUID uuid : names.keySet()) {
-            if (names.get(uuid).name.equalsIgnoreCase(name)) return uuid;
+        for (PlayerName playerName : names.values()) {
+            if (playerName.name.equalsIgnoreCase(name)) return playerName.uuid;
         }
         return null;
     }
@@ -42,7 +44,7 @@ public class PlayerNameTracker {
         names.put(uuid, new PlayerName(uuid, name, lastSeen, playTime));
     }
 
-    public HashMap<UUID, PlayerName> getNamesMap() {
+    public Map<UUID, PlayerName> getNamesMap() {
         return names;
     }
 
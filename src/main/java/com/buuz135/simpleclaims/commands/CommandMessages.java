@@ -58,4 +58,10 @@ public class CommandMessages {
 
     public static final Message CHUNK_NOT_ADJACENT = Message.translation("commands.errors.simpleclaims.chunkNotAdjacent").color(Color.RED).bold(true);
     public static final Message CHUNK_RESERVED_BY_OTHER_PARTY = Message.translation("commands.errors.simpleclaims.chunkReservedByOtherParty").color(Color.RED).bold(true);
+    public static final Message CLAIMS_LOADING = Message.translation("commands.errors.simpleclaims.claimsLoading").color(Color.RED).bold(true);
+
+    public static final Message BACKUP_CREATED = Message.translation("commands.simpleclaims.admin.backupCreated").color(Color.GREEN).bold(true);
+    public static final Message BACKUP_FAILED = Message.translation("commands.errors.simpleclaims.admin.backupFailed").color(Color.RED).bold(true);
+    public static final Message BACKUP_RESTORE_SCHEDULED = Message.translation("commands.simpleclaims.admin.backupRestoreScheduled").color(Color.GREEN).bold(true);
+    public static final Message BACKUP_NOT_FOUND = Message.translation("commands.errors.simpleclaims.admin.backupNotFound").color(Color.RED).bold(true);
 }
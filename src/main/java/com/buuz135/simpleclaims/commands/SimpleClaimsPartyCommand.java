@@ -2,6 +2,8 @@ package com.buuz135.simpleclaims.commands;
 
 import com.buuz135.simpleclaims.Main;
 import com.buuz135.simpleclaims.claim.ClaimManager;
+import com.buuz135.simpleclaims.commands.subcommand.backup.op.OpBackupCommand;
+import com.buuz135.simpleclaims.commands.subcommand.backup.op.OpRestoreBackupCommand;
 import com.buuz135.simpleclaims.commands.subcommand.party.CreatePartyCommand;
 import com.buuz135.simpleclaims.commands.subcommand.party.PartyAcceptCommand;
 import com.buuz135.simpleclaims.commands.subcommand.party.PartyInviteCommand;
@@ -42,6 +44,8 @@ public class SimpleClaimsPartyCommand extends AbstractAsyncCommand {
         this.addSubCommand(new OpAllModifyChunkAmountCommand());
         this.addSubCommand(new OpOverrideCommand());
         this.addSubCommand(new OpAddChunkAmountCommand());
+        this.addSubCommand(new OpBackupCommand());
+        this.addSubCommand(new OpRestoreBackupCommand());
         this.addSubCommand(new ChatToggleCommand());
     }
 
@@ -0,0 +1,31 @@
+package com.buuz135.simpleclaims.commands.subcommand.backup.op;
+
+import com.buuz135.simpleclaims.claim.ClaimManager;
+import com.buuz135.simpleclaims.commands.CommandMessages;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.basecommands.AbstractAsyncCommand;
+import org.checkerframework.checker.nullness.compatqual.NonNullDecl;
+
+import java.util.concurrent.CompletableFuture;
+
+public class OpBackupCommand extends AbstractAsyncCommand {
+
+    public OpBackupCommand() {
+        super("admin-backup", "Backs up the claims storage now, claims keep being saved while it runs");
+        this.requirePermission(CommandMessages.ADMIN_PERM + "admin-backup");
+    }
+
+    @NonNullDecl
+    @Override
+    protected CompletableFuture<Void> executeAsync(CommandContext commandContext) {
+        // Not on the world thread, the backup can take a while
+        return CompletableFuture.runAsync(() -> {
+            var name = ClaimManager.getInstance().getBackups().backup();
+            if (name == null) {
+                commandContext.sendMessage(CommandMessages.BACKUP_FAILED);
+            } else {
+                commandContext.sendMessage(CommandMessages.BACKUP_CREATED.param("name", name));
+            }
+        });
+    }
+}
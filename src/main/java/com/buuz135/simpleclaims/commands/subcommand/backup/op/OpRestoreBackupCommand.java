@@ -0,0 +1,40 @@
+package com.buuz135.simpleclaims.commands.subcommand.backup.op;
+
+import com.buuz135.simpleclaims.commands.CommandMessages;
+import com.buuz135.simpleclaims.files.ClaimBackups;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.arguments.system.RequiredArg;
+import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
+import com.hypixel.hytale.server.core.command.system.basecommands.AbstractAsyncCommand;
+import org.checkerframework.checker.nullness.compatqual.NonNullDecl;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+public class OpRestoreBackupCommand extends AbstractAsyncCommand {
+
+    private RequiredArg<String> name;
+
+    public OpRestoreBackupCommand() {
+        super("admin-restore-backup", "Restores a claims backup on the next server start, the current data is kept as another backup");
+        this.name = this.withRequiredArg("backup-name", "The folder name of the backup", ArgTypes.STRING);
+        this.requirePermission(CommandMessages.ADMIN_PERM + "admin-restore-backup");
+    }
+
+    @NonNullDecl
+    @Override
+    protected CompletableFuture<Void> executeAsync(CommandContext commandContext) {
+        var backupName = name.get(commandContext);
+        try {
+            if (ClaimBackups.scheduleRestore(backupName)) {
+                commandContext.sendMessage(CommandMessages.BACKUP_RESTORE_SCHEDULED.param("name", backupName));
+            } else {
+                commandContext.sendMessage(CommandMessages.BACKUP_NOT_FOUND.param("name", backupName).param("backups", String.join(", ", ClaimBackups.list())));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            commandContext.sendMessage(CommandMessages.BACKUP_FAILED);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -60,6 +60,10 @@ public class OpClaimChunkCommand extends AbstractAsyncCommand {
                         return;
                     }
                     var chunkInfo = ClaimManager.getInstance().claimChunkByRawCoords(player.getWorld().getName(), (int) playerRef.getTransform().getPosition().getX(), (int) playerRef.getTransform().getPosition().getZ(), party, player, playerRef);
+                    if (chunkInfo == null) {
+                        player.sendMessage(CommandMessages.CLAIMS_LOADING);
+                        return;
+                    }
                     ClaimManager.getInstance().queueMapUpdate(player.getWorld(), chunkInfo.getChunkX(), chunkInfo.getChunkZ());
                     player.sendMessage(CommandMessages.CLAIMED);
                 }, world);
@@ -11,6 +11,16 @@ public class SimpleClaimsConfig {
     private int MaxPartyAllies = -1;
     private int PartyInactivityHours = -1;
     private boolean ScaleClaimLimitByMembers = false; // Scale claim limits by party member count
+    private int PermissionCacheSeconds = 300; // How long resolved claim limit permissions of a player are cached
+    private String StorageType = "SQLite"; // Where claims are stored: SQLite, H2, Journal or Memory
+    private int JournalCompactionRecords = 100000; // Journal records written before the claim journal is compacted into its snapshot
+    private int DatabaseBatchSize = 500; // Max amount of queued writes committed in a single transaction
+    private int DatabaseFlushIntervalMillis = 250; // How long queued writes wait to be batched before being committed
+    private int DatabaseWriteQueueCapacity = 20000; // Most pending writes, past it new writes wait for the database to catch up
+    private int NameCacheFlushIntervalSeconds = 60; // How often changed player names and play times are saved
+    private int ShutdownDrainTimeoutMillis = 10000; // How long the shutdown waits for pending writes to be flushed
+    private int BackupIntervalMinutes = 360; // How often the storage is backed up while the server runs, 0 disables the backups
+    private int BackupsToKeep = 5; // Amount of backups kept, the oldest ones are removed
     private boolean MIGRATION_MigrateOldClaimOverrides = true; // One-time migration: converts old CLAIM_CHUNK_AMOUNT to new base+bonus system
     private boolean NotifyPartyChatToggling = true;
     private boolean DefaultPartyBlockPlaceEnabled = false;
@@ -46,6 +56,10 @@ public class SimpleClaimsConfig {
     private boolean EnableParticleBorders = true;
     private boolean RenderClaimNamesOnWorldMap = false;
     private boolean RenderMapInClaimUI = true;
+    private int ClaimUIMapCacheSize = 2048; // Chunks of the claim UI map kept as ready pixels so the map of an area is only generated once, 0 disables it
+    private int MapTerrainCacheSize = 4096; // Chunks whose map terrain is kept so claim changes only redraw the claim colours, 0 disables it
+    private int MapCacheSeconds = 300; // Cached map terrain and claim UI map chunks are read again after this many seconds, catches changes that aren't player block events, 0 keeps them
+    private int MapUpdateDebounceMillis = 1000; // Claim changes are sent to the maps once none happened for this long
 
     private boolean ForceSimpleClaimsChunkWorldMap = true;
     private boolean CreativeModeBypassProtection = false;
@@ -223,6 +237,22 @@ public class SimpleClaimsConfig {
         return RenderMapInClaimUI;
     }
 
+    public int getClaimUIMapCacheSize() {
+        return ClaimUIMapCacheSize;
+    }
+
+    public int getMapTerrainCacheSize() {
+        return MapTerrainCacheSize;
+    }
+
+    public int getMapCacheSeconds() {
+        return MapCacheSeconds;
+    }
+
+    public int getMapUpdateDebounceMillis() {
+        return MapUpdateDebounceMillis;
+    }
+
     public boolean isNotifyPartyChatToggling() {
         return NotifyPartyChatToggling;
     }
@@ -247,4 +277,44 @@ public class SimpleClaimsConfig {
         return ShowPerimeterReservationOnTheMap;
     }
 
+    public int getPermissionCacheSeconds() {
+        return PermissionCacheSeconds;
+    }
+
+    public String getStorageType() {
+        return StorageType;
+    }
+
+    public int getJournalCompactionRecords() {
+        return JournalCompactionRecords;
+    }
+
+    public int getDatabaseBatchSize() {
+        return DatabaseBatchSize;
+    }
+
+    public int getDatabaseFlushIntervalMillis() {
+        return DatabaseFlushIntervalMillis;
+    }
+
+    public int getDatabaseWriteQueueCapacity() {
+        return DatabaseWriteQueueCapacity;
+    }
+
+    public int getNameCacheFlushIntervalSeconds() {
+        return NameCacheFlushIntervalSeconds;
+    }
+
+    public int getShutdownDrainTimeoutMillis() {
+        return ShutdownDrainTimeoutMillis;
+    }
+
+    public int getBackupIntervalMinutes() {
+        return BackupIntervalMinutes;
+    }
+
+    public int getBackupsToKeep() {
+        return BackupsToKeep;
+    }
+
 }
@@ -0,0 +1,172 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.util.FileUtils;
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Online backups of the storage into a folder per backup under {@link FileUtils#BACKUPS_PATH}, keeping the newest ones.
+ * The storage writes a consistent copy of itself while claim writes keep running, a backup is only visible once it is complete.
+ * A backup is restored at the next startup, before the storage is opened, by naming it in the restore file
+ */
+public class ClaimBackups {
+
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss-SSS");
+    private static final String PARTIAL_SUFFIX = ".partial";
+    // Data moved aside by a restore, never rotated away so a wrong restore can always be undone
+    private static final String BEFORE_RESTORE_SUFFIX = "_before-restore";
+    // Every file a storage keeps in the main folder, a restore moves them all aside so nothing of the current data is replayed on top of the backup
+    private static final String[] DATA_FILES = {"SimpleClaims.db", "SimpleClaims.db-wal", "SimpleClaims.db-shm", "SimpleClaims.db-journal", "SimpleClaims.mv.db",
+            ClaimJournal.SNAPSHOT_FILE, ClaimJournal.JOURNAL_FILE};
+
+    private final HytaleLogger logger;
+    private final ClaimStorage storage;
+    private final int backupsToKeep;
+    private boolean stopped;
+
+    public ClaimBackups(HytaleLogger logger, ClaimStorage storage, int backupsToKeep) {
+        this.logger = logger;
+        this.storage = storage;
+        this.backupsToKeep = Math.max(1, backupsToKeep);
+    }
+
+    /**
+     * Backs up the storage and removes the oldest backups, returns the name of the new backup or null when it failed
+     */
+    public synchronized String backup() {
+        if (stopped) return null;
+        long start = System.currentTimeMillis();
+        Path root = Path.of(FileUtils.BACKUPS_PATH);
+        String name = uniqueName(root, LocalDateTime.now().format(NAME_FORMAT), "");
+        Path partial = root.resolve(name + PARTIAL_SUFFIX);
+        try {
+            Files.createDirectories(partial);
+            if (!storage.backup(partial)) {
+                deleteFolder(partial);
+                logger.at(Level.WARNING).log(storage.getName() + " storage doesn't support backups");
+                return null;
+            }
+            Files.move(partial, root.resolve(name));
+        } catch (IOException e) {
+            logger.at(Level.SEVERE).log("Error backing up the " + storage.getName() + " storage: " + e.getMessage());
+            e.printStackTrace();
+            try {
+                deleteFolder(partial);
+            } catch (IOException ex) {
+                logger.at(Level.WARNING).log("Error removing the incomplete backup " + partial + ": " + ex.getMessage());
+            }
+            return null;
+        }
+        logger.at(Level.INFO).log("Backed up the " + storage.getName() + " storage to " + name + " in " + (System.currentTimeMillis() - start) + "ms");
+        rotate();
+        return name;
+    }
+
+    /**
+     * Waits for a running backup and stops new ones, called before the storage is closed
+     */
+    public synchronized void shutdown() {
+        stopped = true;
+    }
+
+    /**
+     * Names of the complete backups, oldest first
+     */
+    public static List<String> list() {
+        List<String> names = new ArrayList<>();
+        Path root = Path.of(FileUtils.BACKUPS_PATH);
+        if (!Files.isDirectory(root)) return names;
+        try (var paths = Files.list(root)) {
+            paths.filter(Files::isDirectory).map(path -> path.getFileName().toString()).filter(name -> !name.endsWith(PARTIAL_SUFFIX)).sorted().forEach(names::add);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return names;
+    }
+
+    /**
+     * Marks the backup to be restored at the next startup, returns false when there is no backup with that name
+     */
+    public static boolean scheduleRestore(String name) throws IOException {
+        if (!list().contains(name)) return false;
+        Files.writeString(Path.of(FileUtils.RESTORE_BACKUP_PATH), name);
+        return true;
+    }
+
+    /**
+     * Restores the backup named in the restore file, if there is one. The current data files are moved into a backup of their own first,
+     * so a wrong restore can be undone by restoring that one
+     */
+    public static void restoreIfScheduled(HytaleLogger logger) {
+        Path marker = Path.of(FileUtils.RESTORE_BACKUP_PATH);
+        if (!Files.exists(marker)) return;
+        try {
+            String name = Files.readString(marker).trim();
+            Path root = Path.of(FileUtils.BACKUPS_PATH).normalize();
+            Path backup = root.resolve(name).normalize();
+            if (name.isEmpty() || !root.equals(backup.getParent()) || !Files.isDirectory(backup)) {
+                logger.at(Level.SEVERE).log("Can't restore the backup " + name + ", it doesn't exist");
+                Files.delete(marker);
+                return;
+            }
+            Path main = Path.of(FileUtils.MAIN_PATH);
+            Path previous = root.resolve(uniqueName(root, LocalDateTime.now().format(NAME_FORMAT), BEFORE_RESTORE_SUFFIX));
+            Files.createDirectories(previous);
+            for (String file : DATA_FILES) {
+                if (Files.exists(main.resolve(file))) Files.move(main.resolve(file), previous.resolve(file));
+            }
+            try (var files = Files.list(backup)) {
+                for (Path file : files.toList()) {
+                    Files.copy(file, main.resolve(file.getFileName().toString()));
+                }
+            }
+            Files.delete(marker);
+            logger.at(Level.INFO).log("Restored the backup " + name + ", the previous data was moved to " + previous.getFileName());
+        } catch (IOException e) {
+            logger.at(Level.SEVERE).log("Error restoring the backup: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Name of a backup that doesn't exist yet, complete or partial, adding a counter when another one was made in the same millisecond
+     */
+    private static String uniqueName(Path root, String time, String suffix) {
+        String name = time + suffix;
+        for (int i = 2; Files.exists(root.resolve(name)) || Files.exists(root.resolve(name + PARTIAL_SUFFIX)); i++) {
+            name = time + "_" + i + suffix;
+        }
+        return name;
+    }
+
+    private void rotate() {
+        List<String> names = list();
+        names.removeIf(name -> name.endsWith(BEFORE_RESTORE_SUFFIX));
+        for (int i = 0; i < names.size() - backupsToKeep; i++) {
+            try {
+                deleteFolder(Path.of(FileUtils.BACKUPS_PATH).resolve(names.get(i)));
+                logger.at(Level.INFO).log("Removed the old backup " + names.get(i));
+            } catch (IOException e) {
+                logger.at(Level.WARNING).log("Error removing the old backup " + names.get(i) + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void deleteFolder(Path folder) throws IOException {
+        if (!Files.exists(folder)) return;
+        try (var paths = Files.walk(folder)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.claim.chunk.ChunkInfo;
+import com.buuz135.simpleclaims.claim.chunk.ReservedChunk;
+import com.buuz135.simpleclaims.util.FileUtils;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.math.util.ChunkUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Moves claims and reserved chunks between the claim journal, the tables of a storage and the legacy JSON file
+ */
+public final class ClaimConverter {
+
+    private ClaimConverter() {}
+
+    /**
+     * Replaces the contents of the journal with the claims and reserved chunks of the storage
+     */
+    public static ClaimJournal.Contents storageToJournal(ClaimStorage from, ClaimJournal to) throws IOException {
+        var contents = new ClaimJournal.Contents(from.loadClaims(), from.loadReservedChunks());
+        to.writeSnapshot(contents.claims(), contents.reservedChunks());
+        return contents;
+    }
+
+    /**
+     * Replaces the claims and reserved chunks of the storage with the ones in the journal, then renames the journal files
+     * so they are only converted once and a later switch back to the journal starts from the storage again
+     */
+    public static void journalToStorage(HytaleLogger logger, ClaimJournal from, Path directory, ClaimStorage to) throws IOException {
+        long start = System.currentTimeMillis();
+        var contents = from.read(dimension -> true);
+        from.close();
+        int count = replaceClaims(to, contents.claims(), contents.reservedChunks());
+        for (String file : new String[]{ClaimJournal.SNAPSHOT_FILE, ClaimJournal.JOURNAL_FILE}) {
+            Path path = directory.resolve(file);
+            if (Files.exists(path)) {
+                Files.move(path, directory.resolve(file + ".converted"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        logger.at(Level.INFO).log("Converted " + count + " claims and reserved chunks from the claim journal to " + to.getName() + " in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * Converts the claims a previous run left in the claim journal into the tables of the storage, when the storage isn't the journal one
+     */
+    public static void convertLeftoverJournal(HytaleLogger logger, ClaimStorage storage) {
+        if (!(storage instanceof JdbcClaimStorage)) return;
+        var directory = Path.of(FileUtils.MAIN_PATH);
+        var journal = new ClaimJournal(logger, directory);
+        if (!journal.exists()) return;
+        try {
+            journalToStorage(logger, journal, directory, storage);
+        } catch (IOException e) {
+            logger.at(Level.SEVERE).log("Error converting the claim journal to " + storage.getName() + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes the claims of the storage in the legacy JSON format
+     */
+    public static int storageToJson(ClaimStorage from, Path to) throws IOException {
+        var file = new ClaimedChunkBlockingFile();
+        int count = 0;
+        for (Map.Entry<String, Long2ObjectMap<ChunkInfo>> dimEntry : from.loadClaims().entrySet()) {
+            var chunks = new HashMap<String, ChunkInfo>();
+            for (ChunkInfo chunk : dimEntry.getValue().values()) {
+                chunks.put(ChunkInfo.formatCoordinates(chunk.getChunkX(), chunk.getChunkZ()), chunk);
+                count++;
+            }
+            file.getChunks().put(dimEntry.getKey(), chunks);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(to)) {
+            file.write(writer);
+        }
+        return count;
+    }
+
+    /**
+     * Makes the claims and reserved chunks of the storage match the given ones, deleting the ones that aren't there anymore
+     */
+    private static int replaceClaims(ClaimStorage to, Map<String, Long2ObjectMap<ChunkInfo>> claims, Map<String, Long2ObjectMap<ReservedChunk>> reservedChunks) {
+        var existingClaims = to.loadClaims();
+        var existingReserved = to.loadReservedChunks();
+        int[] count = {0};
+        to.runBatch(() -> {
+            existingClaims.forEach((dimension, chunks) -> {
+                var current = claims.get(dimension);
+                for (ChunkInfo chunk : chunks.values()) {
+                    if (current == null || !current.containsKey(ChunkUtil.indexChunk(chunk.getChunkX(), chunk.getChunkZ()))) {
+                        to.deleteClaim(dimension, chunk.getChunkX(), chunk.getChunkZ());
+                    }
+                }
+            });
+            existingReserved.forEach((dimension, chunks) -> {
+                var current = reservedChunks.get(dimension);
+                for (ReservedChunk reservedChunk : chunks.values()) {
+                    if (current == null || !current.containsKey(ChunkUtil.indexChunk(reservedChunk.getChunkX(), reservedChunk.getChunkZ()))) {
+                        to.deleteReservedChunk(dimension, reservedChunk.getChunkX(), reservedChunk.getChunkZ());
+                    }
+                }
+            });
+            claims.forEach((dimension, chunks) -> {
+                to.saveClaims(dimension, chunks.values());
+                count[0] += chunks.size();
+            });
+            reservedChunks.forEach((dimension, chunks) -> {
+                for (ReservedChunk reservedChunk : chunks.values()) {
+                    to.saveReservedChunk(dimension, reservedChunk);
+                    count[0]++;
+                }
+            });
+        });
+        return count[0];
+    }
+}
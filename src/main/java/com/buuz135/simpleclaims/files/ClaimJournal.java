@@ -0,0 +1,544 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.claim.chunk.ChunkInfo;
+import com.buuz135.simpleclaims.claim.chunk.ReservedChunk;
+import com.buuz135.simpleclaims.claim.tracking.ModifiedTracking;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.math.util.ChunkUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Append only journal of claim and reserved chunk changes, compacted from time to time into a snapshot file.
+ * Every change is a fixed size binary record, so loading is a sequential read of the memory mapped snapshot followed by a replay of the journal.
+ * Journal records carry a checksum, a record torn by a crash ends the replay and is cut off.
+ */
+public class ClaimJournal {
+
+    public record Contents(HashMap<String, Long2ObjectMap<ChunkInfo>> claims, HashMap<String, Long2ObjectMap<ReservedChunk>> reservedChunks) {}
+
+    public static final String SNAPSHOT_FILE = "Claims.snapshot";
+    public static final String JOURNAL_FILE = "Claims.journal";
+
+    private static final int MAGIC = 0x53434A31;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 128;
+    // Records are buffered and mapped in blocks of this size
+    private static final int BLOCK_SIZE = RECORD_SIZE * 8192;
+
+    private static final byte DIMENSION = 1;
+    private static final byte CLAIM = 2;
+    private static final byte UNCLAIM = 3;
+    private static final byte RESERVE = 4;
+    private static final byte UNRESERVE = 5;
+    private static final byte UNRESERVE_PARTY = 6;
+    // Removes the claims and reserved chunks of a party in every dimension
+    private static final byte PARTY_CHUNKS = 7;
+
+    // Record layout, dimension records keep their name right after the dimension id
+    private static final int OP = 0;
+    private static final int DIMENSION_ID = 1;
+    private static final int DIMENSION_NAME = 5;
+    private static final int CHUNK_X = 5;
+    private static final int CHUNK_Z = 9;
+    private static final int OWNER = 13;
+    private static final int CREATOR = 29;
+    private static final int CREATOR_NAME = 45;
+    private static final int CREATED_DATE = 77;
+    private static final int STRING_SIZE = 32;
+    private static final int CHECKSUM = RECORD_SIZE - 4;
+
+    private final HytaleLogger logger;
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final Object2IntMap<String> dimensionIds;
+    private final List<String> dimensionNames;
+    private ByteBuffer buffer;
+    private final ByteBuffer record;
+    private final CRC32 crc;
+    private FileChannel journal;
+    private long journalRecords;
+    // Compaction would replace the files a backup is copying
+    private boolean backingUp;
+    // Records of an open batch stay in the buffer until it is committed, so a rolled back batch never reaches the file
+    private boolean inBatch;
+    private int batchDimensions;
+    private long batchRecords;
+
+    public ClaimJournal(HytaleLogger logger, Path directory) {
+        this.logger = logger;
+        this.snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        this.journalPath = directory.resolve(JOURNAL_FILE);
+        this.dimensionIds = new Object2IntOpenHashMap<>();
+        this.dimensionIds.defaultReturnValue(-1);
+        this.dimensionNames = new ArrayList<>();
+        this.buffer = ByteBuffer.allocate(BLOCK_SIZE);
+        this.record = ByteBuffer.allocate(RECORD_SIZE);
+        this.crc = new CRC32();
+    }
+
+    public boolean exists() {
+        return Files.exists(snapshotPath) || Files.exists(journalPath);
+    }
+
+    /**
+     * Amount of records in the journal since the last compaction
+     */
+    public synchronized long getJournalRecords() {
+        return journalRecords;
+    }
+
+    /**
+     * Reads the snapshot and replays the journal on top of it, cutting off a torn record at the end of the journal.
+     * Only the claims and reserved chunks of the dimensions accepted by the filter are kept, the rest of the records are skipped
+     */
+    public synchronized Contents read(Predicate<String> dimensions) throws IOException {
+        // Reading resets the dimension ids, the records of an open batch still use them
+        while (inBatch) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the claim journal batch", e);
+            }
+        }
+        writeBuffer();
+        dimensionIds.clear();
+        dimensionNames.clear();
+        journalRecords = 0;
+        Contents contents = new Contents(new HashMap<>(), new HashMap<>());
+        if (Files.exists(snapshotPath)) {
+            try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                while (header.hasRemaining() && channel.read(header) >= 0) ;
+                header.flip();
+                if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                    throw new IOException("Invalid claim snapshot " + snapshotPath);
+                }
+                long end = HEADER_SIZE + header.getLong() * RECORD_SIZE;
+                if (channel.size() < end) throw new IOException("Truncated claim snapshot " + snapshotPath);
+                for (long position = HEADER_SIZE; position < end; position += BLOCK_SIZE) {
+                    var block = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(BLOCK_SIZE, end - position));
+                    for (int offset = 0; offset < block.limit(); offset += RECORD_SIZE) {
+                        apply(block, offset, contents, dimensions);
+                    }
+                }
+            }
+        }
+        if (Files.exists(journalPath)) {
+            long valid = 0;
+            long size;
+            try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+                size = channel.size();
+                // Read through a heap buffer instead of mapping it, a mapped file can't be truncated on every platform
+                ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+                replay:
+                while (true) {
+                    int read = channel.read(block);
+                    block.flip();
+                    while (block.remaining() >= RECORD_SIZE) {
+                        int offset = block.position();
+                        if (!hasValidChecksum(block, offset)) break replay;
+                        apply(block, offset, contents, dimensions);
+                        block.position(offset + RECORD_SIZE);
+                        valid += RECORD_SIZE;
+                        journalRecords++;
+                    }
+                    block.compact();
+                    if (read < 0) break;
+                }
+            }
+            if (valid < size) {
+                logger.at(Level.WARNING).log("Discarding " + (size - valid) + " bytes of incomplete records at the end of the claim journal");
+                closeJournal();
+                try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                }
+            }
+        }
+        return contents;
+    }
+
+    public synchronized void claim(String dimension, ChunkInfo chunk) throws IOException {
+        encode(record, CLAIM, dimensionId(dimension), chunk.getChunkX(), chunk.getChunkZ(), chunk.getPartyOwner(), chunk.getCreatedTracked());
+        append();
+    }
+
+    public synchronized void unclaim(String dimension, int chunkX, int chunkZ) throws IOException {
+        encode(record, UNCLAIM, dimensionId(dimension), chunkX, chunkZ, null, null);
+        append();
+    }
+
+    public synchronized void reserve(String dimension, ReservedChunk reservedChunk) throws IOException {
+        encode(record, RESERVE, dimensionId(dimension), reservedChunk.getChunkX(), reservedChunk.getChunkZ(), reservedChunk.getReservedBy(), null);
+        append();
+    }
+
+    public synchronized void unreserve(String dimension, int chunkX, int chunkZ) throws IOException {
+        encode(record, UNRESERVE, dimensionId(dimension), chunkX, chunkZ, null, null);
+        append();
+    }
+
+    public synchronized void unreserveParty(String dimension, UUID partyId) throws IOException {
+        encode(record, UNRESERVE_PARTY, dimensionId(dimension), 0, 0, partyId, null);
+        append();
+    }
+
+    public synchronized void deletePartyChunks(UUID partyId) throws IOException {
+        encode(record, PARTY_CHUNKS, -1, 0, 0, partyId, null);
+        append();
+    }
+
+    /**
+     * Starts keeping the appended records in memory until {@link #commit} or {@link #rollback}
+     */
+    public synchronized void begin() throws IOException {
+        writeBuffer();
+        inBatch = true;
+        batchDimensions = dimensionNames.size();
+        batchRecords = journalRecords;
+    }
+
+    /**
+     * Writes the records of the batch and forces them to disk
+     */
+    public synchronized void commit() throws IOException {
+        inBatch = false;
+        notifyAll();
+        flush();
+        // A big batch grew the buffer, give the memory back
+        if (buffer.capacity() > BLOCK_SIZE) buffer = ByteBuffer.allocate(BLOCK_SIZE);
+    }
+
+    /**
+     * Drops the records of the batch and the dimensions it added
+     */
+    public synchronized void rollback() {
+        inBatch = false;
+        notifyAll();
+        if (buffer.capacity() > BLOCK_SIZE) {
+            buffer = ByteBuffer.allocate(BLOCK_SIZE);
+        } else {
+            buffer.clear();
+        }
+        while (dimensionNames.size() > batchDimensions) {
+            dimensionIds.removeInt(dimensionNames.remove(dimensionNames.size() - 1));
+        }
+        journalRecords = batchRecords;
+    }
+
+    /**
+     * Writes the buffered records and forces them to disk
+     */
+    public synchronized void flush() throws IOException {
+        writeBuffer();
+        if (journal != null) journal.force(false);
+    }
+
+    /**
+     * Folds the journal into a new snapshot and empties the journal
+     */
+    public synchronized void compact() throws IOException {
+        // The next batch compacts it once the backup is done
+        if (backingUp) return;
+        long start = System.currentTimeMillis();
+        long records = journalRecords;
+        Contents contents = read(dimension -> true);
+        writeSnapshot(contents.claims(), contents.reservedChunks());
+        logger.at(Level.INFO).log("Compacted " + records + " claim journal records in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * Replaces the snapshot with the given claims and reserved chunks and empties the journal.
+     * The snapshot is written next to the old one and moved over it, so a crash keeps either the old or the new one
+     */
+    public synchronized void writeSnapshot(Map<String, ? extends Map<Long, ChunkInfo>> claims, Map<String, ? extends Map<Long, ReservedChunk>> reservedChunks) throws IOException {
+        writeBuffer();
+        // Dimensions keep their ids, so a journal left behind by a crash right after the move still replays into the right dimension
+        Object2IntMap<String> ids = new Object2IntOpenHashMap<>(dimensionIds);
+        ids.defaultReturnValue(-1);
+        List<String> names = new ArrayList<>(dimensionNames);
+        for (String dimension : claims.keySet()) {
+            if (ids.putIfAbsent(dimension, names.size()) == -1) names.add(dimension);
+        }
+        for (String dimension : reservedChunks.keySet()) {
+            if (ids.putIfAbsent(dimension, names.size()) == -1) names.add(dimension);
+        }
+
+        Path temp = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+            // Room for the header, it is written once the amount of records is known
+            block.position(HEADER_SIZE);
+            long records = 0;
+            for (int id = 0; id < names.size(); id++) {
+                if (names.get(id) == null) continue;
+                ensureRoom(channel, block);
+                encodeDimension(block, id, names.get(id));
+                records++;
+            }
+            for (Map.Entry<String, ? extends Map<Long, ChunkInfo>> entry : claims.entrySet()) {
+                int id = ids.getInt(entry.getKey());
+                for (ChunkInfo chunk : entry.getValue().values()) {
+                    ensureRoom(channel, block);
+                    encode(block, CLAIM, id, chunk.getChunkX(), chunk.getChunkZ(), chunk.getPartyOwner(), chunk.getCreatedTracked());
+                    records++;
+                }
+            }
+            for (Map.Entry<String, ? extends Map<Long, ReservedChunk>> entry : reservedChunks.entrySet()) {
+                int id = ids.getInt(entry.getKey());
+                for (ReservedChunk reservedChunk : entry.getValue().values()) {
+                    ensureRoom(channel, block);
+                    encode(block, RESERVE, id, reservedChunk.getChunkX(), reservedChunk.getChunkZ(), reservedChunk.getReservedBy(), null);
+                    records++;
+                }
+            }
+            write(channel, block);
+            block.putInt(MAGIC).putInt(VERSION).putLong(records).flip();
+            while (block.hasRemaining()) channel.write(block, block.position());
+            channel.force(true);
+        }
+        Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // The new snapshot has everything, the journal starts over with the snapshot dimension ids
+        closeJournal();
+        Files.deleteIfExists(journalPath);
+        dimensionIds.clear();
+        dimensionIds.putAll(ids);
+        dimensionNames.clear();
+        dimensionNames.addAll(names);
+        journalRecords = 0;
+    }
+
+    /**
+     * Copies the snapshot and the records of the journal written so far into the directory. The lock is only held to write the buffered records
+     * and read the size of the journal, records appended during the copy land after that size and are left out
+     */
+    public void backupTo(Path directory) throws IOException {
+        long journalSize;
+        synchronized (this) {
+            writeBuffer();
+            journalSize = Files.exists(journalPath) ? Files.size(journalPath) : 0;
+            backingUp = true;
+        }
+        try {
+            if (Files.exists(snapshotPath)) Files.copy(snapshotPath, directory.resolve(SNAPSHOT_FILE));
+            if (journalSize > 0) {
+                try (FileChannel source = FileChannel.open(journalPath, StandardOpenOption.READ);
+                     FileChannel target = FileChannel.open(directory.resolve(JOURNAL_FILE), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                    long position = 0;
+                    while (position < journalSize) {
+                        position += source.transferTo(position, journalSize - position, target);
+                    }
+                }
+            }
+        } finally {
+            synchronized (this) {
+                backingUp = false;
+            }
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        flush();
+        closeJournal();
+    }
+
+    private int dimensionId(String dimension) throws IOException {
+        int id = dimensionIds.getInt(dimension);
+        if (id != -1) return id;
+        id = dimensionNames.size();
+        encodeDimension(record, id, dimension);
+        append();
+        dimensionIds.put(dimension, id);
+        dimensionNames.add(dimension);
+        return id;
+    }
+
+    private void append() throws IOException {
+        if (buffer.remaining() < RECORD_SIZE) {
+            if (inBatch) {
+                ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            } else {
+                writeBuffer();
+            }
+        }
+        buffer.put(record.array(), 0, RECORD_SIZE);
+        journalRecords++;
+    }
+
+    private void writeBuffer() throws IOException {
+        if (buffer.position() == 0 || inBatch) return;
+        if (journal == null) {
+            journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) journal.write(buffer);
+        buffer.clear();
+    }
+
+    private void closeJournal() throws IOException {
+        if (journal == null) return;
+        journal.close();
+        journal = null;
+    }
+
+    private static void ensureRoom(FileChannel channel, ByteBuffer block) throws IOException {
+        if (block.remaining() < RECORD_SIZE) write(channel, block);
+    }
+
+    private static void write(FileChannel channel, ByteBuffer block) throws IOException {
+        block.flip();
+        while (block.hasRemaining()) channel.write(block);
+        block.clear();
+    }
+
+    /**
+     * Writes a record at the current position of the target, advancing it
+     */
+    private void encode(ByteBuffer target, byte op, int dimensionId, int chunkX, int chunkZ, UUID owner, ModifiedTracking created) {
+        int offset = startRecord(target, op, dimensionId);
+        target.putInt(offset + CHUNK_X, chunkX);
+        target.putInt(offset + CHUNK_Z, chunkZ);
+        if (owner != null) putUUID(target, offset + OWNER, owner);
+        if (created != null) {
+            putUUID(target, offset + CREATOR, created.getUserUUID());
+            putString(target, offset + CREATOR_NAME, STRING_SIZE, created.getUserName());
+            putString(target, offset + CREATED_DATE, STRING_SIZE, created.getDate());
+        }
+        endRecord(target, offset);
+    }
+
+    private void encodeDimension(ByteBuffer target, int dimensionId, String dimension) {
+        if (dimension.getBytes(StandardCharsets.UTF_8).length >= CHECKSUM - DIMENSION_NAME) {
+            throw new IllegalArgumentException("Dimension name is too long for the claim journal: " + dimension);
+        }
+        int offset = startRecord(target, DIMENSION, dimensionId);
+        putString(target, offset + DIMENSION_NAME, CHECKSUM - DIMENSION_NAME, dimension);
+        endRecord(target, offset);
+    }
+
+    private static int startRecord(ByteBuffer target, byte op, int dimensionId) {
+        // The single record buffer is reused, records written into a block go after the previous one
+        if (target.capacity() == RECORD_SIZE) target.clear();
+        int offset = target.position();
+        Arrays.fill(target.array(), offset, offset + RECORD_SIZE, (byte) 0);
+        target.put(offset + OP, op);
+        target.putInt(offset + DIMENSION_ID, dimensionId);
+        return offset;
+    }
+
+    private void endRecord(ByteBuffer target, int offset) {
+        crc.reset();
+        crc.update(target.array(), offset, CHECKSUM);
+        target.putInt(offset + CHECKSUM, (int) crc.getValue());
+        target.position(offset + RECORD_SIZE);
+    }
+
+    private boolean hasValidChecksum(ByteBuffer source, int offset) {
+        crc.reset();
+        crc.update(source.array(), source.arrayOffset() + offset, CHECKSUM);
+        return source.getInt(offset + CHECKSUM) == (int) crc.getValue();
+    }
+
+    private void apply(ByteBuffer source, int offset, Contents contents, Predicate<String> dimensions) {
+        byte op = source.get(offset + OP);
+        int dimensionId = source.getInt(offset + DIMENSION_ID);
+        if (op == DIMENSION) {
+            String name = getString(source, offset + DIMENSION_NAME);
+            while (dimensionNames.size() <= dimensionId) dimensionNames.add(null);
+            dimensionNames.set(dimensionId, name);
+            dimensionIds.put(name, dimensionId);
+            return;
+        }
+        if (op == PARTY_CHUNKS) {
+            UUID partyId = getUUID(source, offset + OWNER);
+            contents.claims().values().forEach(chunks -> chunks.values().removeIf(chunk -> chunk.getPartyOwner().equals(partyId)));
+            contents.reservedChunks().values().forEach(chunks -> chunks.values().removeIf(reserved -> reserved.getReservedBy().equals(partyId)));
+            return;
+        }
+        String dimension = dimensionId >= 0 && dimensionId < dimensionNames.size() ? dimensionNames.get(dimensionId) : null;
+        if (dimension == null) {
+            logger.at(Level.WARNING).log("Skipping claim journal record of unknown dimension " + dimensionId);
+            return;
+        }
+        if (!dimensions.test(dimension)) return;
+        int chunkX = source.getInt(offset + CHUNK_X);
+        int chunkZ = source.getInt(offset + CHUNK_Z);
+        long index = ChunkUtil.indexChunk(chunkX, chunkZ);
+        switch (op) {
+            case CLAIM -> contents.claims().computeIfAbsent(dimension, k -> new Long2ObjectOpenHashMap<>()).put(index, new ChunkInfo(
+                    getUUID(source, offset + OWNER), chunkX, chunkZ,
+                    new ModifiedTracking(getUUID(source, offset + CREATOR), getString(source, offset + CREATOR_NAME), getString(source, offset + CREATED_DATE))));
+            case UNCLAIM -> {
+                var dimensionClaims = contents.claims().get(dimension);
+                if (dimensionClaims != null) dimensionClaims.remove(index);
+            }
+            case RESERVE -> contents.reservedChunks().computeIfAbsent(dimension, k -> new Long2ObjectOpenHashMap<>())
+                    .put(index, new ReservedChunk(getUUID(source, offset + OWNER), chunkX, chunkZ));
+            case UNRESERVE -> {
+                var dimensionReserved = contents.reservedChunks().get(dimension);
+                if (dimensionReserved != null) dimensionReserved.remove(index);
+            }
+            case UNRESERVE_PARTY -> {
+                var dimensionReserved = contents.reservedChunks().get(dimension);
+                UUID partyId = getUUID(source, offset + OWNER);
+                if (dimensionReserved != null) dimensionReserved.values().removeIf(reserved -> reserved.getReservedBy().equals(partyId));
+            }
+            default -> logger.at(Level.WARNING).log("Skipping claim journal record of unknown type " + op);
+        }
+    }
+
+    private static void putUUID(ByteBuffer target, int offset, UUID uuid) {
+        target.putLong(offset, uuid.getMostSignificantBits());
+        target.putLong(offset + 8, uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUUID(ByteBuffer source, int offset) {
+        return new UUID(source.getLong(offset), source.getLong(offset + 8));
+    }
+
+    /**
+     * Writes a length prefixed string, cutting it to fit the field
+     */
+    private static void putString(ByteBuffer target, int offset, int size, String value) {
+        if (value == null) return;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, size - 1);
+        // Don't cut a multi byte character in half
+        while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) length--;
+        target.put(offset, (byte) length);
+        target.put(offset + 1, bytes, 0, length);
+    }
+
+    private static String getString(ByteBuffer source, int offset) {
+        int length = source.get(offset) & 0xFF;
+        byte[] bytes = new byte[length];
+        source.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
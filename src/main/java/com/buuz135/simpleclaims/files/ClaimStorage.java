@@ -0,0 +1,141 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.claim.chunk.ChunkInfo;
+import com.buuz135.simpleclaims.claim.chunk.ReservedChunk;
+import com.buuz135.simpleclaims.claim.party.PartyInfo;
+import com.buuz135.simpleclaims.claim.player_name.PlayerNameTracker;
+import com.buuz135.simpleclaims.config.SimpleClaimsConfig;
+import com.buuz135.simpleclaims.util.FileUtils;
+import com.hypixel.hytale.logger.HytaleLogger;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Where parties, claims, player names, admin overrides and reserved chunks are persisted.
+ * <p>
+ * Loads of a whole table are only called at startup, before any write, and may run in parallel with each other.
+ * Loads of a single dimension happen whenever a world is added, while writes are running, and see every write flushed before them.
+ * Writes of a write behind storage are called from a single thread in the order they were submitted and grouped with {@link #runBatch(Runnable)},
+ * so the storage can commit a whole batch at once. Writes of a storage that isn't write behind are called right away from the thread that made the change.
+ */
+public interface ClaimStorage {
+
+    String getName();
+
+    /**
+     * Whether writes should go through the {@link DatabaseWriteQueue} instead of running on the thread that made the change
+     */
+    default boolean isWriteBehind() {
+        return true;
+    }
+
+    /**
+     * Runs a batch of writes, the storage can commit them together but each write handles its own errors
+     */
+    void runBatch(Runnable writes);
+
+    /**
+     * Whether the JSON files of older versions still have to be moved into this storage by the {@link LegacyJsonMigrator}
+     */
+    boolean isMigrationNecessary();
+
+    Map<String, PartyInfo> loadParties();
+
+    HashMap<String, Long2ObjectMap<ChunkInfo>> loadClaims();
+
+    PlayerNameTracker loadNameCache();
+
+    Set<UUID> loadAdminOverrides();
+
+    HashMap<String, Long2ObjectMap<ReservedChunk>> loadReservedChunks();
+
+    Long2ObjectMap<ChunkInfo> loadClaims(String dimension);
+
+    Long2ObjectMap<ReservedChunk> loadReservedChunks(String dimension);
+
+    /**
+     * Amount of claims of every party across every dimension, without loading the claims themselves
+     */
+    Map<UUID, Integer> countClaimsByParty();
+
+    void saveParty(PartyInfo party);
+
+    void deleteParty(UUID partyId);
+
+    void saveClaim(String dimension, ChunkInfo chunk);
+
+    /**
+     * Saves many claims of a dimension at once, storages that support it send them as a single batch
+     */
+    default void saveClaims(String dimension, Collection<ChunkInfo> chunks) {
+        for (ChunkInfo chunk : chunks) {
+            saveClaim(dimension, chunk);
+        }
+    }
+
+    void deleteClaim(String dimension, int chunkX, int chunkZ);
+
+    void saveNameCache(UUID uuid, String name, long lastSeen, float playTime);
+
+    void saveAdminOverride(UUID uuid);
+
+    void deleteAdminOverride(UUID uuid);
+
+    void saveReservedChunk(String dimension, ReservedChunk reservedChunk);
+
+    void deleteReservedChunk(String dimension, int chunkX, int chunkZ);
+
+    void deleteReservedChunksByParty(String dimension, UUID partyId);
+
+    /**
+     * Deletes the claims and reserved chunks of the party in every dimension, including the ones that aren't loaded
+     */
+    void deletePartyChunks(UUID partyId);
+
+    /**
+     * Writes a consistent copy of the storage into the empty directory while writes keep running, with the same file names as in the main folder
+     * so a restore only copies them back. Returns false when the storage has nothing on disk to back up
+     */
+    default boolean backup(Path directory) throws IOException {
+        return false;
+    }
+
+    /**
+     * Called once the loads at startup are done, the storage can drop what it kept around to share between them
+     */
+    default void finishStartupLoads() {
+    }
+
+    /**
+     * Releases the connections of the storage, called once every pending write is flushed
+     */
+    void close();
+
+    /**
+     * Creates the storage selected in the config, falling back to SQLite when the type is unknown
+     */
+    static ClaimStorage create(HytaleLogger logger, SimpleClaimsConfig config) {
+        FileUtils.ensureMainDirectory();
+        String type = config.getStorageType();
+        ClaimStorage storage = switch (type == null ? "" : type.toLowerCase(Locale.ROOT)) {
+            case "journal" -> new JournalClaimStorage(logger, config.getJournalCompactionRecords());
+            case "h2" -> new H2ClaimStorage(logger);
+            case "memory" -> new MemoryClaimStorage();
+            case "sqlite" -> new SQLiteClaimStorage(logger);
+            default -> {
+                logger.at(Level.WARNING).log("Unknown storage type " + type + ", using SQLite");
+                yield new SQLiteClaimStorage(logger);
+            }
+        };
+        return storage;
+    }
+}
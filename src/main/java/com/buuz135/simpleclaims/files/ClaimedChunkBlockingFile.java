@@ -39,20 +39,7 @@ public class ClaimedChunkBlockingFile extends BlockingDiskFile {
             JsonArray chunkInfoArray = dimensionObj.getAsJsonArray("ChunkInfo");
             if (chunkInfoArray != null) {
                 chunkInfoArray.forEach(chunkElement -> {
-                    JsonObject chunkObj = chunkElement.getAsJsonObject();
-                    ChunkInfo chunkInfo = new ChunkInfo(
-                            UUID.fromString(chunkObj.get("UUID").getAsString()),
-                            chunkObj.get("ChunkX").getAsInt(),
-                            chunkObj.get("ChunkY").getAsInt()
-                    );
-                    if (chunkObj.has("CreatedTracker")) {
-                        JsonObject trackerObj = chunkObj.getAsJsonObject("CreatedTracker");
-                        chunkInfo.setCreatedTracked(new ModifiedTracking(
-                                UUID.fromString(trackerObj.get("UserUUID").getAsString()),
-                                trackerObj.get("UserName").getAsString(),
-                                trackerObj.get("Date").getAsString()
-                        ));
-                    }
+                    ChunkInfo chunkInfo = readChunk(chunkElement.getAsJsonObject());
                     chunkMap.put(ChunkInfo.formatCoordinates(chunkInfo.getChunkX(), chunkInfo.getChunkZ()), chunkInfo);
                 });
             }
@@ -60,6 +47,26 @@ public class ClaimedChunkBlockingFile extends BlockingDiskFile {
         });
     }
 
+    /**
+     * Reads a single element of the ChunkInfo array of a dimension
+     */
+    public static ChunkInfo readChunk(JsonObject chunkObj) {
+        ChunkInfo chunkInfo = new ChunkInfo(
+                UUID.fromString(chunkObj.get("UUID").getAsString()),
+                chunkObj.get("ChunkX").getAsInt(),
+                chunkObj.get("ChunkY").getAsInt()
+        );
+        if (chunkObj.has("CreatedTracker")) {
+            JsonObject trackerObj = chunkObj.getAsJsonObject("CreatedTracker");
+            chunkInfo.setCreatedTracked(new ModifiedTracking(
+                    UUID.fromString(trackerObj.get("UserUUID").getAsString()),
+                    trackerObj.get("UserName").getAsString(),
+                    trackerObj.get("Date").getAsString()
+            ));
+        }
+        return chunkInfo;
+    }
+
     @Override
     protected void write(BufferedWriter bufferedWriter) throws IOException {
         JsonObject root = new JsonObject();
@@ -0,0 +1,251 @@
+package com.buuz135.simpleclaims.files;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.math.util.ChunkUtil;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Write-behind queue in front of a {@link ClaimStorage}, every write goes through a single writer thread.
+ * Writes are keyed by the row they touch and coalesced, a newer write for a key replaces the pending one (so a delete cancels a pending save)
+ * and moves to the back of the queue, keeping the order between different keys. Pending writes are flushed in a single transaction
+ * once the batch size is reached or the flush interval passes. On shutdown the remaining writes are flushed in a single transaction.
+ * The queue is bounded: submitting a new key once the capacity is reached waits until the writer takes the next batch, so a database that
+ * falls behind slows the changes down instead of growing the queue without limit. Coalescing into a pending key never waits.
+ */
+public class DatabaseWriteQueue {
+
+    /**
+     * Row a write touches, writes with equal keys coalesce. The scope is the dimension or the UUID the row belongs to, the value the packed
+     * chunk index of claim and reserved chunk rows
+     */
+    public record WriteKey(Kind kind, Object scope, long value) {
+
+        public enum Kind {
+            PARTY, PARTY_CHUNKS, CLAIM, RESERVED, NAME, ADMIN
+        }
+
+        public static WriteKey of(Kind kind, UUID id) {
+            return new WriteKey(kind, id, 0);
+        }
+
+        public static WriteKey chunk(Kind kind, String dimension, long index) {
+            return new WriteKey(kind, dimension, index);
+        }
+
+        @Override
+        public String toString() {
+            String prefix = kind.name().toLowerCase(Locale.ROOT);
+            if (kind == Kind.CLAIM || kind == Kind.RESERVED) {
+                return prefix + ":" + scope + ":" + ChunkUtil.xOfChunkIndex(value) + ":" + ChunkUtil.zOfChunkIndex(value);
+            }
+            return prefix + ":" + scope;
+        }
+    }
+
+    private final HytaleLogger logger;
+    private final ClaimStorage storage;
+    private final int batchSize;
+    private final int capacity;
+    private final long flushIntervalMs;
+    private final LinkedHashMap<WriteKey, Runnable> pending;
+    private final Object lock;
+    private final Thread writer;
+    private volatile boolean running;
+    private boolean writing;
+    private long flushedWrites;
+    private int droppedWrites;
+    // Largest amount of pending writes since the capacity was reached, 0 while under it
+    private int overCapacityPeak;
+
+    public DatabaseWriteQueue(HytaleLogger logger, ClaimStorage storage, int batchSize, int capacity, long flushIntervalMs) {
+        this.logger = logger;
+        this.storage = storage;
+        this.batchSize = Math.max(1, batchSize);
+        this.capacity = Math.max(this.batchSize, capacity);
+        this.flushIntervalMs = Math.max(0, flushIntervalMs);
+        this.pending = new LinkedHashMap<>();
+        this.lock = new Object();
+        this.running = true;
+        this.writer = new Thread(this::run, "SimpleClaims-DatabaseWriter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a write for the given key, replacing any pending write of the same key. A new key submitted once the capacity is reached
+     * waits for the writer to make room, logging a warning the first time. Writes submitted after {@link #shutdown(long)} are dropped
+     * and only counted, see {@link #getDroppedWrites()}.
+     */
+    public void submit(WriteKey key, Runnable write) {
+        synchronized (lock) {
+            if (running && pending.size() >= capacity && !pending.containsKey(key)) waitForRoom();
+            if (!running) {
+                droppedWrites++;
+                return;
+            }
+            boolean wasEmpty = pending.isEmpty();
+            pending.remove(key);
+            pending.put(key, write);
+            if (wasEmpty || pending.size() >= batchSize) lock.notifyAll();
+        }
+    }
+
+    /**
+     * Waits while the queue is full, called holding the lock. The writer never waits on itself, and a writer that died leaves the queue
+     * unbounded rather than blocking the caller forever
+     */
+    private void waitForRoom() {
+        if (Thread.currentThread() == writer) return;
+        if (overCapacityPeak == 0) {
+            logger.at(Level.WARNING).log("The database write queue reached its capacity of " + capacity + " pending writes, the database is falling behind and changes wait for it");
+        }
+        overCapacityPeak = Math.max(overCapacityPeak, pending.size());
+        lock.notifyAll();
+        while (running && pending.size() >= capacity && writer.isAlive()) {
+            try {
+                lock.wait(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Amount of writes waiting to be flushed
+     */
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Keys of the writes waiting to be flushed, in the order they will be written
+     */
+    public List<String> getPendingKeys() {
+        synchronized (lock) {
+            List<String> keys = new ArrayList<>(pending.size());
+            for (WriteKey key : pending.keySet()) keys.add(key.toString());
+            return keys;
+        }
+    }
+
+    /**
+     * Amount of writes dropped because they were submitted after the queue was shut down
+     */
+    public int getDroppedWrites() {
+        synchronized (lock) {
+            return droppedWrites;
+        }
+    }
+
+    /**
+     * Amount of writes flushed since the queue was created
+     */
+    public long getFlushedWrites() {
+        synchronized (lock) {
+            return flushedWrites;
+        }
+    }
+
+    /**
+     * Waits until every write queued before this call is flushed or the timeout passes, returns true if the queue was drained
+     */
+    public boolean flush(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (lock) {
+            lock.notifyAll();
+            while (!pending.isEmpty() || writing) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || !writer.isAlive()) return false;
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stops accepting writes and stops the writer once every pending write is flushed, returns true if it finished in time
+     */
+    public boolean shutdown(long timeoutMs) {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+        try {
+            writer.join(Math.max(1, timeoutMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !writer.isAlive();
+    }
+
+    private void run() {
+        while (true) {
+            List<Runnable> batch;
+            synchronized (lock) {
+                try {
+                    while (running && pending.isEmpty()) {
+                        lock.wait();
+                    }
+                    // Give writes some time to pile up and coalesce unless the batch is already full
+                    if (running && pending.size() < batchSize && flushIntervalMs > 0) {
+                        lock.wait(flushIntervalMs);
+                    }
+                } catch (InterruptedException e) {
+                    running = false;
+                }
+                if (pending.isEmpty()) {
+                    if (!running) return;
+                    continue;
+                }
+                // Once stopped nothing else can be queued, so everything left goes into one last transaction
+                int limit = running ? batchSize : pending.size();
+                batch = new ArrayList<>(Math.min(pending.size(), limit));
+                Iterator<Map.Entry<WriteKey, Runnable>> iterator = pending.entrySet().iterator();
+                while (iterator.hasNext() && batch.size() < limit) {
+                    batch.add(iterator.next().getValue());
+                    iterator.remove();
+                }
+                if (overCapacityPeak > 0 && pending.size() < capacity / 2) {
+                    logger.at(Level.INFO).log("The database write queue caught up, it peaked at " + overCapacityPeak + " pending writes");
+                    overCapacityPeak = 0;
+                }
+                writing = true;
+                lock.notifyAll();
+            }
+            try {
+                storage.runBatch(() -> {
+                    for (Runnable write : batch) {
+                        try {
+                            write.run();
+                        } catch (Exception e) {
+                            logger.at(Level.SEVERE).log("Error writing to the database: " + e.getMessage());
+                            e.printStackTrace();
+                        }
+                    }
+                });
+            } finally {
+                synchronized (lock) {
+                    writing = false;
+                    flushedWrites += batch.size();
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+}
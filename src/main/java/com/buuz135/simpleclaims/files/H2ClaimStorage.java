@@ -0,0 +1,96 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.util.FileUtils;
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Storage in an embedded H2 database file, connections come from a pool so the startup reads don't reopen the file
+ */
+public class H2ClaimStorage extends JdbcClaimStorage {
+
+    private JdbcConnectionPool pool;
+
+    public H2ClaimStorage(HytaleLogger logger) {
+        super(logger);
+        FileUtils.ensureMainDirectory();
+        try {
+            String path = new File(FileUtils.H2_DATABASE_PATH).getAbsolutePath();
+            logger.at(Level.INFO).log("Connecting to H2 database at: " + path);
+            // VALUE is a keyword in H2 but it is the name of a column in the override tables
+            this.pool = JdbcConnectionPool.create("jdbc:h2:file:" + path + ";NON_KEYWORDS=VALUE", "sa", "");
+        } catch (Exception e) {
+            logger.at(Level.SEVERE).log("Error initializing H2 database: " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
+        open();
+    }
+
+    @Override
+    public String getName() {
+        return "H2";
+    }
+
+    @Override
+    protected Connection openConnection() throws SQLException {
+        return pool.getConnection();
+    }
+
+    @Override
+    protected Connection openReadConnection() throws SQLException {
+        return pool.getConnection();
+    }
+
+    /**
+     * Writes the database with BACKUP TO, which copies a consistent version of it without locking the tables.
+     * The zip it writes is extracted so the backup has the same files as the main folder
+     */
+    @Override
+    public boolean backup(Path directory) throws IOException {
+        Path zip = directory.resolve("SimpleClaims.zip");
+        try (Connection readConnection = openReadConnection();
+             Statement statement = readConnection.createStatement()) {
+            statement.execute("BACKUP TO '" + zip.toAbsolutePath().toString().replace("'", "''") + "'");
+        } catch (SQLException e) {
+            throw new IOException("Error backing up the H2 database", e);
+        }
+        try (ZipInputStream input = new ZipInputStream(Files.newInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = input.getNextEntry()) != null) {
+                if (entry.isDirectory()) continue;
+                Files.copy(input, directory.resolve(Path.of(entry.getName()).getFileName().toString()));
+            }
+        }
+        Files.delete(zip);
+        return true;
+    }
+
+    @Override
+    protected String createUpsertSql(String table, String[] keyColumns, String[] columns) {
+        return "MERGE INTO " + table + " (" + String.join(", ", columns) + ") KEY (" + String.join(", ", keyColumns) + ") VALUES (" + "?, ".repeat(columns.length - 1) + "?)";
+    }
+
+    @Override
+    protected String adaptTableSql(String sql) {
+        // TEXT is a large object in H2 and can't be a key, INTEGER is 32 bits while SQLite stores 64 bit values
+        return sql.replace(" TEXT", " VARCHAR").replace(" INTEGER", " BIGINT");
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        if (pool != null) pool.dispose();
+    }
+}
@@ -0,0 +1,1260 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.claim.chunk.ChunkInfo;
+import com.buuz135.simpleclaims.claim.chunk.ReservedChunk;
+import com.buuz135.simpleclaims.claim.party.PartyInfo;
+import com.buuz135.simpleclaims.claim.party.PartyOverride;
+import com.buuz135.simpleclaims.claim.player_name.PlayerNameTracker;
+import com.buuz135.simpleclaims.claim.tracking.ModifiedTracking;
+import com.buuz135.simpleclaims.util.FileUtils;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.math.util.ChunkUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.io.File;
+import java.sql.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * Storage shared by the JDBC backends, the implementations provide the connections and the statements that differ between databases
+ */
+public abstract class JdbcClaimStorage implements ClaimStorage {
+
+    // Raised by every migration in migrateTables
+    private static final int SCHEMA_VERSION = 2;
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    protected final HytaleLogger logger;
+    private Connection connection;
+    private final Map<String, PreparedStatement> cachedStatements;
+    private final Map<String, String> upsertStatements;
+    // Rows of every party as they are stored in the database, only used by the writer
+    private final Map<UUID, PersistedParty> persistedParties;
+    // Rows written by the running batch, only applied to persistedParties once it commits. A null value is a deleted party
+    private final Map<UUID, PersistedParty> stagedParties;
+    // Dirty sections the saves of the running batch took, given back to the parties when it rolls back
+    private final Map<PartyInfo, Integer> batchDirty;
+    private boolean inBatch;
+    // Ids of the rows of the dimensions table, only used by the writer
+    private final Map<String, Integer> dimensionIds;
+    private int nextDimensionId;
+
+    private record OverrideRow(String valueType, String value) {}
+
+    private record PermissionRow(UUID target, String permission) {}
+
+    /**
+     * Child rows of a party as they are stored in the database, used to write only the rows that changed
+     */
+    private static class PersistedParty {
+
+        private final Set<UUID> members = new HashSet<>();
+        private final Map<String, OverrideRow> overrides = new HashMap<>();
+        private final Set<UUID> partyAllies = new HashSet<>();
+        private final Set<UUID> playerAllies = new HashSet<>();
+        private final Map<PermissionRow, Boolean> permissions = new HashMap<>();
+
+        private int differsFrom(PartyInfo party) {
+            int sections = 0;
+            if (!members.equals(new HashSet<>(Arrays.asList(party.getMembers())))) sections |= PartyInfo.DIRTY_MEMBERS;
+            Map<String, OverrideRow> currentOverrides = new HashMap<>();
+            for (PartyOverride override : party.getOverrides()) {
+                currentOverrides.put(override.getType(), new OverrideRow(override.getValue().getType(), override.getValue().getValue()));
+            }
+            if (!overrides.equals(currentOverrides)) sections |= PartyInfo.DIRTY_OVERRIDES;
+            if (!partyAllies.equals(party.getPartyAllies()) || !playerAllies.equals(party.getPlayerAllies())) sections |= PartyInfo.DIRTY_ALLIES;
+            int permissionCount = 0;
+            for (Map.Entry<UUID, Map<String, Boolean>> entry : party.getPermissionOverrides().entrySet()) {
+                for (Map.Entry<String, Boolean> permEntry : entry.getValue().entrySet()) {
+                    permissionCount++;
+                    if (!permEntry.getValue().equals(permissions.get(new PermissionRow(entry.getKey(), permEntry.getKey())))) {
+                        sections |= PartyInfo.DIRTY_PERMISSIONS;
+                    }
+                }
+            }
+            if (permissionCount != permissions.size()) sections |= PartyInfo.DIRTY_PERMISSIONS;
+            return sections;
+        }
+
+        private PersistedParty copy() {
+            PersistedParty copy = new PersistedParty();
+            copy.members.addAll(members);
+            copy.overrides.putAll(overrides);
+            copy.partyAllies.addAll(partyAllies);
+            copy.playerAllies.addAll(playerAllies);
+            copy.permissions.putAll(permissions);
+            return copy;
+        }
+    }
+
+    protected JdbcClaimStorage(HytaleLogger logger) {
+        this.logger = logger;
+        this.cachedStatements = new HashMap<>();
+        this.upsertStatements = new HashMap<>();
+        this.persistedParties = new HashMap<>();
+        this.stagedParties = new HashMap<>();
+        this.batchDirty = new IdentityHashMap<>();
+        this.dimensionIds = new HashMap<>();
+    }
+
+    /**
+     * Opens the connection used for writes and creates the tables, called by the implementations once they are ready to connect
+     */
+    protected void open() {
+        try {
+            this.connection = openConnection();
+            createTables();
+            logger.at(Level.INFO).log(getName() + " database initialized successfully");
+        } catch (Exception e) {
+            logger.at(Level.SEVERE).log("Error initializing " + getName() + " database: " + e.getMessage());
+            e.printStackTrace();
+            this.connection = null;
+        }
+    }
+
+    /**
+     * Opens the connection used by the writer
+     */
+    protected abstract Connection openConnection() throws Exception;
+
+    /**
+     * Opens a separate connection to the database, used to read tables in parallel at startup
+     */
+    protected abstract Connection openReadConnection() throws SQLException;
+
+    /**
+     * Statement that inserts a row or updates it in place when a row with the same key exists, never deleting it so child rows are kept.
+     * The key columns are always the first ones of the columns
+     */
+    protected abstract String createUpsertSql(String table, String[] keyColumns, String[] columns);
+
+    /**
+     * Adapts a create table statement written with SQLite column types to the database
+     */
+    protected String adaptTableSql(String sql) {
+        return sql;
+    }
+
+    /**
+     * Brings tables created by older versions up to date
+     */
+    protected void upgradeTables() throws SQLException {
+    }
+
+    private void createTables() throws SQLException {
+        // Has to run before the claims tables are created, an empty new table would hide the migrated one
+        resumeTableSwaps();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(adaptTableSql("CREATE TABLE IF NOT EXISTS parties (" +
+                    "id TEXT PRIMARY KEY," +
+                    "owner TEXT," +
+                    "name TEXT," +
+                    "description TEXT," +
+                    "color INTEGER," +
+                    "created_user_uuid TEXT," +
+                    "created_user_name TEXT," +
+                    "created_at INTEGER," +
+                    "modified_user_uuid TEXT," +
+                    "modified_user_name TEXT," +
+                    "modified_at INTEGER" +
+                    ")"));
+
+            statement.execute(adaptTableSql("CREATE TABLE IF NOT EXISTS party_members (" +
+                    "party_id TEXT," +
+                    "member_uuid TEXT," +
+                    "PRIMARY KEY (party_id, member_uuid)," +
+                    "FOREIGN KEY (party_id) REFERENCES parties(id) ON DELETE CASCADE" +
+                    ")"));
+
+            statement.execute(adaptTableSql("CREATE TABLE IF NOT EXISTS party_overrides (" +
+                    "party_id TEXT," +
+                    "type TEXT," +
+                    "value_type TEXT," +
+                    "value TEXT," +
+                    "PRIMARY KEY (party_id, type)," +
+                    "FOREIGN KEY (party_id) REFERENCES parties(id) ON DELETE CASCADE" +
+                    ")"));
+
+            statement.execute(adaptTableSql("CREATE TABLE IF NOT EXISTS party_allies (" +
+                    "party_id TEXT," +
+                    "ally_party_id TEXT," +
+                    "PRIMARY KEY (party_id, ally_party_id)," +
+                    "FOREIGN KEY (party_id) REFERENCES parties(id) ON DELETE CASCADE" +
+                    ")"));
+
+            statement.execute(adaptTableSql("CREATE TABLE IF NOT EXISTS player_allies (" +
+                    "party_id TEXT," +
+                    "player_uuid TEXT," +
+                    "PRIMARY KEY (party_id, player_uuid)," +
+                    "FOREIGN KEY (party_id) REFERENCES parties(id) ON DELETE CASCADE" +
+                    ")"));
+
+            statement.execute(adaptTableSql("CREATE TABLE IF NOT EXISTS dimensions (" +
+                    "id INTEGER PRIMARY KEY," +
+                    "name TEXT UNIQUE" +
+                    ")"));
+
+            statement.execute(adaptTableSql(claimsTableSql("claims")));
+
+            statement.execute(adaptTableSql("CREATE TABLE IF NOT EXISTS name_cache (" +
+                    "uuid TEXT PRIMARY KEY," +
+                    "name TEXT," +
+                    "last_seen INTEGER DEFAULT -1," +
+                    "play_time REAL DEFAULT 0" +
+                    ")"));
+
+            statement.execute(adaptTableSql("CREATE TABLE IF NOT EXISTS admin_overrides (" +
+                    "uuid TEXT PRIMARY KEY" +
+                    ")"));
+
+            statement.execute(adaptTableSql("CREATE TABLE IF NOT EXISTS party_permission_overrides (" +
+                    "party_id TEXT," +
+                    "target_uuid TEXT," +
+                    "permission TEXT," +
+                    "value INTEGER," +
+                    "PRIMARY KEY (party_id, target_uuid, permission)," +
+                    "FOREIGN KEY (party_id) REFERENCES parties(id) ON DELETE CASCADE" +
+                    ")"));
+
+            statement.execute(adaptTableSql(reservedChunksTableSql("reserved_chunks")));
+
+            statement.execute(adaptTableSql("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INTEGER" +
+                    ")"));
+        }
+        upgradeTables();
+        migrateTables();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX IF NOT EXISTS claims_party_owner ON claims (party_owner)");
+            statement.execute("CREATE INDEX IF NOT EXISTS reserved_chunks_reserved_by ON reserved_chunks (reserved_by)");
+        }
+        loadDimensionIds();
+    }
+
+    /**
+     * Chunks are keyed by the id of their dimension and their packed {@link ChunkUtil#indexChunk(int, int)} index
+     */
+    private static String claimsTableSql(String table) {
+        return "CREATE TABLE IF NOT EXISTS " + table + " (" +
+                "dimension_id INTEGER," +
+                "chunk_key INTEGER," +
+                "party_owner TEXT," +
+                "created_user_uuid TEXT," +
+                "created_user_name TEXT," +
+                "created_at INTEGER," +
+                "PRIMARY KEY (dimension_id, chunk_key)" +
+                ")";
+    }
+
+    private static String reservedChunksTableSql(String table) {
+        return "CREATE TABLE IF NOT EXISTS " + table + " (" +
+                "dimension_id INTEGER," +
+                "chunk_key INTEGER," +
+                "reserved_by TEXT," +
+                "PRIMARY KEY (dimension_id, chunk_key)" +
+                ")";
+    }
+
+    /**
+     * Runs the migrations between the stored schema version and the current one, each one in its own transaction
+     */
+    private void migrateTables() throws SQLException {
+        int version = 0;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MAX(version) AS version FROM schema_version")) {
+            if (rs.next()) version = rs.getInt("version");
+        }
+        // Databases from before the schema was versioned still have the chunk coordinate columns, new ones start at the current version
+        if (version == 0) version = columnExists("claims", "chunkX") ? 1 : SCHEMA_VERSION;
+        if (version < 2) {
+            migrate(2, this::migrateToPackedChunks);
+        } else {
+            setSchemaVersion(version);
+        }
+    }
+
+    private interface Migration {
+        void run() throws SQLException;
+    }
+
+    private void migrate(int version, Migration migration) throws SQLException {
+        logger.at(Level.INFO).log("Migrating the " + getName() + " database to schema version " + version + "...");
+        long start = System.currentTimeMillis();
+        connection.setAutoCommit(false);
+        try {
+            migration.run();
+            setSchemaVersion(version);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        logger.at(Level.INFO).log("Migrated the " + getName() + " database to schema version " + version + " in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private void setSchemaVersion(int version) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM schema_version");
+            statement.executeUpdate("INSERT INTO schema_version (version) VALUES (" + version + ")");
+        }
+    }
+
+    /**
+     * Finishes the table swaps of a migration that was interrupted on a database that commits schema changes right away.
+     * The swaps only start once every _v2 table is filled and the _v1 tables are dropped last, so any leftover _v1 table means every _v2 table
+     * is complete and is swapped in. Without one a _v2 table next to the old one was still being filled and is dropped so the migration runs again
+     */
+    private void resumeTableSwaps() throws SQLException {
+        String[] tables = {"claims", "reserved_chunks"};
+        boolean swapping = false;
+        for (String table : tables) {
+            swapping |= tableExists(table + "_v1");
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String table : tables) {
+                boolean current = tableExists(table);
+                boolean old = tableExists(table + "_v1");
+                boolean migrated = tableExists(table + "_v2");
+                if (swapping && migrated) {
+                    logger.at(Level.WARNING).log("Resuming the interrupted migration of the " + table + " table");
+                    if (current) statement.execute("ALTER TABLE " + table + " RENAME TO " + table + "_v1");
+                    statement.execute("ALTER TABLE " + table + "_v2 RENAME TO " + table);
+                    statement.execute("DROP TABLE " + table + "_v1");
+                } else if (old && current) {
+                    statement.execute("DROP TABLE " + table + "_v1");
+                } else if (old) {
+                    // Renamed away without a migrated table to replace it, put it back so the migration starts over
+                    statement.execute("ALTER TABLE " + table + "_v1 RENAME TO " + table);
+                } else if (migrated && current) {
+                    logger.at(Level.WARNING).log("Discarding the incomplete migration of the " + table + " table, it runs again");
+                    statement.execute("DROP TABLE " + table + "_v2");
+                }
+            }
+            // The party dates were converted before the swaps started, only the old columns are left to drop
+            if (swapping && columnExists("parties", "created_date")) statement.execute("ALTER TABLE parties DROP COLUMN created_date");
+            if (swapping && columnExists("parties", "modified_date")) statement.execute("ALTER TABLE parties DROP COLUMN modified_date");
+        }
+    }
+
+    private boolean tableExists(String table) {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeQuery("SELECT 1 FROM " + table + " WHERE 1 = 0").close();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Version 2 replaces the dimension name and chunk coordinates of claims and reserved chunks with a dimension id and a packed chunk key,
+     * and stores dates as epoch millis instead of text. The new tables are filled next to the old ones and only swapped in at the end,
+     * the old ones are renamed away first and dropped last, so {@link #resumeTableSwaps()} can finish a swap interrupted on a database
+     * that commits schema changes right away. A date that can't be read fails the migration instead of being lost
+     */
+    private void migrateToPackedChunks() throws SQLException {
+        loadDimensionIds();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS claims_v2");
+            statement.execute("DROP TABLE IF EXISTS reserved_chunks_v2");
+            statement.execute(adaptTableSql(claimsTableSql("claims_v2")));
+            statement.execute(adaptTableSql(reservedChunksTableSql("reserved_chunks_v2")));
+
+            int claims = 0;
+            try (Statement select = connection.createStatement();
+                 ResultSet rs = select.executeQuery("SELECT dimension, chunkX, chunkZ, party_owner, created_user_uuid, created_user_name, created_date FROM claims");
+                 PreparedStatement insert = connection.prepareStatement("INSERT INTO claims_v2 (dimension_id, chunk_key, party_owner, created_user_uuid, created_user_name, created_at) VALUES (?, ?, ?, ?, ?, ?)")) {
+                while (rs.next()) {
+                    insert.setInt(1, dimensionId(rs.getString("dimension")));
+                    insert.setLong(2, ChunkUtil.indexChunk(rs.getInt("chunkX"), rs.getInt("chunkZ")));
+                    insert.setString(3, rs.getString("party_owner"));
+                    insert.setString(4, rs.getString("created_user_uuid"));
+                    insert.setString(5, rs.getString("created_user_name"));
+                    insert.setLong(6, migrateDate(rs.getString("created_date"), "claim " + rs.getString("dimension") + ":" + rs.getInt("chunkX") + ":" + rs.getInt("chunkZ")));
+                    insert.addBatch();
+                    if (++claims % INSERT_BATCH_SIZE == 0) insert.executeBatch();
+                }
+                insert.executeBatch();
+            }
+
+            int reserved = 0;
+            try (Statement select = connection.createStatement();
+                 ResultSet rs = select.executeQuery("SELECT dimension, chunkX, chunkZ, reserved_by FROM reserved_chunks");
+                 PreparedStatement insert = connection.prepareStatement("INSERT INTO reserved_chunks_v2 (dimension_id, chunk_key, reserved_by) VALUES (?, ?, ?)")) {
+                while (rs.next()) {
+                    insert.setInt(1, dimensionId(rs.getString("dimension")));
+                    insert.setLong(2, ChunkUtil.indexChunk(rs.getInt("chunkX"), rs.getInt("chunkZ")));
+                    insert.setString(3, rs.getString("reserved_by"));
+                    insert.addBatch();
+                    if (++reserved % INSERT_BATCH_SIZE == 0) insert.executeBatch();
+                }
+                insert.executeBatch();
+            }
+
+            if (!columnExists("parties", "created_at")) statement.execute(adaptTableSql("ALTER TABLE parties ADD COLUMN created_at INTEGER"));
+            if (!columnExists("parties", "modified_at")) statement.execute(adaptTableSql("ALTER TABLE parties ADD COLUMN modified_at INTEGER"));
+            try (Statement select = connection.createStatement();
+                 ResultSet rs = select.executeQuery("SELECT id, created_date, modified_date FROM parties");
+                 PreparedStatement update = connection.prepareStatement("UPDATE parties SET created_at = ?, modified_at = ? WHERE id = ?")) {
+                int parties = 0;
+                while (rs.next()) {
+                    update.setLong(1, migrateDate(rs.getString("created_date"), "party " + rs.getString("id")));
+                    update.setLong(2, migrateDate(rs.getString("modified_date"), "party " + rs.getString("id")));
+                    update.setString(3, rs.getString("id"));
+                    update.addBatch();
+                    if (++parties % INSERT_BATCH_SIZE == 0) update.executeBatch();
+                }
+                update.executeBatch();
+            }
+
+            statement.execute("DROP TABLE IF EXISTS claims_v1");
+            statement.execute("DROP TABLE IF EXISTS reserved_chunks_v1");
+            statement.execute("ALTER TABLE claims RENAME TO claims_v1");
+            statement.execute("ALTER TABLE claims_v2 RENAME TO claims");
+            statement.execute("ALTER TABLE reserved_chunks RENAME TO reserved_chunks_v1");
+            statement.execute("ALTER TABLE reserved_chunks_v2 RENAME TO reserved_chunks");
+            statement.execute("ALTER TABLE parties DROP COLUMN created_date");
+            statement.execute("ALTER TABLE parties DROP COLUMN modified_date");
+            statement.execute("DROP TABLE claims_v1");
+            statement.execute("DROP TABLE reserved_chunks_v1");
+            logger.at(Level.INFO).log("Migrated " + claims + " claims, " + reserved + " reserved chunks and " + dimensionIds.size() + " dimensions to packed chunk keys");
+        }
+    }
+
+    /**
+     * Checks a column by selecting it, the metadata lookups disagree between databases on the case of the names
+     */
+    private boolean columnExists(String table, String column) {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeQuery("SELECT " + column + " FROM " + table + " WHERE 1 = 0").close();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void loadDimensionIds() throws SQLException {
+        dimensionIds.clear();
+        nextDimensionId = 0;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id, name FROM dimensions")) {
+            while (rs.next()) {
+                int id = rs.getInt("id");
+                dimensionIds.put(rs.getString("name"), id);
+                nextDimensionId = Math.max(nextDimensionId, id + 1);
+            }
+        }
+    }
+
+    /**
+     * Gets the id of the dimension, adding it to the dimensions table the first time it is written
+     */
+    private int dimensionId(String dimension) throws SQLException {
+        Integer id = dimensionIds.get(dimension);
+        if (id != null) return id;
+        PreparedStatement ps = statement("INSERT INTO dimensions (id, name) VALUES (?, ?)");
+        ps.setInt(1, nextDimensionId);
+        ps.setString(2, dimension);
+        ps.executeUpdate();
+        dimensionIds.put(dimension, nextDimensionId);
+        return nextDimensionId++;
+    }
+
+    /**
+     * Dates are kept as {@link LocalDateTime} text in memory and stored as epoch millis, -1 when there is no date
+     */
+    private static long toEpochMillis(String date) {
+        if (date == null || date.isEmpty()) return -1;
+        try {
+            return LocalDateTime.parse(date).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Converts a date of the version 1 tables, failing the migration on a date that can't be read so the old tables are kept
+     */
+    private static long migrateDate(String date, String row) throws SQLException {
+        if (date == null || date.isEmpty()) return -1;
+        try {
+            return LocalDateTime.parse(date).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new SQLException("Unreadable date " + date + " of " + row + ", fix or clear it before migrating", e);
+        }
+    }
+
+    private static String fromEpochMillis(long millis) {
+        if (millis < 0) return "";
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()).toString();
+    }
+
+    protected void addColumnIfNotExists(String tableName, String columnName, String columnDefinition) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getColumns(null, null, tableName, columnName)) {
+            if (!rs.next()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("ALTER TABLE " + tableName + " ADD COLUMN " + columnName + " " + columnDefinition);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isMigrationNecessary() {
+        if (!new File(FileUtils.MIGRATED_MARKER_PATH).exists()) {
+            return hasAnyJsonFile();
+        }
+        return false;
+    }
+
+    private boolean hasAnyJsonFile() {
+        return new File(FileUtils.PARTY_PATH).exists() ||
+                new File(FileUtils.CLAIM_PATH).exists() ||
+                new File(FileUtils.NAMES_CACHE_PATH).exists() ||
+                new File(FileUtils.ADMIN_OVERRIDES_PATH).exists();
+    }
+
+    /**
+     * Runs the writes in a single transaction, the individual writes handle their own errors.
+     * The stored rows the party saves remember are only updated once the transaction commits, on a rollback the parties get their dirty
+     * sections back so the next save writes them again
+     */
+    @Override
+    public void runBatch(Runnable writes) {
+        commitBatch(writes);
+    }
+
+    /**
+     * Runs the writes in a single transaction, returns false when it was rolled back
+     */
+    boolean commitBatch(Runnable writes) {
+        if (connection == null) {
+            writes.run();
+            return true;
+        }
+        try {
+            connection.setAutoCommit(false);
+            inBatch = true;
+            writes.run();
+            connection.commit();
+            for (Map.Entry<UUID, PersistedParty> entry : stagedParties.entrySet()) {
+                if (entry.getValue() == null) {
+                    persistedParties.remove(entry.getKey());
+                } else {
+                    persistedParties.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error committing database writes: " + e.getMessage());
+            e.printStackTrace();
+            batchDirty.forEach(PartyInfo::markDirty);
+            try {
+                connection.rollback();
+                // Dimensions added by the batch were rolled back with it
+                loadDimensionIds();
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+            return false;
+        } finally {
+            inBatch = false;
+            stagedParties.clear();
+            batchDirty.clear();
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Writes the sections of the party that changed since the last save, only touching the rows that differ from what is stored
+     */
+    @Override
+    public void saveParty(PartyInfo party) {
+        int sections = party.takeDirty();
+        var persisted = getPersisted(party.getId());
+        if (persisted == null) {
+            persisted = new PersistedParty();
+            (inBatch ? stagedParties : persistedParties).put(party.getId(), persisted);
+            sections = PartyInfo.DIRTY_ALL;
+        }
+        if (sections == 0) return;
+        if (inBatch) batchDirty.merge(party, sections, (a, b) -> a | b);
+        String partyId = party.getId().toString();
+        try {
+            if ((sections & PartyInfo.DIRTY_FIELDS) != 0) {
+                PreparedStatement ps = upsert("parties", new String[]{"id"}, new String[]{"id", "owner", "name", "description", "color", "created_user_uuid", "created_user_name", "created_at", "modified_user_uuid", "modified_user_name", "modified_at"});
+                ps.setString(1, partyId);
+                ps.setString(2, party.getOwner().toString());
+                ps.setString(3, party.getName());
+                ps.setString(4, party.getDescription());
+                ps.setInt(5, party.getColor());
+                ps.setString(6, party.getCreatedTracked().getUserUUID().toString());
+                ps.setString(7, party.getCreatedTracked().getUserName());
+                ps.setLong(8, toEpochMillis(party.getCreatedTracked().getDate()));
+                ps.setString(9, party.getModifiedTracked().getUserUUID().toString());
+                ps.setString(10, party.getModifiedTracked().getUserName());
+                ps.setLong(11, toEpochMillis(party.getModifiedTracked().getDate()));
+                ps.executeUpdate();
+                sections &= ~PartyInfo.DIRTY_FIELDS;
+            }
+
+            // Members
+            if ((sections & PartyInfo.DIRTY_MEMBERS) != 0) {
+                syncRows(partyId, persisted.members, new HashSet<>(Arrays.asList(party.getMembers())), "party_members", "member_uuid",
+                        "DELETE FROM party_members WHERE party_id = ? AND member_uuid = ?");
+                sections &= ~PartyInfo.DIRTY_MEMBERS;
+            }
+
+            // Overrides
+            if ((sections & PartyInfo.DIRTY_OVERRIDES) != 0) {
+                Map<String, OverrideRow> overrides = new HashMap<>();
+                for (PartyOverride override : party.getOverrides()) {
+                    overrides.put(override.getType(), new OverrideRow(override.getValue().getType(), override.getValue().getValue()));
+                }
+                for (Iterator<Map.Entry<String, OverrideRow>> iterator = persisted.overrides.entrySet().iterator(); iterator.hasNext(); ) {
+                    var entry = iterator.next();
+                    if (overrides.containsKey(entry.getKey())) continue;
+                    PreparedStatement delete = statement("DELETE FROM party_overrides WHERE party_id = ? AND type = ?");
+                    delete.setString(1, partyId);
+                    delete.setString(2, entry.getKey());
+                    delete.executeUpdate();
+                    iterator.remove();
+                }
+                for (Map.Entry<String, OverrideRow> entry : overrides.entrySet()) {
+                    if (entry.getValue().equals(persisted.overrides.get(entry.getKey()))) continue;
+                    PreparedStatement upsert = upsert("party_overrides", new String[]{"party_id", "type"}, new String[]{"party_id", "type", "value_type", "value"});
+                    upsert.setString(1, partyId);
+                    upsert.setString(2, entry.getKey());
+                    upsert.setString(3, entry.getValue().valueType());
+                    upsert.setString(4, entry.getValue().value());
+                    upsert.executeUpdate();
+                    persisted.overrides.put(entry.getKey(), entry.getValue());
+                }
+                sections &= ~PartyInfo.DIRTY_OVERRIDES;
+            }
+
+            // Party and Player Allies
+            if ((sections & PartyInfo.DIRTY_ALLIES) != 0) {
+                syncRows(partyId, persisted.partyAllies, new HashSet<>(party.getPartyAllies()), "party_allies", "ally_party_id",
+                        "DELETE FROM party_allies WHERE party_id = ? AND ally_party_id = ?");
+                syncRows(partyId, persisted.playerAllies, new HashSet<>(party.getPlayerAllies()), "player_allies", "player_uuid",
+                        "DELETE FROM player_allies WHERE party_id = ? AND player_uuid = ?");
+                sections &= ~PartyInfo.DIRTY_ALLIES;
+            }
+
+            // Permission Overrides
+            if ((sections & PartyInfo.DIRTY_PERMISSIONS) != 0) {
+                Map<PermissionRow, Boolean> permissions = new HashMap<>();
+                for (Map.Entry<UUID, Map<String, Boolean>> entry : party.getPermissionOverrides().entrySet()) {
+                    for (Map.Entry<String, Boolean> permEntry : entry.getValue().entrySet()) {
+                        permissions.put(new PermissionRow(entry.getKey(), permEntry.getKey()), permEntry.getValue());
+                    }
+                }
+                for (Iterator<PermissionRow> iterator = persisted.permissions.keySet().iterator(); iterator.hasNext(); ) {
+                    var row = iterator.next();
+                    if (permissions.containsKey(row)) continue;
+                    PreparedStatement delete = statement("DELETE FROM party_permission_overrides WHERE party_id = ? AND target_uuid = ? AND permission = ?");
+                    delete.setString(1, partyId);
+                    delete.setString(2, row.target().toString());
+                    delete.setString(3, row.permission());
+                    delete.executeUpdate();
+                    iterator.remove();
+                }
+                for (Map.Entry<PermissionRow, Boolean> entry : permissions.entrySet()) {
+                    if (entry.getValue().equals(persisted.permissions.get(entry.getKey()))) continue;
+                    PreparedStatement upsert = upsert("party_permission_overrides", new String[]{"party_id", "target_uuid", "permission"}, new String[]{"party_id", "target_uuid", "permission", "value"});
+                    upsert.setString(1, partyId);
+                    upsert.setString(2, entry.getKey().target().toString());
+                    upsert.setString(3, entry.getKey().permission());
+                    upsert.setInt(4, entry.getValue() ? 1 : 0);
+                    upsert.executeUpdate();
+                    persisted.permissions.put(entry.getKey(), entry.getValue());
+                }
+                sections &= ~PartyInfo.DIRTY_PERMISSIONS;
+            }
+
+        } catch (SQLException e) {
+            // Keep the sections that didn't make it so the next save retries them
+            party.markDirty(sections);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stored rows of the party, inside a batch it is a copy that only replaces the committed one once the batch commits
+     */
+    private PersistedParty getPersisted(UUID partyId) {
+        if (!inBatch) return persistedParties.get(partyId);
+        if (stagedParties.containsKey(partyId)) return stagedParties.get(partyId);
+        PersistedParty committed = persistedParties.get(partyId);
+        PersistedParty staged = committed != null ? committed.copy() : null;
+        if (staged != null) stagedParties.put(partyId, staged);
+        return staged;
+    }
+
+    /**
+     * Inserts and deletes the (party_id, uuid) rows needed to go from the persisted set to the current one
+     */
+    private void syncRows(String partyId, Set<UUID> persisted, Set<UUID> current, String table, String column, String deleteSql) throws SQLException {
+        for (Iterator<UUID> iterator = persisted.iterator(); iterator.hasNext(); ) {
+            UUID uuid = iterator.next();
+            if (current.contains(uuid)) continue;
+            PreparedStatement delete = statement(deleteSql);
+            delete.setString(1, partyId);
+            delete.setString(2, uuid.toString());
+            delete.executeUpdate();
+            iterator.remove();
+        }
+        for (UUID uuid : current) {
+            if (persisted.contains(uuid)) continue;
+            PreparedStatement insert = upsert(table, new String[]{"party_id", column}, new String[]{"party_id", column});
+            insert.setString(1, partyId);
+            insert.setString(2, uuid.toString());
+            insert.executeUpdate();
+            persisted.add(uuid);
+        }
+    }
+
+    /**
+     * Gets a prepared statement that is kept open and reused for every call with the same sql
+     */
+    private PreparedStatement statement(String sql) throws SQLException {
+        PreparedStatement statement = cachedStatements.get(sql);
+        if (statement == null || statement.isClosed()) {
+            statement = connection.prepareStatement(sql);
+            cachedStatements.put(sql, statement);
+        }
+        statement.clearParameters();
+        return statement;
+    }
+
+    /**
+     * Gets the cached upsert statement of the table
+     */
+    private PreparedStatement upsert(String table, String[] keyColumns, String[] columns) throws SQLException {
+        String sql = upsertStatements.get(table);
+        if (sql == null) {
+            sql = createUpsertSql(table, keyColumns, columns);
+            upsertStatements.put(table, sql);
+        }
+        return statement(sql);
+    }
+
+    @Override
+    public void deleteParty(UUID partyId) {
+        try {
+            PreparedStatement ps = statement("DELETE FROM parties WHERE id = ?");
+            ps.setString(1, partyId.toString());
+            ps.executeUpdate();
+            if (inBatch) {
+                stagedParties.put(partyId, null);
+            } else {
+                persistedParties.remove(partyId);
+            }
+            // Cascading deletes should handle others if foreign keys are working, 
+            // but SQLite requires PRAGMA foreign_keys = ON;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads every party reading each table once, child tables are read ordered by party and joined in memory
+     */
+    @Override
+    public Map<String, PartyInfo> loadParties() {
+        Map<String, PartyInfo> parties = new HashMap<>();
+        if (connection == null) {
+            logger.at(Level.SEVERE).log("Cannot load parties: database connection is null");
+            return parties;
+        }
+        Map<String, PartyInfo> byId = new HashMap<>();
+        Map<String, PersistedParty> persistedById = new HashMap<>();
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SELECT * FROM parties")) {
+                while (rs.next()) {
+                    String rawId = rs.getString("id");
+                    UUID id = UUID.fromString(rawId);
+                    PartyInfo party = new PartyInfo(
+                            id,
+                            UUID.fromString(rs.getString("owner")),
+                            rs.getString("name"),
+                            rs.getString("description"),
+                            new UUID[0],
+                            rs.getInt("color")
+                    );
+                    party.setCreatedTracked(new ModifiedTracking(
+                            UUID.fromString(rs.getString("created_user_uuid")),
+                            rs.getString("created_user_name"),
+                            fromEpochMillis(rs.getLong("created_at"))
+                    ));
+                    party.setModifiedTracked(new ModifiedTracking(
+                            UUID.fromString(rs.getString("modified_user_uuid")),
+                            rs.getString("modified_user_name"),
+                            fromEpochMillis(rs.getLong("modified_at"))
+                    ));
+                    byId.put(rawId, party);
+                    persistedById.put(rawId, new PersistedParty());
+                }
+            }
+
+            // Load members
+            try (ResultSet rs = statement.executeQuery("SELECT party_id, member_uuid FROM party_members ORDER BY party_id")) {
+                String currentId = null;
+                PartyInfo party = null;
+                PersistedParty persisted = null;
+                List<UUID> members = new ArrayList<>();
+                while (rs.next()) {
+                    String partyId = rs.getString("party_id");
+                    if (!partyId.equals(currentId)) {
+                        if (party != null) party.setMembers(members.toArray(new UUID[0]));
+                        members.clear();
+                        currentId = partyId;
+                        party = byId.get(partyId);
+                        persisted = persistedById.get(partyId);
+                    }
+                    if (party == null) continue;
+                    UUID member = UUID.fromString(rs.getString("member_uuid"));
+                    members.add(member);
+                    persisted.members.add(member);
+                }
+                if (party != null) party.setMembers(members.toArray(new UUID[0]));
+            }
+
+            // Load overrides
+            try (ResultSet rs = statement.executeQuery("SELECT party_id, type, value_type, value FROM party_overrides ORDER BY party_id")) {
+                String currentId = null;
+                PartyInfo party = null;
+                PersistedParty persisted = null;
+                List<PartyOverride> overrides = new ArrayList<>();
+                while (rs.next()) {
+                    String partyId = rs.getString("party_id");
+                    if (!partyId.equals(currentId)) {
+                        if (party != null) party.setOverrides(overrides);
+                        overrides.clear();
+                        currentId = partyId;
+                        party = byId.get(partyId);
+                        persisted = persistedById.get(partyId);
+                    }
+                    if (party == null) continue;
+                    String type = rs.getString("type");
+                    String valueType = rs.getString("value_type");
+                    String value = rs.getString("value");
+                    persisted.overrides.put(type, new OverrideRow(valueType, value));
+                    overrides.add(new PartyOverride(type, new PartyOverride.PartyOverrideValue(valueType, value)));
+                }
+                if (party != null) party.setOverrides(overrides);
+            }
+
+            // Load party allies
+            try (ResultSet rs = statement.executeQuery("SELECT party_id, ally_party_id FROM party_allies ORDER BY party_id")) {
+                String currentId = null;
+                PartyInfo party = null;
+                PersistedParty persisted = null;
+                while (rs.next()) {
+                    String partyId = rs.getString("party_id");
+                    if (!partyId.equals(currentId)) {
+                        currentId = partyId;
+                        party = byId.get(partyId);
+                        persisted = persistedById.get(partyId);
+                    }
+                    if (party == null) continue;
+                    UUID ally = UUID.fromString(rs.getString("ally_party_id"));
+                    persisted.partyAllies.add(ally);
+                    party.addPartyAllies(ally);
+                }
+            }
+
+            // Load player allies
+            try (ResultSet rs = statement.executeQuery("SELECT party_id, player_uuid FROM player_allies ORDER BY party_id")) {
+                String currentId = null;
+                PartyInfo party = null;
+                PersistedParty persisted = null;
+                while (rs.next()) {
+                    String partyId = rs.getString("party_id");
+                    if (!partyId.equals(currentId)) {
+                        currentId = partyId;
+                        party = byId.get(partyId);
+                        persisted = persistedById.get(partyId);
+                    }
+                    if (party == null) continue;
+                    UUID ally = UUID.fromString(rs.getString("player_uuid"));
+                    persisted.playerAllies.add(ally);
+                    party.addPlayerAllies(ally);
+                }
+            }
+
+            // Load permission overrides
+            try (ResultSet rs = statement.executeQuery("SELECT party_id, target_uuid, permission, value FROM party_permission_overrides ORDER BY party_id")) {
+                String currentId = null;
+                PartyInfo party = null;
+                PersistedParty persisted = null;
+                while (rs.next()) {
+                    String partyId = rs.getString("party_id");
+                    if (!partyId.equals(currentId)) {
+                        currentId = partyId;
+                        party = byId.get(partyId);
+                        persisted = persistedById.get(partyId);
+                    }
+                    if (party == null) continue;
+                    UUID target = UUID.fromString(rs.getString("target_uuid"));
+                    String permission = rs.getString("permission");
+                    boolean value = rs.getInt("value") == 1;
+                    persisted.permissions.put(new PermissionRow(target, permission), value);
+                    party.setPermission(target, permission, value);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        for (Map.Entry<String, PartyInfo> entry : byId.entrySet()) {
+            PartyInfo party = entry.getValue();
+            PersistedParty persisted = persistedById.get(entry.getKey());
+            persistedParties.put(party.getId(), persisted);
+            // Sections where memory ended up different from the stored rows (new defaults, dropped overrides) get written on the next save
+            party.clearDirty();
+            party.markDirty(persisted.differsFrom(party));
+            parties.put(entry.getKey(), party);
+        }
+        return parties;
+    }
+
+    @Override
+    public void saveClaim(String dimension, ChunkInfo chunk) {
+        try {
+            PreparedStatement ps = claimUpsert(dimension, chunk);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Sends the claims to the database in batches of statements instead of one round trip per claim
+     */
+    @Override
+    public void saveClaims(String dimension, Collection<ChunkInfo> chunks) {
+        try {
+            PreparedStatement ps = null;
+            int pending = 0;
+            for (ChunkInfo chunk : chunks) {
+                ps = claimUpsert(dimension, chunk);
+                ps.addBatch();
+                if (++pending % INSERT_BATCH_SIZE == 0) ps.executeBatch();
+            }
+            if (ps != null) ps.executeBatch();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private PreparedStatement claimUpsert(String dimension, ChunkInfo chunk) throws SQLException {
+        PreparedStatement ps = upsert("claims", new String[]{"dimension_id", "chunk_key"}, new String[]{"dimension_id", "chunk_key", "party_owner", "created_user_uuid", "created_user_name", "created_at"});
+        ps.setInt(1, dimensionId(dimension));
+        ps.setLong(2, chunk.getChunkIndex());
+        ps.setString(3, chunk.getPartyOwner().toString());
+        ps.setString(4, chunk.getCreatedTracked().getUserUUID().toString());
+        ps.setString(5, chunk.getCreatedTracked().getUserName());
+        ps.setLong(6, toEpochMillis(chunk.getCreatedTracked().getDate()));
+        return ps;
+    }
+
+    @Override
+    public void deleteClaim(String dimension, int chunkX, int chunkZ) {
+        Integer dimensionId = dimensionIds.get(dimension);
+        if (dimensionId == null) return;
+        try {
+            PreparedStatement ps = statement("DELETE FROM claims WHERE dimension_id = ? AND chunk_key = ?");
+            ps.setInt(1, dimensionId);
+            ps.setLong(2, ChunkUtil.indexChunk(chunkX, chunkZ));
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public HashMap<String, Long2ObjectMap<ChunkInfo>> loadClaims() {
+        HashMap<String, Long2ObjectMap<ChunkInfo>> claims = new HashMap<>();
+        if (connection == null) {
+            logger.at(Level.SEVERE).log("Cannot load claims: database connection is null");
+            return claims;
+        }
+        // Read on its own connection so the independent tables can be loaded in parallel
+        try (Connection readConnection = openReadConnection();
+             Statement statement = readConnection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT d.name AS dimension, c.* FROM claims c JOIN dimensions d ON d.id = c.dimension_id")) {
+            while (rs.next()) {
+                ChunkInfo chunk = readClaim(rs);
+                claims.computeIfAbsent(rs.getString("dimension"), k -> new Long2ObjectOpenHashMap<>()).put(chunk.getChunkIndex(), chunk);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return claims;
+    }
+
+    @Override
+    public Long2ObjectMap<ChunkInfo> loadClaims(String dimension) {
+        Long2ObjectMap<ChunkInfo> claims = new Long2ObjectOpenHashMap<>();
+        if (connection == null) {
+            logger.at(Level.SEVERE).log("Cannot load claims: database connection is null");
+            return claims;
+        }
+        try (Connection readConnection = openReadConnection();
+             PreparedStatement ps = readConnection.prepareStatement("SELECT c.* FROM claims c JOIN dimensions d ON d.id = c.dimension_id WHERE d.name = ?")) {
+            ps.setString(1, dimension);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ChunkInfo chunk = readClaim(rs);
+                    claims.put(chunk.getChunkIndex(), chunk);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return claims;
+    }
+
+    @Override
+    public Map<UUID, Integer> countClaimsByParty() {
+        Map<UUID, Integer> counts = new HashMap<>();
+        if (connection == null) {
+            logger.at(Level.SEVERE).log("Cannot count claims: database connection is null");
+            return counts;
+        }
+        try (Connection readConnection = openReadConnection();
+             Statement statement = readConnection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT party_owner, COUNT(*) AS amount FROM claims GROUP BY party_owner")) {
+            while (rs.next()) {
+                counts.put(UUID.fromString(rs.getString("party_owner")), rs.getInt("amount"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return counts;
+    }
+
+    private static ChunkInfo readClaim(ResultSet rs) throws SQLException {
+        long chunkKey = rs.getLong("chunk_key");
+        return new ChunkInfo(
+                UUID.fromString(rs.getString("party_owner")),
+                ChunkUtil.xOfChunkIndex(chunkKey),
+                ChunkUtil.zOfChunkIndex(chunkKey),
+                new ModifiedTracking(
+                        UUID.fromString(rs.getString("created_user_uuid")),
+                        rs.getString("created_user_name"),
+                        fromEpochMillis(rs.getLong("created_at"))
+                )
+        );
+    }
+
+    @Override
+    public void saveNameCache(UUID uuid, String name, long lastSeen, float playTime) {
+        try {
+            PreparedStatement ps = upsert("name_cache", new String[]{"uuid"}, new String[]{"uuid", "name", "last_seen", "play_time"});
+            ps.setString(1, uuid.toString());
+            ps.setString(2, name);
+            ps.setLong(3, lastSeen);
+            ps.setFloat(4, playTime);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public PlayerNameTracker loadNameCache() {
+        PlayerNameTracker tracker = new PlayerNameTracker();
+        if (connection == null) {
+            logger.at(Level.SEVERE).log("Cannot load name cache: database connection is null");
+            return tracker;
+        }
+        // Read on its own connection so the independent tables can be loaded in parallel
+        try (Connection readConnection = openReadConnection();
+             Statement statement = readConnection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT * FROM name_cache")) {
+            while (rs.next()) {
+                tracker.setPlayerName(UUID.fromString(rs.getString("uuid")), rs.getString("name"), rs.getLong("last_seen"), rs.getFloat("play_time"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return tracker;
+    }
+
+    @Override
+    public void saveAdminOverride(UUID uuid) {
+        try {
+            PreparedStatement ps = upsert("admin_overrides", new String[]{"uuid"}, new String[]{"uuid"});
+            ps.setString(1, uuid.toString());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void deleteAdminOverride(UUID uuid) {
+        try {
+            PreparedStatement ps = statement("DELETE FROM admin_overrides WHERE uuid = ?");
+            ps.setString(1, uuid.toString());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public Set<UUID> loadAdminOverrides() {
+        Set<UUID> overrides = new HashSet<>();
+        if (connection == null) {
+            logger.at(Level.SEVERE).log("Cannot load admin overrides: database connection is null");
+            return overrides;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT * FROM admin_overrides")) {
+            while (rs.next()) {
+                overrides.add(UUID.fromString(rs.getString("uuid")));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return overrides;
+    }
+
+    @Override
+    public void saveReservedChunk(String dimension, ReservedChunk reservedChunk) {
+        try {
+            PreparedStatement ps = upsert("reserved_chunks", new String[]{"dimension_id", "chunk_key"}, new String[]{"dimension_id", "chunk_key", "reserved_by"});
+            ps.setInt(1, dimensionId(dimension));
+            ps.setLong(2, ChunkUtil.indexChunk(reservedChunk.getChunkX(), reservedChunk.getChunkZ()));
+            ps.setString(3, reservedChunk.getReservedBy().toString());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void deleteReservedChunk(String dimension, int chunkX, int chunkZ) {
+        Integer dimensionId = dimensionIds.get(dimension);
+        if (dimensionId == null) return;
+        try {
+            PreparedStatement ps = statement("DELETE FROM reserved_chunks WHERE dimension_id = ? AND chunk_key = ?");
+            ps.setInt(1, dimensionId);
+            ps.setLong(2, ChunkUtil.indexChunk(chunkX, chunkZ));
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void deleteReservedChunksByParty(String dimension, UUID partyId) {
+        Integer dimensionId = dimensionIds.get(dimension);
+        if (dimensionId == null) return;
+        try {
+            PreparedStatement ps = statement("DELETE FROM reserved_chunks WHERE dimension_id = ? AND reserved_by = ?");
+            ps.setInt(1, dimensionId);
+            ps.setString(2, partyId.toString());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void deletePartyChunks(UUID partyId) {
+        try {
+            PreparedStatement claims = statement("DELETE FROM claims WHERE party_owner = ?");
+            claims.setString(1, partyId.toString());
+            claims.executeUpdate();
+            PreparedStatement reserved = statement("DELETE FROM reserved_chunks WHERE reserved_by = ?");
+            reserved.setString(1, partyId.toString());
+            reserved.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public HashMap<String, Long2ObjectMap<ReservedChunk>> loadReservedChunks() {
+        HashMap<String, Long2ObjectMap<ReservedChunk>> reservedChunks = new HashMap<>();
+        if (connection == null) {
+            logger.at(Level.SEVERE).log("Cannot load reserved chunks: database connection is null");
+            return reservedChunks;
+        }
+        // Read on its own connection so the independent tables can be loaded in parallel
+        try (Connection readConnection = openReadConnection();
+             Statement statement = readConnection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT d.name AS dimension, r.* FROM reserved_chunks r JOIN dimensions d ON d.id = r.dimension_id")) {
+            while (rs.next()) {
+                ReservedChunk reservedChunk = readReservedChunk(rs);
+                reservedChunks.computeIfAbsent(rs.getString("dimension"), k -> new Long2ObjectOpenHashMap<>())
+                        .put(ChunkUtil.indexChunk(reservedChunk.getChunkX(), reservedChunk.getChunkZ()), reservedChunk);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return reservedChunks;
+    }
+
+    @Override
+    public Long2ObjectMap<ReservedChunk> loadReservedChunks(String dimension) {
+        Long2ObjectMap<ReservedChunk> reservedChunks = new Long2ObjectOpenHashMap<>();
+        if (connection == null) {
+            logger.at(Level.SEVERE).log("Cannot load reserved chunks: database connection is null");
+            return reservedChunks;
+        }
+        try (Connection readConnection = openReadConnection();
+             PreparedStatement ps = readConnection.prepareStatement("SELECT r.* FROM reserved_chunks r JOIN dimensions d ON d.id = r.dimension_id WHERE d.name = ?")) {
+            ps.setString(1, dimension);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ReservedChunk reservedChunk = readReservedChunk(rs);
+                    reservedChunks.put(ChunkUtil.indexChunk(reservedChunk.getChunkX(), reservedChunk.getChunkZ()), reservedChunk);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return reservedChunks;
+    }
+
+    private static ReservedChunk readReservedChunk(ResultSet rs) throws SQLException {
+        long chunkKey = rs.getLong("chunk_key");
+        return new ReservedChunk(
+                UUID.fromString(rs.getString("reserved_by")),
+                ChunkUtil.xOfChunkIndex(chunkKey),
+                ChunkUtil.zOfChunkIndex(chunkKey)
+        );
+    }
+
+    @Override
+    public void close() {
+        if (connection == null) return;
+        try {
+            for (PreparedStatement statement : cachedStatements.values()) {
+                statement.close();
+            }
+            cachedStatements.clear();
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        connection = null;
+    }
+}
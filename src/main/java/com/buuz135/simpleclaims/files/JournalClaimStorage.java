@@ -0,0 +1,275 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.claim.chunk.ChunkInfo;
+import com.buuz135.simpleclaims.claim.chunk.ReservedChunk;
+import com.buuz135.simpleclaims.claim.party.PartyInfo;
+import com.buuz135.simpleclaims.claim.player_name.PlayerNameTracker;
+import com.buuz135.simpleclaims.util.FileUtils;
+import com.hypixel.hytale.logger.HytaleLogger;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Storage that keeps claims and reserved chunks in the {@link ClaimJournal}, meant for very large amounts of claims.
+ * Parties, names and admin overrides have variable size rows and stay in the SQLite tables.
+ * The first time it is used the claims of the SQLite tables are converted into the journal.
+ */
+public class JournalClaimStorage implements ClaimStorage {
+
+    private final HytaleLogger logger;
+    private final SQLiteClaimStorage tables;
+    private final ClaimJournal journal;
+    private final int compactionRecords;
+    // Claims and reserved chunks of every dimension from a single read of the journal, shared by the loads at startup until a batch changes it
+    private ClaimJournal.Contents index;
+    // Raised whenever a batch drops the index, a read that started before it isn't kept
+    private long indexGeneration;
+    // Cleared once the loads at startup are done, later loads only read the dimension they need
+    private boolean keepIndex = true;
+
+    public JournalClaimStorage(HytaleLogger logger, int compactionRecords) {
+        this.logger = logger;
+        this.tables = new SQLiteClaimStorage(logger);
+        this.journal = new ClaimJournal(logger, Path.of(FileUtils.MAIN_PATH));
+        this.compactionRecords = Math.max(1, compactionRecords);
+        try {
+            if (this.journal.exists()) {
+                // Cuts off a torn tail, the read is kept for the loads at startup
+                this.index = this.journal.read(dimension -> true);
+            } else {
+                logger.at(Level.INFO).log("Converting claims from SQLite to the claim journal...");
+                long start = System.currentTimeMillis();
+                ClaimConverter.storageToJournal(this.tables, this.journal);
+                logger.at(Level.INFO).log("Converted claims to the claim journal in " + (System.currentTimeMillis() - start) + "ms");
+            }
+        } catch (IOException e) {
+            // Writing on top of a journal that can't be read would lose the claims in it
+            tables.close();
+            throw new UncheckedIOException("Error reading the claim journal", e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Journal";
+    }
+
+    /**
+     * Runs the writes in a single transaction of the tables and forces the journal records to disk once the tables committed,
+     * compacting the journal when it grew too big. The journal records of a batch the tables rolled back are dropped with it.
+     * The index is dropped once the batch is done, never while holding the storage monitor, since a load holding it may be waiting for the batch
+     */
+    @Override
+    public void runBatch(Runnable writes) {
+        try {
+            journal.begin();
+            if (!tables.commitBatch(writes)) {
+                journal.rollback();
+                return;
+            }
+            journal.commit();
+            if (journal.getJournalRecords() >= compactionRecords) journal.compact();
+        } catch (IOException e) {
+            logger.at(Level.SEVERE).log("Error writing the claim journal: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            synchronized (this) {
+                index = null;
+                indexGeneration++;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void finishStartupLoads() {
+        keepIndex = false;
+        index = null;
+    }
+
+    @Override
+    public boolean isMigrationNecessary() {
+        return tables.isMigrationNecessary();
+    }
+
+    @Override
+    public Map<String, PartyInfo> loadParties() {
+        return tables.loadParties();
+    }
+
+    @Override
+    public HashMap<String, Long2ObjectMap<ChunkInfo>> loadClaims() {
+        return read(null).claims();
+    }
+
+    @Override
+    public PlayerNameTracker loadNameCache() {
+        return tables.loadNameCache();
+    }
+
+    @Override
+    public Set<UUID> loadAdminOverrides() {
+        return tables.loadAdminOverrides();
+    }
+
+    @Override
+    public HashMap<String, Long2ObjectMap<ReservedChunk>> loadReservedChunks() {
+        return read(null).reservedChunks();
+    }
+
+    @Override
+    public Long2ObjectMap<ChunkInfo> loadClaims(String dimension) {
+        var loaded = read(dimension).claims().get(dimension);
+        return loaded == null ? new Long2ObjectOpenHashMap<>() : loaded;
+    }
+
+    @Override
+    public Long2ObjectMap<ReservedChunk> loadReservedChunks(String dimension) {
+        var loaded = read(dimension).reservedChunks().get(dimension);
+        return loaded == null ? new Long2ObjectOpenHashMap<>() : loaded;
+    }
+
+    @Override
+    public Map<UUID, Integer> countClaimsByParty() {
+        Map<UUID, Integer> counts = new HashMap<>();
+        for (Long2ObjectMap<ChunkInfo> chunks : read(null).claims().values()) {
+            for (ChunkInfo chunk : chunks.values()) {
+                counts.merge(chunk.getPartyOwner(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public void saveParty(PartyInfo party) {
+        tables.saveParty(party);
+    }
+
+    @Override
+    public void deleteParty(UUID partyId) {
+        tables.deleteParty(partyId);
+    }
+
+    @Override
+    public void saveClaim(String dimension, ChunkInfo chunk) {
+        try {
+            journal.claim(dimension, chunk);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void deleteClaim(String dimension, int chunkX, int chunkZ) {
+        try {
+            journal.unclaim(dimension, chunkX, chunkZ);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void saveNameCache(UUID uuid, String name, long lastSeen, float playTime) {
+        tables.saveNameCache(uuid, name, lastSeen, playTime);
+    }
+
+    @Override
+    public void saveAdminOverride(UUID uuid) {
+        tables.saveAdminOverride(uuid);
+    }
+
+    @Override
+    public void deleteAdminOverride(UUID uuid) {
+        tables.deleteAdminOverride(uuid);
+    }
+
+    @Override
+    public void saveReservedChunk(String dimension, ReservedChunk reservedChunk) {
+        try {
+            journal.reserve(dimension, reservedChunk);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void deleteReservedChunk(String dimension, int chunkX, int chunkZ) {
+        try {
+            journal.unreserve(dimension, chunkX, chunkZ);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void deleteReservedChunksByParty(String dimension, UUID partyId) {
+        try {
+            journal.unreserveParty(dimension, partyId);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void deletePartyChunks(UUID partyId) {
+        try {
+            journal.deletePartyChunks(partyId);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Copies the journal first and the tables right after, so every party of a claim in the backup is in the backup too
+     */
+    @Override
+    public boolean backup(Path directory) throws IOException {
+        journal.backupTo(directory);
+        return tables.backup(directory);
+    }
+
+    @Override
+    public void close() {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        tables.close();
+    }
+
+    /**
+     * Replays the snapshot and journal for a load, only keeping the given dimension unless it is null. Until the loads at startup are done
+     * every dimension is read once and shared by the loads until the next batch, the loads only read the maps. The journal is read without
+     * holding the storage monitor, a read waits for a running batch to finish. A read that fails isn't kept, the next load tries again
+     */
+    private ClaimJournal.Contents read(@Nullable String dimension) {
+        long generation;
+        boolean keep;
+        synchronized (this) {
+            if (index != null) return index;
+            generation = indexGeneration;
+            keep = keepIndex;
+        }
+        try {
+            var contents = journal.read(keep || dimension == null ? loaded -> true : dimension::equals);
+            synchronized (this) {
+                if (keep && keepIndex && generation == indexGeneration) index = contents;
+            }
+            return contents;
+        } catch (IOException e) {
+            logger.at(Level.SEVERE).log("Error reading the claim journal: " + e.getMessage());
+            e.printStackTrace();
+            return new ClaimJournal.Contents(new HashMap<>(), new HashMap<>());
+        }
+    }
+}
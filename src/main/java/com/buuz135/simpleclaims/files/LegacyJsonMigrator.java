@@ -0,0 +1,254 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.claim.chunk.ChunkInfo;
+import com.buuz135.simpleclaims.claim.party.PartyInfo;
+import com.buuz135.simpleclaims.util.FileUtils;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Moves the JSON files of older versions into the storage. The files are read with a streaming reader one element at a time
+ * and written in batches, so their size doesn't matter. The whole folder is backed up first and the migration is only marked as done
+ * once every file made it, a failed migration runs again on the next startup and overwrites the rows it already wrote.
+ */
+public class LegacyJsonMigrator {
+
+    private static final int BATCH_SIZE = 5000;
+
+    private final HytaleLogger logger;
+    private final ClaimStorage storage;
+
+    private interface ElementReader {
+        void read(JsonReader reader, Progress progress) throws IOException;
+    }
+
+    public LegacyJsonMigrator(HytaleLogger logger, ClaimStorage storage) {
+        this.logger = logger;
+        this.storage = storage;
+    }
+
+    public boolean migrate() {
+        logger.at(Level.INFO).log("Starting migration to " + storage.getName() + "...");
+        long start = System.currentTimeMillis();
+
+        // Backup the entire folder
+        try {
+            Path source = Paths.get(FileUtils.MAIN_PATH);
+            Path backup = Paths.get(FileUtils.MAIN_PATH + "_backup_" + System.currentTimeMillis());
+            copyFolder(source, backup);
+            logger.at(Level.INFO).log("Backup created at: " + backup.toAbsolutePath());
+        } catch (IOException | UncheckedIOException e) {
+            logger.at(Level.SEVERE).log("Failed to create backup before migration: " + e.getMessage());
+            return false;
+        }
+
+        boolean migrated = migrateFile(FileUtils.PARTY_PATH, "parties", "Parties", this::readParty)
+                && migrateFile(FileUtils.CLAIM_PATH, "claims", "Dimensions", this::readDimension)
+                && migrateFile(FileUtils.NAMES_CACHE_PATH, "names", "Values", this::readName)
+                && migrateFile(FileUtils.ADMIN_OVERRIDES_PATH, "admin overrides", "AdminOverrides", this::readAdminOverride);
+        if (!migrated) return false;
+
+        try {
+            new File(FileUtils.MIGRATED_MARKER_PATH).createNewFile();
+        } catch (IOException e) {
+            logger.at(Level.SEVERE).log("Failed to create the migration marker: " + e.getMessage());
+        }
+        logger.at(Level.INFO).log("Migration to " + storage.getName() + " completed successfully in " + (System.currentTimeMillis() - start) + "ms");
+        return true;
+    }
+
+    /**
+     * Streams the elements of the array under the given key of the file, retrying once from the .bak file when it can't be read
+     */
+    private boolean migrateFile(String path, String what, String arrayName, ElementReader elementReader) {
+        if (!new File(path).exists()) return true;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            var progress = new Progress(what, new File(path).length());
+            try (var input = progress.wrap(Files.newInputStream(Path.of(path)));
+                 var reader = new JsonReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)))) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals(arrayName) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            elementReader.read(reader, progress);
+                        }
+                        reader.endArray();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                progress.flush();
+                logger.at(Level.INFO).log("Migrated " + progress.total + " " + what + " in " + (System.currentTimeMillis() - progress.start) + "ms");
+                return true;
+            } catch (Exception e) {
+                logger.at(Level.SEVERE).log("Migration of " + path + " failed after " + progress.total + " " + what + ": " + e.getMessage());
+                e.printStackTrace();
+                if (attempt > 0 || !FileUtils.restoreFromBackup(path)) return false;
+                logger.at(Level.INFO).log("Retrying the migration of " + path + " from its backup...");
+            }
+        }
+        return false;
+    }
+
+    private void readParty(JsonReader reader, Progress progress) throws IOException {
+        PartyInfo party = PartyBlockingFile.readParty(JsonParser.parseReader(reader).getAsJsonObject());
+        progress.add(() -> storage.saveParty(party));
+    }
+
+    /**
+     * Reads a dimension object, its claims are streamed one by one. A ChunkInfo array written before the dimension name is kept until the name is read
+     */
+    private void readDimension(JsonReader reader, Progress progress) throws IOException {
+        String dimension = null;
+        List<ChunkInfo> early = new ArrayList<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("Dimension")) {
+                dimension = reader.nextString();
+                if (!early.isEmpty()) {
+                    for (ChunkInfo chunk : early) progress.addClaim(dimension, chunk);
+                    early.clear();
+                }
+            } else if (name.equals("ChunkInfo") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    ChunkInfo chunk = ClaimedChunkBlockingFile.readChunk(JsonParser.parseReader(reader).getAsJsonObject());
+                    if (dimension == null) {
+                        early.add(chunk);
+                    } else {
+                        progress.addClaim(dimension, chunk);
+                    }
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readName(JsonReader reader, Progress progress) throws IOException {
+        var name = JsonParser.parseReader(reader).getAsJsonObject();
+        UUID uuid = UUID.fromString(name.get("UUID").getAsString());
+        String playerName = name.get("Name").getAsString();
+        progress.add(() -> storage.saveNameCache(uuid, playerName, -1, 0));
+    }
+
+    private void readAdminOverride(JsonReader reader, Progress progress) throws IOException {
+        UUID uuid = UUID.fromString(reader.nextString());
+        progress.add(() -> storage.saveAdminOverride(uuid));
+    }
+
+    private void copyFolder(Path source, Path target) throws IOException {
+        try (var paths = Files.walk(source)) {
+            paths.forEach(path -> {
+                try {
+                    Path dest = target.resolve(source.relativize(path));
+                    if (Files.isDirectory(path)) {
+                        if (!Files.exists(dest)) Files.createDirectories(dest);
+                    } else {
+                        Files.copy(path, dest);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Collects the writes of a file and hands them to the storage in a single batch once it is full, logging how far into the file it is
+     */
+    private class Progress {
+
+        private final String what;
+        private final long size;
+        private final long start;
+        private final List<Runnable> writes;
+        // Claims of the current dimension, saved together so the storage can send them as one statement batch
+        private final List<ChunkInfo> claims;
+        private String claimDimension;
+        private int pending;
+        private long bytesRead;
+        private long total;
+
+        private Progress(String what, long size) {
+            this.what = what;
+            this.size = Math.max(1, size);
+            this.start = System.currentTimeMillis();
+            this.writes = new ArrayList<>();
+            this.claims = new ArrayList<>();
+        }
+
+        private InputStream wrap(InputStream input) {
+            return new FilterInputStream(input) {
+                @Override
+                public int read() throws IOException {
+                    int read = super.read();
+                    if (read >= 0) bytesRead++;
+                    return read;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, length);
+                    if (read > 0) bytesRead += read;
+                    return read;
+                }
+            };
+        }
+
+        private void add(Runnable write) {
+            writes.add(write);
+            if (++pending >= BATCH_SIZE) flush();
+        }
+
+        private void addClaim(String dimension, ChunkInfo chunk) {
+            if (!dimension.equals(claimDimension)) {
+                queueClaims();
+                claimDimension = dimension;
+            }
+            claims.add(chunk);
+            if (++pending >= BATCH_SIZE) flush();
+        }
+
+        private void queueClaims() {
+            if (claims.isEmpty()) return;
+            String dimension = claimDimension;
+            List<ChunkInfo> chunks = new ArrayList<>(claims);
+            claims.clear();
+            writes.add(() -> storage.saveClaims(dimension, chunks));
+        }
+
+        private void flush() {
+            queueClaims();
+            if (writes.isEmpty()) return;
+            List<Runnable> batch = new ArrayList<>(writes);
+            writes.clear();
+            storage.runBatch(() -> batch.forEach(Runnable::run));
+            total += pending;
+            pending = 0;
+            logger.at(Level.INFO).log("Migrated " + total + " " + what + " (" + Math.min(100, bytesRead * 100 / size) + "% of the file)...");
+        }
+    }
+}
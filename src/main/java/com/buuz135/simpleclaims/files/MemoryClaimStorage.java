@@ -0,0 +1,174 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.claim.chunk.ChunkInfo;
+import com.buuz135.simpleclaims.claim.chunk.ReservedChunk;
+import com.buuz135.simpleclaims.claim.party.PartyInfo;
+import com.buuz135.simpleclaims.claim.player_name.PlayerNameTracker;
+import com.hypixel.hytale.math.util.ChunkUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Storage that only keeps the data in memory, nothing survives a restart. Meant for tests and benchmarks,
+ * writes run right away on the calling thread and keep a reference to the saved objects instead of copying them.
+ */
+public class MemoryClaimStorage implements ClaimStorage {
+
+    private final Map<UUID, PartyInfo> parties = new HashMap<>();
+    private final Map<String, Long2ObjectMap<ChunkInfo>> claims = new HashMap<>();
+    private final PlayerNameTracker names = new PlayerNameTracker();
+    private final Set<UUID> adminOverrides = new HashSet<>();
+    private final Map<String, Long2ObjectMap<ReservedChunk>> reservedChunks = new HashMap<>();
+
+    @Override
+    public String getName() {
+        return "Memory";
+    }
+
+    @Override
+    public boolean isWriteBehind() {
+        return false;
+    }
+
+    @Override
+    public void runBatch(Runnable writes) {
+        writes.run();
+    }
+
+    @Override
+    public boolean isMigrationNecessary() {
+        return false;
+    }
+
+    @Override
+    public synchronized Map<String, PartyInfo> loadParties() {
+        Map<String, PartyInfo> loaded = new HashMap<>();
+        for (PartyInfo party : parties.values()) {
+            loaded.put(party.getId().toString(), party);
+        }
+        return loaded;
+    }
+
+    @Override
+    public synchronized HashMap<String, Long2ObjectMap<ChunkInfo>> loadClaims() {
+        HashMap<String, Long2ObjectMap<ChunkInfo>> loaded = new HashMap<>();
+        claims.forEach((dimension, chunks) -> loaded.put(dimension, new Long2ObjectOpenHashMap<>(chunks)));
+        return loaded;
+    }
+
+    @Override
+    public synchronized PlayerNameTracker loadNameCache() {
+        PlayerNameTracker tracker = new PlayerNameTracker();
+        tracker.setNames(names.getNames());
+        return tracker;
+    }
+
+    @Override
+    public synchronized Set<UUID> loadAdminOverrides() {
+        return new HashSet<>(adminOverrides);
+    }
+
+    @Override
+    public synchronized HashMap<String, Long2ObjectMap<ReservedChunk>> loadReservedChunks() {
+        HashMap<String, Long2ObjectMap<ReservedChunk>> loaded = new HashMap<>();
+        reservedChunks.forEach((dimension, chunks) -> loaded.put(dimension, new Long2ObjectOpenHashMap<>(chunks)));
+        return loaded;
+    }
+
+    @Override
+    public synchronized Long2ObjectMap<ChunkInfo> loadClaims(String dimension) {
+        var dimensionClaims = claims.get(dimension);
+        return dimensionClaims == null ? new Long2ObjectOpenHashMap<>() : new Long2ObjectOpenHashMap<>(dimensionClaims);
+    }
+
+    @Override
+    public synchronized Long2ObjectMap<ReservedChunk> loadReservedChunks(String dimension) {
+        var dimensionReserved = reservedChunks.get(dimension);
+        return dimensionReserved == null ? new Long2ObjectOpenHashMap<>() : new Long2ObjectOpenHashMap<>(dimensionReserved);
+    }
+
+    @Override
+    public synchronized Map<UUID, Integer> countClaimsByParty() {
+        Map<UUID, Integer> counts = new HashMap<>();
+        for (Long2ObjectMap<ChunkInfo> dimensionClaims : claims.values()) {
+            for (ChunkInfo chunk : dimensionClaims.values()) {
+                counts.merge(chunk.getPartyOwner(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public synchronized void saveParty(PartyInfo party) {
+        party.clearDirty();
+        parties.put(party.getId(), party);
+    }
+
+    @Override
+    public synchronized void deleteParty(UUID partyId) {
+        parties.remove(partyId);
+    }
+
+    @Override
+    public synchronized void saveClaim(String dimension, ChunkInfo chunk) {
+        claims.computeIfAbsent(dimension, k -> new Long2ObjectOpenHashMap<>()).put(ChunkUtil.indexChunk(chunk.getChunkX(), chunk.getChunkZ()), chunk);
+    }
+
+    @Override
+    public synchronized void deleteClaim(String dimension, int chunkX, int chunkZ) {
+        var dimensionClaims = claims.get(dimension);
+        if (dimensionClaims != null) dimensionClaims.remove(ChunkUtil.indexChunk(chunkX, chunkZ));
+    }
+
+    @Override
+    public synchronized void saveNameCache(UUID uuid, String name, long lastSeen, float playTime) {
+        names.setPlayerName(uuid, name, lastSeen, playTime);
+    }
+
+    @Override
+    public synchronized void saveAdminOverride(UUID uuid) {
+        adminOverrides.add(uuid);
+    }
+
+    @Override
+    public synchronized void deleteAdminOverride(UUID uuid) {
+        adminOverrides.remove(uuid);
+    }
+
+    @Override
+    public synchronized void saveReservedChunk(String dimension, ReservedChunk reservedChunk) {
+        reservedChunks.computeIfAbsent(dimension, k -> new Long2ObjectOpenHashMap<>()).put(ChunkUtil.indexChunk(reservedChunk.getChunkX(), reservedChunk.getChunkZ()), reservedChunk);
+    }
+
+    @Override
+    public synchronized void deleteReservedChunk(String dimension, int chunkX, int chunkZ) {
+        var dimensionReserved = reservedChunks.get(dimension);
+        if (dimensionReserved != null) dimensionReserved.remove(ChunkUtil.indexChunk(chunkX, chunkZ));
+    }
+
+    @Override
+    public synchronized void deleteReservedChunksByParty(String dimension, UUID partyId) {
+        var dimensionReserved = reservedChunks.get(dimension);
+        if (dimensionReserved != null) dimensionReserved.values().removeIf(reserved -> reserved.getReservedBy().equals(partyId));
+    }
+
+    @Override
+    public synchronized void deletePartyChunks(UUID partyId) {
+        for (Long2ObjectMap<ChunkInfo> dimensionClaims : claims.values()) {
+            dimensionClaims.values().removeIf(chunk -> chunk.getPartyOwner().equals(partyId));
+        }
+        for (Long2ObjectMap<ReservedChunk> dimensionReserved : reservedChunks.values()) {
+            dimensionReserved.values().removeIf(reserved -> reserved.getReservedBy().equals(partyId));
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
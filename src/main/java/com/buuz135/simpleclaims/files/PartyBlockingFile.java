@@ -35,43 +35,50 @@ public class PartyBlockingFile extends BlockingDiskFile {
         if (partiesArray == null) return;
         parties = new HashMap<>();
         partiesArray.forEach(jsonElement -> {
-            JsonObject party = jsonElement.getAsJsonObject();
-            var partyInfo = new PartyInfo(
-                    UUID.fromString(party.get("Id").getAsString()),
-                    UUID.fromString(party.get("Owner").getAsString()),
-                    party.get("Name").getAsString(),
-                    party.get("Description").getAsString(),
-                    party.get("Members").getAsJsonArray().asList().stream().map(member -> UUID.fromString(member.getAsString())).toArray(UUID[]::new),
-                    party.get("Color").getAsInt()
-            );
-            party.get("Overrides").getAsJsonArray().forEach(override -> {
-                var partyOverrideValue = new PartyOverride.PartyOverrideValue(
-                        override.getAsJsonObject().get("Value").getAsJsonObject().get("Type").getAsString(),
-                        override.getAsJsonObject().get("Value").getAsJsonObject().get("Value").getAsString());
-                partyInfo.setOverride(new PartyOverride(override.getAsJsonObject().get("Type").getAsString(), partyOverrideValue));
-            });
-            var createdTracker = party.get("CreatedTracker").getAsJsonObject();
-            var modifiedTracker = party.get("ModifiedTracker").getAsJsonObject();
-            partyInfo.setCreatedTracked(new ModifiedTracking(
-                    UUID.fromString(createdTracker.get("UserUUID").getAsString()),
-                    createdTracker.get("UserName").getAsString(),
-                    createdTracker.get("Date").getAsString()
-            ));
-            partyInfo.setModifiedTracked(new ModifiedTracking(
-                    UUID.fromString(modifiedTracker.get("UserUUID").getAsString()),
-                    modifiedTracker.get("UserName").getAsString(),
-                    modifiedTracker.get("Date").getAsString()
-            ));
-            if (party.has("PartyAllies")) {
-                party.get("PartyAllies").getAsJsonArray().forEach(jsonElement1 -> partyInfo.addPartyAllies(UUID.fromString(jsonElement1.getAsString())));
-            }
-            if (party.has("PlayerAllies")) {
-                party.get("PlayerAllies").getAsJsonArray().forEach(jsonElement1 -> partyInfo.addPlayerAllies(UUID.fromString(jsonElement1.getAsString())));
-            }
+            var partyInfo = readParty(jsonElement.getAsJsonObject());
             parties.put(partyInfo.getId().toString(), partyInfo);
         });
     }
 
+    /**
+     * Reads a single element of the Parties array
+     */
+    public static PartyInfo readParty(JsonObject party) {
+        var partyInfo = new PartyInfo(
+                UUID.fromString(party.get("Id").getAsString()),
+                UUID.fromString(party.get("Owner").getAsString()),
+                party.get("Name").getAsString(),
+                party.get("Description").getAsString(),
+                party.get("Members").getAsJsonArray().asList().stream().map(member -> UUID.fromString(member.getAsString())).toArray(UUID[]::new),
+                party.get("Color").getAsInt()
+        );
+        party.get("Overrides").getAsJsonArray().forEach(override -> {
+            var partyOverrideValue = new PartyOverride.PartyOverrideValue(
+                    override.getAsJsonObject().get("Value").getAsJsonObject().get("Type").getAsString(),
+                    override.getAsJsonObject().get("Value").getAsJsonObject().get("Value").getAsString());
+            partyInfo.setOverride(new PartyOverride(override.getAsJsonObject().get("Type").getAsString(), partyOverrideValue));
+        });
+        var createdTracker = party.get("CreatedTracker").getAsJsonObject();
+        var modifiedTracker = party.get("ModifiedTracker").getAsJsonObject();
+        partyInfo.setCreatedTracked(new ModifiedTracking(
+                UUID.fromString(createdTracker.get("UserUUID").getAsString()),
+                createdTracker.get("UserName").getAsString(),
+                createdTracker.get("Date").getAsString()
+        ));
+        partyInfo.setModifiedTracked(new ModifiedTracking(
+                UUID.fromString(modifiedTracker.get("UserUUID").getAsString()),
+                modifiedTracker.get("UserName").getAsString(),
+                modifiedTracker.get("Date").getAsString()
+        ));
+        if (party.has("PartyAllies")) {
+            party.get("PartyAllies").getAsJsonArray().forEach(jsonElement1 -> partyInfo.addPartyAllies(UUID.fromString(jsonElement1.getAsString())));
+        }
+        if (party.has("PlayerAllies")) {
+            party.get("PlayerAllies").getAsJsonArray().forEach(jsonElement1 -> partyInfo.addPlayerAllies(UUID.fromString(jsonElement1.getAsString())));
+        }
+        return partyInfo;
+    }
+
     @Override
     protected void write(BufferedWriter bufferedWriter) throws IOException {
         JsonObject root = new JsonObject();
@@ -0,0 +1,130 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.util.FileUtils;
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+
+/**
+ * Storage in a single SQLite file, the default one
+ */
+public class SQLiteClaimStorage extends JdbcClaimStorage {
+
+    public SQLiteClaimStorage(HytaleLogger logger) {
+        super(logger);
+
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (Exception e) {
+            logger.at(Level.SEVERE).log("Couldn't find relocated JDBC driver for SQLite");
+        }
+        FileUtils.ensureMainDirectory();
+        try {
+            var sqliteFile = new File(FileUtils.DATABASE_PATH);
+            var parentDir = sqliteFile.getParentFile();
+
+            // Ensure parent directory exists
+            if (parentDir != null && !parentDir.exists()) {
+                boolean dirsCreated = parentDir.mkdirs();
+                if (!dirsCreated) {
+                    logger.at(Level.SEVERE).log("Failed to create database directory: " + parentDir.getAbsolutePath());
+                    throw new IOException("Cannot create database directory: " + parentDir.getAbsolutePath());
+                }
+            }
+
+            // Check if parent directory is writable
+            if (parentDir != null && !parentDir.canWrite()) {
+                logger.at(Level.SEVERE).log("Database directory is not writable: " + parentDir.getAbsolutePath());
+                throw new IOException("Database directory is not writable: " + parentDir.getAbsolutePath());
+            }
+
+            // Create database file if it doesn't exist
+            if (!sqliteFile.exists()) {
+                boolean fileCreated = sqliteFile.createNewFile();
+                if (!fileCreated) {
+                    logger.at(Level.SEVERE).log("Failed to create database file: " + sqliteFile.getAbsolutePath());
+                    throw new IOException("Cannot create database file: " + sqliteFile.getAbsolutePath());
+                }
+            }
+
+            // Check if file is writable
+            if (!sqliteFile.canWrite()) {
+                logger.at(Level.SEVERE).log("Database file is not writable: " + sqliteFile.getAbsolutePath());
+                throw new IOException("Database file is not writable: " + sqliteFile.getAbsolutePath());
+            }
+
+            logger.at(Level.INFO).log("Connecting to database at: " + sqliteFile.getAbsolutePath());
+        } catch (Exception e) {
+            logger.at(Level.SEVERE).log("Error initializing database: " + e.getMessage());
+            logger.at(Level.SEVERE).log("Database path: " + FileUtils.DATABASE_PATH);
+            e.printStackTrace();
+            return;
+        }
+        open();
+    }
+
+    @Override
+    public String getName() {
+        return "SQLite";
+    }
+
+    @Override
+    protected Connection openConnection() throws SQLException {
+        Connection connection = openReadConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA foreign_keys = ON;");
+            // Readers and backups see a snapshot of the database instead of blocking the writer, the mode is kept in the file
+            statement.execute("PRAGMA journal_mode = WAL;");
+        }
+        return connection;
+    }
+
+    @Override
+    protected Connection openReadConnection() throws SQLException {
+        // SQLite JDBC should handle paths with spaces, but we ensure the path is absolute
+        return DriverManager.getConnection("jdbc:sqlite:" + new File(FileUtils.DATABASE_PATH).getAbsolutePath());
+    }
+
+    /**
+     * Writes a compacted copy of the database with VACUUM INTO from its own connection. In WAL mode it reads a snapshot of the database,
+     * so the writer keeps committing while the copy is made
+     */
+    @Override
+    public boolean backup(Path directory) throws IOException {
+        try (Connection readConnection = openReadConnection();
+             PreparedStatement ps = readConnection.prepareStatement("VACUUM INTO ?")) {
+            ps.setString(1, directory.resolve(new File(FileUtils.DATABASE_PATH).getName()).toAbsolutePath().toString());
+            ps.execute();
+        } catch (SQLException e) {
+            throw new IOException("Error backing up the SQLite database", e);
+        }
+        return true;
+    }
+
+    @Override
+    protected String createUpsertSql(String table, String[] keyColumns, String[] columns) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (").append(String.join(", ", columns))
+                .append(") VALUES (").append("?, ".repeat(columns.length - 1)).append("?) ON CONFLICT(").append(String.join(", ", keyColumns)).append(") DO ");
+        if (columns.length == keyColumns.length) return sql.append("NOTHING").toString();
+        sql.append("UPDATE SET ");
+        for (int i = keyColumns.length; i < columns.length; i++) {
+            if (i > keyColumns.length) sql.append(", ");
+            sql.append(columns[i]).append(" = excluded.").append(columns[i]);
+        }
+        return sql.toString();
+    }
+
+    @Override
+    protected void upgradeTables() throws SQLException {
+        addColumnIfNotExists("name_cache", "last_seen", "INTEGER DEFAULT " + System.currentTimeMillis());
+        addColumnIfNotExists("name_cache", "play_time", "REAL DEFAULT 0");
+    }
+}
@@ -74,7 +74,8 @@ public class ChunkInfoGui extends InteractiveCustomUIPage<ChunkInfoGui.ChunkInfo
 
                     if ((chunk == null || ClaimManager.getInstance().getPartyById(chunk.getPartyOwner()) == null) && selectedParty != null && ClaimManager.getInstance().hasEnoughClaimsLeft(selectedParty)) {
                         var chunkInfo = ClaimManager.getInstance().claimChunkBy(dimension, x, z, selectedParty, playerInstance, playerRef);
-                        ClaimManager.getInstance().queueMapUpdate(playerInstance.getWorld(), x, z);
+                        if (chunkInfo == null) playerInstance.sendMessage(CommandMessages.CLAIMS_LOADING);
+                        else ClaimManager.getInstance().queueMapUpdate(playerInstance.getWorld(), x, z);
                     }
                 } else {
                     var chunk = ClaimManager.getInstance().getChunk(dimension, x, z);
@@ -110,7 +111,8 @@ public class ChunkInfoGui extends InteractiveCustomUIPage<ChunkInfoGui.ChunkInfo
                         
                         if (ClaimManager.getInstance().hasEnoughClaimsLeft(playerParty)) {
                             var chunkInfo = ClaimManager.getInstance().claimChunkBy(dimension, x, z, playerParty, playerInstance, playerRef);
-                            ClaimManager.getInstance().queueMapUpdate(playerInstance.getWorld(), x, z);
+                            if (chunkInfo == null) playerInstance.sendMessage(CommandMessages.CLAIMS_LOADING);
+                            else ClaimManager.getInstance().queueMapUpdate(playerInstance.getWorld(), x, z);
                         }
                     }
                 }
@@ -1,7 +1,6 @@
 package com.buuz135.simpleclaims.gui;
 
 import com.hypixel.hytale.common.util.ArrayUtil;
-import com.hypixel.hytale.math.util.ChunkUtil;
 import com.hypixel.hytale.math.util.MathUtil;
 import com.hypixel.hytale.protocol.Packet;
 import com.hypixel.hytale.protocol.packets.setup.AssetFinalize;
@@ -13,13 +12,7 @@ import com.hypixel.hytale.server.core.asset.common.CommonAssetRegistry;
 import com.hypixel.hytale.server.core.io.PacketHandler;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.Universe;
-import com.hypixel.hytale.server.core.universe.world.worldmap.provider.chunk.ChunkWorldMap;
-import it.unimi.dsi.fastutil.longs.LongArraySet;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
 
 /*
@@ -58,61 +51,7 @@ public class ChunkInfoMapAsset extends CommonAsset {
         if (world == null) return null;
         var manager = world.getWorldMapManager();
         var partSize = MathUtil.fastFloor(32.0F * manager.getWorldMapSettings().getImageScale());
-        var chunks = new LongArraySet();
-        for (int x = minChunkX; x <= maxChunkX; x++) {
-            for (int z = minChunkZ; z <= maxChunkZ; z++) {
-                chunks.add(ChunkUtil.indexChunk(x, z));
-            }
-        }
-
-        return ChunkWorldMap.INSTANCE.generate(world, partSize, partSize, chunks).thenApply(map -> {
-            var image = new BufferedImage(
-                    partSize * (maxChunkX - minChunkX + 1),
-                    partSize * (maxChunkZ - minChunkZ + 1),
-                    BufferedImage.TYPE_INT_ARGB
-            );
-
-            for (int x = minChunkX; x <= maxChunkX; x++) {
-                for (int z = minChunkZ; z <= maxChunkZ; z++) {
-                    var index = ChunkUtil.indexChunk(x, z);
-                    var chunkImage = map.getChunks().get(index);
-                    if (chunkImage != null) {
-                        var pixels = chunkImage.data;
-                        var width = chunkImage.width;
-                        var height = chunkImage.height;
-
-                        if (pixels == null) {
-                            System.out.println("Chunk image data is null for chunk: " + x + ", " + z);
-                            continue;
-                        }
-                        if (width != partSize || height != partSize) {
-                            System.out.println("Chunk image size mismatch: " + width + "x" + height);
-                            continue;
-                        }
-
-                        int imageX = (x - minChunkX) * partSize;
-                        int imageZ = (z - minChunkZ) * partSize;
-
-                        for (var i = 0; i < pixels.length; i++) {
-                            var pixel = pixels[i];
-                            var abgrToArgb = pixel << 24 | (pixel >> 8 & 0x00FFFFFF);
-
-                            var pixelX = i % width;
-                            var pixelY = i / width;
-                            image.setRGB(imageX + pixelX, imageZ + pixelY, abgrToArgb);
-                        }
-                    }
-                }
-            }
-
-            try {
-                var baos = new ByteArrayOutputStream();
-                ImageIO.write(image, "PNG", baos);
-                return new ChunkInfoMapAsset(baos.toByteArray());
-            } catch (IOException e) {
-                return null;
-            }
-        });
+        return ChunkInfoMapCache.render(world, partSize, minChunkX, minChunkZ, maxChunkX, maxChunkZ).thenApply(png -> png != null ? new ChunkInfoMapAsset(png) : null);
     }
 
     // Copy of CommonAssetModule#sendAssets but adapted to only send 1 asset to a single player
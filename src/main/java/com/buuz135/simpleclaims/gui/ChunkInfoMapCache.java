@@ -0,0 +1,316 @@
+package com.buuz135.simpleclaims.gui;
+
+import com.buuz135.simpleclaims.Main;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.math.util.ChunkUtil;
+import com.hypixel.hytale.protocol.packets.worldmap.MapImage;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.map.WorldMap;
+import com.hypixel.hytale.server.core.universe.world.worldmap.provider.chunk.ChunkWorldMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Map images of the Chunk Info GUI. Every chunk is kept as ready ARGB pixels shared by all the windows it is part of, and every window
+ * keeps its composed image and PNG, so the next player opening the GUI in the same area gets the same bytes and a block change only
+ * redraws the cells of the chunks around it. Cells and windows older than the configured time are generated again, so changes that aren't
+ * player block events show up too. The PNG is encoded on a small pool of its own instead of the common pool.
+ */
+public final class ChunkInfoMapCache {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final int MAX_WINDOWS = 16;
+    // Cells generated before the last block change of their chunk are stale, a render that was already running can't cache them
+    private static final int MAX_INVALIDATIONS = 4096;
+
+    private record CellKey(String world, long index) {}
+
+    private record Cell(int[] pixels, long generatedAt) {}
+
+    private record Encoded(byte[] png, long sequence) {}
+
+    private record WindowKey(String world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ, int partSize) {
+
+        private boolean contains(String world, int chunkX, int chunkZ) {
+            return this.world.equals(world) && chunkX >= minChunkX && chunkX <= maxChunkX && chunkZ >= minChunkZ && chunkZ <= maxChunkZ;
+        }
+    }
+
+    private static final class Window {
+        private final BufferedImage image;
+        private final int[] raster;
+        // Cells changed since the image was composed, only touched while holding the cache lock
+        private final LongSet dirty = new LongOpenHashSet();
+        private byte[] png;
+        private CompletableFuture<byte[]> pending;
+        // When the image was first composed, every cell is generated again once it is older than the configured time
+        private final long createdAt = System.nanoTime();
+        // Renders are numbered when they start, a cell is only drawn by a render at least as new as the one that drew it last.
+        // Only touched while holding the cache lock
+        private long generation;
+        // Render that drew each cell, only touched while holding the window lock
+        private final long[] cellGenerations;
+        // Every encoded image has all the cells drawn before it, so the last one encoded is published. Encoding happens while holding the
+        // window lock and publishing while holding the cache lock
+        private long encoded;
+        private long published;
+
+        private Window(int width, int height, int cells) {
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            this.raster = ((DataBufferInt) this.image.getRaster().getDataBuffer()).getData();
+            this.cellGenerations = new long[cells];
+        }
+    }
+
+    private static final Map<CellKey, Cell> CELLS = new LinkedHashMap<>(512, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CellKey, Cell> eldest) {
+            return size() > Main.CONFIG.get().getClaimUIMapCacheSize();
+        }
+    };
+
+    private static final Map<WindowKey, Window> WINDOWS = new LinkedHashMap<>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<WindowKey, Window> eldest) {
+            return size() > MAX_WINDOWS;
+        }
+    };
+
+    private static final Map<CellKey, Long> INVALIDATIONS = new LinkedHashMap<>(256) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CellKey, Long> eldest) {
+            return size() > MAX_INVALIDATIONS;
+        }
+    };
+
+    private static final ExecutorService ENCODER = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(32), runnable -> {
+        var thread = new Thread(runnable, "SimpleClaims-MapEncoder");
+        thread.setDaemon(true);
+        return thread;
+    }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+    // Renders that started before the last clear can't cache their cells either, only touched while holding the cache lock
+    private static long cleared = System.nanoTime();
+
+    private ChunkInfoMapCache() {}
+
+    /**
+     * PNG of the chunks in the window, or null when it couldn't be encoded. Only the chunks that aren't cached are generated
+     */
+    public static CompletableFuture<byte[]> render(World world, int partSize, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        String worldName = world.getName();
+        boolean enabled = Main.CONFIG.get().getClaimUIMapCacheSize() > 0;
+        var key = new WindowKey(worldName, minChunkX, minChunkZ, maxChunkX, maxChunkZ, partSize);
+        Window window;
+        LongSet toDraw = new LongOpenHashSet();
+        Long2ObjectMap<int[]> cells = new Long2ObjectOpenHashMap<>();
+        LongSet missing = new LongOpenHashSet();
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        long generatedAt = System.nanoTime();
+        long generation;
+        synchronized (CELLS) {
+            window = enabled ? WINDOWS.get(key) : null;
+            if (window != null && isExpired(window.createdAt)) {
+                WINDOWS.remove(key);
+                window = null;
+            }
+            if (window != null && window.dirty.isEmpty()) {
+                if (window.png != null) return CompletableFuture.completedFuture(window.png);
+                if (window.pending != null) return window.pending;
+            }
+            if (window == null) {
+                int columns = maxChunkX - minChunkX + 1;
+                int rows = maxChunkZ - minChunkZ + 1;
+                window = new Window(partSize * columns, partSize * rows, columns * rows);
+                for (int x = minChunkX; x <= maxChunkX; x++) {
+                    for (int z = minChunkZ; z <= maxChunkZ; z++) {
+                        toDraw.add(ChunkUtil.indexChunk(x, z));
+                    }
+                }
+                if (enabled) WINDOWS.put(key, window);
+            } else {
+                toDraw.addAll(window.dirty);
+                window.dirty.clear();
+            }
+            window.pending = result;
+            generation = ++window.generation;
+            for (LongIterator iterator = toDraw.iterator(); iterator.hasNext(); ) {
+                long index = iterator.nextLong();
+                Cell cell = enabled ? CELLS.get(new CellKey(worldName, index)) : null;
+                if (cell != null && !isExpired(cell.generatedAt)) {
+                    cells.put(index, cell.pixels);
+                } else {
+                    missing.add(index);
+                }
+            }
+        }
+
+        Window target = window;
+        CompletableFuture<WorldMap> generated = missing.isEmpty() ? CompletableFuture.completedFuture(null) : ChunkWorldMap.INSTANCE.generate(world, partSize, partSize, missing);
+        generated.thenApplyAsync(map -> {
+            for (LongIterator iterator = missing.iterator(); iterator.hasNext(); ) {
+                long index = iterator.nextLong();
+                int[] cell = toArgb(map.getChunks().get(index), partSize, index);
+                if (cell != null) cells.put(index, cell);
+                if (!enabled) continue;
+                synchronized (CELLS) {
+                    if (cell != null) {
+                        var cellKey = new CellKey(worldName, index);
+                        Long invalidated = INVALIDATIONS.get(cellKey);
+                        if (generatedAt - cleared >= 0 && (invalidated == null || invalidated - generatedAt < 0)) {
+                            CELLS.put(cellKey, new Cell(cell, generatedAt));
+                        }
+                    } else {
+                        // Drawn transparent for now, generated again the next time the window is opened
+                        target.dirty.add(index);
+                    }
+                }
+            }
+            return compose(target, key, toDraw, cells, generation);
+        }, ENCODER).whenComplete((encoded, throwable) -> {
+            byte[] png = encoded == null ? null : encoded.png;
+            synchronized (CELLS) {
+                if (target.pending == result) target.pending = null;
+                if (png == null) {
+                    WINDOWS.remove(key, target);
+                } else if (encoded.sequence > target.published) {
+                    target.png = png;
+                    target.published = encoded.sequence;
+                }
+            }
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+            } else {
+                result.complete(png);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Drops the chunk of the block and the chunks around it, the shading of their map images depends on the heights of this chunk
+     */
+    public static void invalidateBlock(String world, int blockX, int blockZ) {
+        int chunkX = ChunkUtil.chunkCoordinate(blockX);
+        int chunkZ = ChunkUtil.chunkCoordinate(blockZ);
+        if (Main.CONFIG.get().getClaimUIMapCacheSize() <= 0) return;
+        long now = System.nanoTime();
+        synchronized (CELLS) {
+            for (int x = chunkX - 1; x <= chunkX + 1; x++) {
+                for (int z = chunkZ - 1; z <= chunkZ + 1; z++) {
+                    long index = ChunkUtil.indexChunk(x, z);
+                    var cellKey = new CellKey(world, index);
+                    CELLS.remove(cellKey);
+                    // Moved to the end so the oldest invalidations are the ones dropped
+                    INVALIDATIONS.remove(cellKey);
+                    INVALIDATIONS.put(cellKey, now);
+                    for (Map.Entry<WindowKey, Window> entry : WINDOWS.entrySet()) {
+                        if (entry.getKey().contains(world, x, z)) entry.getValue().dirty.add(index);
+                    }
+                }
+            }
+        }
+    }
+
+    public static void invalidateWorld(String world) {
+        synchronized (CELLS) {
+            CELLS.keySet().removeIf(key -> key.world.equals(world));
+            WINDOWS.keySet().removeIf(key -> key.world.equals(world));
+            INVALIDATIONS.keySet().removeIf(key -> key.world.equals(world));
+        }
+    }
+
+    /**
+     * Drops everything, the block colours changed
+     */
+    public static void clear() {
+        long now = System.nanoTime();
+        synchronized (CELLS) {
+            cleared = now;
+            CELLS.clear();
+            WINDOWS.clear();
+        }
+    }
+
+    private static boolean isExpired(long time) {
+        int seconds = Main.CONFIG.get().getMapCacheSeconds();
+        return seconds > 0 && System.nanoTime() - time > seconds * 1_000_000_000L;
+    }
+
+    /**
+     * Copies the cells into the image of the window and encodes it, cells that couldn't be generated are left transparent.
+     * Cells a newer render already drew are kept
+     */
+    private static Encoded compose(Window window, WindowKey key, LongSet toDraw, Long2ObjectMap<int[]> cells, long generation) {
+        int partSize = key.partSize;
+        int width = window.image.getWidth();
+        int columns = key.maxChunkX - key.minChunkX + 1;
+        synchronized (window) {
+            for (LongIterator iterator = toDraw.iterator(); iterator.hasNext(); ) {
+                long index = iterator.nextLong();
+                int column = ChunkUtil.xOfChunkIndex(index) - key.minChunkX;
+                int row = ChunkUtil.zOfChunkIndex(index) - key.minChunkZ;
+                if (window.cellGenerations[row * columns + column] > generation) continue;
+                window.cellGenerations[row * columns + column] = generation;
+                int[] cell = cells.get(index);
+                int start = row * partSize * width + column * partSize;
+                for (int line = 0; line < partSize; line++) {
+                    int offset = start + line * width;
+                    if (cell != null) {
+                        System.arraycopy(cell, line * partSize, window.raster, offset, partSize);
+                    } else {
+                        Arrays.fill(window.raster, offset, offset + partSize, 0);
+                    }
+                }
+            }
+            try {
+                var baos = new ByteArrayOutputStream();
+                ImageIO.write(window.image, "PNG", baos);
+                return new Encoded(baos.toByteArray(), ++window.encoded);
+            } catch (IOException e) {
+                LOGGER.at(Level.WARNING).log("Error encoding the claim UI map: " + e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Pixels of the map image turned from RGBA into the ARGB of the image
+     */
+    private static int[] toArgb(MapImage chunkImage, int partSize, long index) {
+        if (chunkImage == null) return null;
+        if (chunkImage.data == null) {
+            LOGGER.at(Level.WARNING).log("Chunk image data is null for chunk: " + ChunkUtil.xOfChunkIndex(index) + ", " + ChunkUtil.zOfChunkIndex(index));
+            return null;
+        }
+        if (chunkImage.width != partSize || chunkImage.height != partSize) {
+            LOGGER.at(Level.WARNING).log("Chunk image size mismatch: " + chunkImage.width + "x" + chunkImage.height);
+            return null;
+        }
+        int[] pixels = chunkImage.data;
+        int[] argb = new int[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            int pixel = pixels[i];
+            argb[i] = pixel << 24 | pixel >>> 8;
+        }
+        return argb;
+    }
+}
@@ -92,7 +92,7 @@ public class PartyInfoEditGui extends InteractiveCustomUIPage<PartyInfoEditGui.P
                 return;
             }
             if (action.equals("DeleteAllyPlayer")) {
-                this.info.getPlayerAllies().remove(UUID.fromString(split[1]));
+                this.info.removePlayerAllies(UUID.fromString(split[1]));
                 ClaimManager.getInstance().saveParty(this.info);
                 UICommandBuilder commandBuilder = new UICommandBuilder();
                 UIEventBuilder eventBuilder = new UIEventBuilder();
@@ -101,7 +101,7 @@ public class PartyInfoEditGui extends InteractiveCustomUIPage<PartyInfoEditGui.P
                 return;
             }
             if (action.equals("DeleteAllyParty")) {
-                this.info.getPartyAllies().remove(UUID.fromString(split[1]));
+                this.info.removePartyAllies(UUID.fromString(split[1]));
                 ClaimManager.getInstance().saveParty(this.info);
                 UICommandBuilder commandBuilder = new UICommandBuilder();
                 UIEventBuilder eventBuilder = new UIEventBuilder();
@@ -190,7 +190,7 @@ public class PartyInfoEditGui extends InteractiveCustomUIPage<PartyInfoEditGui.P
                 }
                 var invited = Universe.get().getPlayer(UUID.fromString(this.alliesDropdown));
                 if (invited != null) { //IS Player
-                    this.info.getPlayerAllies().add(invited.getUuid());
+                    this.info.addPlayerAllies(invited.getUuid());
                     ClaimManager.getInstance().saveParty(this.info);
                     UICommandBuilder commandBuilder = new UICommandBuilder();
                     UIEventBuilder eventBuilder = new UIEventBuilder();
@@ -200,7 +200,7 @@ public class PartyInfoEditGui extends InteractiveCustomUIPage<PartyInfoEditGui.P
                 } else {
                     var party = ClaimManager.getInstance().getPartyById(UUID.fromString(this.alliesDropdown));
                     if (party != null) {
-                        this.info.getPartyAllies().add(party.getId());
+                        this.info.addPartyAllies(party.getId());
                         ClaimManager.getInstance().saveParty(this.info);
                         UICommandBuilder commandBuilder = new UICommandBuilder();
                         UIEventBuilder eventBuilder = new UIEventBuilder();
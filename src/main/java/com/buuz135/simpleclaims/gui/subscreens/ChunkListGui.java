@@ -26,6 +26,7 @@ import com.hypixel.hytale.server.core.ui.builder.UIEventBuilder;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import it.unimi.dsi.fastutil.longs.LongIterator;
 import org.checkerframework.checker.nullness.compatqual.NonNullDecl;
 
 import javax.annotation.Nonnull;
@@ -96,9 +97,11 @@ public class ChunkListGui extends GuiWithParent<ChunkListGui.ChunkListGuiData> {
         uiCommandBuilder.clear("#ClaimsCards");
         uiCommandBuilder.appendInline("#Main #ClaimList", "Group #ClaimsCards { LayoutMode: Left; }");
         var i = 0;
-        for (String world : ClaimManager.getInstance().getChunks().keySet()) {
-            for (ChunkInfo value : ClaimManager.getInstance().getChunks().get(world).values()) {
-                if (!value.getPartyOwner().equals(this.partyInfo.getId())) continue;
+        for (String world : ClaimManager.getInstance().getClaimDimensionsOf(this.partyInfo.getId())) {
+            for (LongIterator iterator = ClaimManager.getInstance().getClaimsOf(this.partyInfo.getId(), world).iterator(); iterator.hasNext(); ) {
+                long index = iterator.nextLong();
+                ChunkInfo value = ClaimManager.getInstance().getChunk(world, ChunkUtil.xOfChunkIndex(index), ChunkUtil.zOfChunkIndex(index));
+                if (value == null || !value.getPartyOwner().equals(this.partyInfo.getId())) continue;
                 uiCommandBuilder.append("#ClaimsCards", "Pages/Buuz135_SimpleClaims_PartyChunkListEntry.ui");
                 uiCommandBuilder.set("#ClaimsCards[" + i + "] #ChunkWorldName.Text", world);
                 uiCommandBuilder.set("#ClaimsCards[" + i + "] #ChunkPosName.Text", "X: " + (ChunkUtil.minBlock(value.getChunkX()) + 15) + " Z: " + (ChunkUtil.minBlock(value.getChunkZ()) + 15) + "");
@@ -1,10 +1,9 @@
 package com.buuz135.simpleclaims.interactions;
 
 
-import com.buuz135.simpleclaims.Main;
 import com.buuz135.simpleclaims.claim.ClaimManager;
 import com.buuz135.simpleclaims.claim.party.PartyInfo;
-import com.buuz135.simpleclaims.claim.party.PartyOverrides;
+import com.buuz135.simpleclaims.util.BlockInteractionTable;
 import com.hypixel.hytale.codec.builder.BuilderCodec;
 import com.hypixel.hytale.component.CommandBuffer;
 import com.hypixel.hytale.component.Ref;
@@ -24,7 +23,6 @@ import org.checkerframework.checker.nullness.compatqual.NonNullDecl;
 import org.checkerframework.checker.nullness.compatqual.NullableDecl;
 
 import javax.annotation.Nonnull;
-import java.util.Locale;
 import java.util.function.Predicate;
 
 public class ClaimUseBlockInteraction extends UseBlockInteraction {
@@ -43,32 +41,11 @@ public class ClaimUseBlockInteraction extends UseBlockInteraction {
         Store<EntityStore> store = ref.getStore();
         Player player = store.getComponent(ref, Player.getComponentType());
         PlayerRef playerRef = store.getComponent(ref, PlayerRef.getComponentType());
-        Predicate<PartyInfo> defaultInteract = PartyInfo::isBlockInteractEnabled;
-        String permission = PartyOverrides.PARTY_PROTECTION_INTERACT;
-        var blockName = world.getBlockType(targetBlock).getId().toLowerCase(Locale.ROOT);
-        var ignored = false;
-
-        for (String blocksThatIgnoreInteractRestriction : Main.CONFIG.get().getBlocksThatIgnoreInteractRestrictions()) {
-            if (blockName.contains(blocksThatIgnoreInteractRestriction.toLowerCase(Locale.ROOT))) ignored = true;
-        }
-
-        if (blockName.contains("chest")) {
-            defaultInteract = PartyInfo::isChestInteractEnabled;
-            permission = PartyOverrides.PARTY_PROTECTION_INTERACT_CHEST;
-        } else if (blockName.contains("bench") && !blockName.contains("furniture")) {
-            defaultInteract = PartyInfo::isBenchInteractEnabled;
-            permission = PartyOverrides.PARTY_PROTECTION_INTERACT_BENCH;
-        } else if (blockName.contains("door")) {
-            defaultInteract = PartyInfo::isDoorInteractEnabled;
-            permission = PartyOverrides.PARTY_PROTECTION_INTERACT_DOOR;
-        } else if (blockName.contains("chair") || blockName.contains("stool") || (blockName.contains("bench") && blockName.contains("furniture"))) {
-            defaultInteract = PartyInfo::isChairInteractEnabled;
-            permission = PartyOverrides.PARTY_PROTECTION_INTERACT_CHAIR;
-        } else if (blockName.contains("portal") || blockName.contains("teleporter")) {
-            defaultInteract = PartyInfo::isPortalInteractEnabled;
-            permission = PartyOverrides.PARTY_PROTECTION_INTERACT_PORTAL;
-        }
-        if (ignored || (playerRef != null && ClaimManager.getInstance().isAllowedToInteract(playerRef.getUuid(), player.getWorld().getName(), targetBlock.getX(), targetBlock.getZ(), defaultInteract, permission))) {
+        int blockId = world.getBlock(targetBlock.getX(), targetBlock.getY(), targetBlock.getZ());
+        var category = BlockInteractionTable.getCategory(blockId);
+        Predicate<PartyInfo> defaultInteract = category.getDefaultInteract();
+        String permission = category.getPermission();
+        if (BlockInteractionTable.isIgnored(blockId) || (playerRef != null && ClaimManager.getInstance().isAllowedToInteract(playerRef.getUuid(), player.getWorld().getName(), targetBlock.getX(), targetBlock.getZ(), defaultInteract, permission))) {
             super.interactWithBlock(world, commandBuffer, type, context, itemInHand, targetBlock, cooldownHandler);
         }
     }
@@ -84,32 +61,11 @@ public class ClaimUseBlockInteraction extends UseBlockInteraction {
         Store<EntityStore> store = ref.getStore();
         Player player = store.getComponent(ref, Player.getComponentType());
         PlayerRef playerRef = store.getComponent(ref, PlayerRef.getComponentType());
-        Predicate<PartyInfo> defaultInteract = PartyInfo::isBlockInteractEnabled;
-        String permission = PartyOverrides.PARTY_PROTECTION_INTERACT;
-        var blockName = world.getBlockType(targetBlock).getId().toLowerCase(Locale.ROOT);
-        var ignored = false;
-
-        for (String blocksThatIgnoreInteractRestriction : Main.CONFIG.get().getBlocksThatIgnoreInteractRestrictions()) {
-            if (blockName.contains(blocksThatIgnoreInteractRestriction.toLowerCase(Locale.ROOT))) ignored = true;
-        }
-
-        if (blockName.contains("chest")) {
-            defaultInteract = PartyInfo::isChestInteractEnabled;
-            permission = PartyOverrides.PARTY_PROTECTION_INTERACT_CHEST;
-        } else if (blockName.contains("bench") && !blockName.contains("furniture")) {
-            defaultInteract = PartyInfo::isBenchInteractEnabled;
-            permission = PartyOverrides.PARTY_PROTECTION_INTERACT_BENCH;
-        } else if (blockName.contains("door")) {
-            defaultInteract = PartyInfo::isDoorInteractEnabled;
-            permission = PartyOverrides.PARTY_PROTECTION_INTERACT_DOOR;
-        } else if (blockName.contains("chair") || blockName.contains("stool") || (blockName.contains("bench") && blockName.contains("furniture"))) {
-            defaultInteract = PartyInfo::isChairInteractEnabled;
-            permission = PartyOverrides.PARTY_PROTECTION_INTERACT_CHAIR;
-        } else if (blockName.contains("portal") || blockName.contains("teleporter")) {
-            defaultInteract = PartyInfo::isPortalInteractEnabled;
-            permission = PartyOverrides.PARTY_PROTECTION_INTERACT_PORTAL;
-        }
-        if (ignored || (playerRef != null && ClaimManager.getInstance().isAllowedToInteract(playerRef.getUuid(), player.getWorld().getName(), targetBlock.getX(), targetBlock.getZ(), defaultInteract, permission))) {
+        int blockId = world.getBlock(targetBlock.getX(), targetBlock.getY(), targetBlock.getZ());
+        var category = BlockInteractionTable.getCategory(blockId);
+        Predicate<PartyInfo> defaultInteract = category.getDefaultInteract();
+        String permission = category.getPermission();
+        if (BlockInteractionTable.isIgnored(blockId) || (playerRef != null && ClaimManager.getInstance().isAllowedToInteract(playerRef.getUuid(), player.getWorld().getName(), targetBlock.getX(), targetBlock.getZ(), defaultInteract, permission))) {
             super.simulateInteractWithBlock(type, context, itemInHand, world, targetBlock);
         }
     }
@@ -0,0 +1,110 @@
+package com.buuz135.simpleclaims.map;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.math.util.ChunkUtil;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.chunk.WorldChunk;
+import com.hypixel.hytale.server.core.universe.world.storage.ChunkStore;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Builds the map images of a set of chunks together. Every chunk reference of the set and of the one chunk border around it is requested once,
+ * all of them are read in a single hop onto the world thread, and adjacent images share their sampled heights as neighbour edges
+ * instead of each image fetching its eight neighbours again.
+ */
+public final class ChunkImageBatch {
+
+    private ChunkImageBatch() {}
+
+    @SuppressWarnings("unchecked")
+    public static CompletableFuture<List<CustomImageBuilder>> build(World world, int imageWidth, int imageHeight, LongSet chunks) {
+        String worldName = world.getName();
+        List<CustomImageBuilder> cached = new ArrayList<>();
+        Long2ObjectMap<int[]> cachedTerrain = new Long2ObjectOpenHashMap<>();
+        Long2ObjectMap<CustomImageBuilder> builders = new Long2ObjectOpenHashMap<>();
+        for (LongIterator iterator = chunks.iterator(); iterator.hasNext(); ) {
+            long index = iterator.nextLong();
+            var builder = new CustomImageBuilder(index, imageWidth, imageHeight, world);
+            int[] terrain = TerrainImageCache.get(worldName, index, imageWidth, imageHeight);
+            if (terrain != null) {
+                cached.add(builder);
+                cachedTerrain.put(index, terrain);
+            } else {
+                builders.put(index, builder);
+            }
+        }
+        if (builders.isEmpty()) {
+            return CompletableFuture.supplyAsync(() -> drawCached(cached, cachedTerrain, new ArrayList<>(cached.size())));
+        }
+
+        LongSet border = new LongOpenHashSet();
+        for (long index : builders.keySet()) {
+            int chunkX = ChunkUtil.xOfChunkIndex(index);
+            int chunkZ = ChunkUtil.zOfChunkIndex(index);
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    long neighbor = ChunkUtil.indexChunk(chunkX + dx, chunkZ + dz);
+                    if (!builders.containsKey(neighbor)) border.add(neighbor);
+                }
+            }
+        }
+
+        long[] indexes = new long[builders.size() + border.size()];
+        int count = 0;
+        for (long index : builders.keySet()) indexes[count++] = index;
+        for (LongIterator iterator = border.iterator(); iterator.hasNext(); ) indexes[count++] = iterator.nextLong();
+        CompletableFuture<Ref<ChunkStore>>[] refs = new CompletableFuture[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            // A chunk that failed to load is drawn like an unloaded one instead of failing the whole batch
+            refs[i] = world.getChunkStore().getChunkReferenceAsync(indexes[i]).exceptionally(throwable -> null);
+        }
+
+        return CompletableFuture.allOf(refs).thenApplyAsync(unused -> {
+            Long2ObjectMap<WorldChunk> borderChunks = new Long2ObjectOpenHashMap<>();
+            for (int i = 0; i < indexes.length; i++) {
+                Ref<ChunkStore> ref = refs[i].getNow(null);
+                CustomImageBuilder builder = builders.get(indexes[i]);
+                if (builder != null) {
+                    if (!builder.readChunk(ref)) builders.remove(indexes[i]);
+                } else if (ref != null && ref.isValid()) {
+                    WorldChunk chunk = (WorldChunk) ref.getStore().getComponent(ref, WorldChunk.getComponentType());
+                    if (chunk != null) borderChunks.put(indexes[i], chunk);
+                }
+            }
+            return borderChunks;
+        }, world).thenApplyAsync(borderChunks -> {
+            for (CustomImageBuilder builder : builders.values()) {
+                builder.sampleChunk();
+            }
+            List<CustomImageBuilder> images = new ArrayList<>(builders.size() + cached.size());
+            for (CustomImageBuilder builder : builders.values()) {
+                int chunkX = ChunkUtil.xOfChunkIndex(builder.getIndex());
+                int chunkZ = ChunkUtil.zOfChunkIndex(builder.getIndex());
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dz = -1; dz <= 1; dz++) {
+                        if (dx == 0 && dz == 0) continue;
+                        long neighbor = ChunkUtil.indexChunk(chunkX + dx, chunkZ + dz);
+                        builder.fillNeighborEdge(dx, dz, builders.get(neighbor), borderChunks.get(neighbor));
+                    }
+                }
+                images.add(builder.renderTerrain());
+            }
+            return drawCached(cached, cachedTerrain, images);
+        });
+    }
+
+    private static List<CustomImageBuilder> drawCached(List<CustomImageBuilder> cached, Long2ObjectMap<int[]> cachedTerrain, List<CustomImageBuilder> images) {
+        for (CustomImageBuilder builder : cached) {
+            images.add(builder.drawCachedTerrain(cachedTerrain.get(builder.getIndex())));
+        }
+        return images;
+    }
+}
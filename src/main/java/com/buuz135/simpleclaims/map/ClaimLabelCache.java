@@ -0,0 +1,116 @@
+package com.buuz135.simpleclaims.map;
+
+import com.buuz135.simpleclaims.claim.party.PartyInfo;
+import com.hypixel.hytale.protocol.packets.worldmap.MapImage;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Party names drawn on the claimed chunks of the world map. Each name is rasterised once with its outline into a label,
+ * which is kept until the party is renamed, so drawing it on a chunk only copies the label pixels.
+ */
+public final class ClaimLabelCache {
+
+    private static final int GLYPH_WIDTH = 3;
+    private static final int GLYPH_HEIGHT = 5;
+    private static final int GLYPH_ADVANCE = 4;
+    // Where the white text starts, the outline is drawn one pixel around it
+    private static final int TEXT_X = 6;
+    private static final int TEXT_Y = 6;
+    private static final int OUTLINE_COLOR = pack(0, 0, 0);
+    private static final int TEXT_COLOR = pack(255, 255, 255);
+
+    // Rows of 3 bits per character, lower case letters share the upper case ones
+    private static final byte[][] GLYPHS = new byte[128][];
+
+    static {
+        String[] glyphs = {
+                "A010101111101101", "B110101110101110", "C011100100100011", "D110101101101110", "E111100110100111",
+                "F111100110100100", "G011100101101011", "H101101111101101", "I111010010010111", "J001001001101010",
+                "K101101110101101", "L100100100100111", "M101111101101101", "N101111111101101", "O010101101101010",
+                "P110101110100100", "Q010101101011001", "R110101110101101", "S011100010001110", "T111010010010010",
+                "U101101101101111", "V101101101101010", "W101101101111101", "X101101010101101", "Y101101010010010",
+                "Z111001010100111", "0111101101101111", "1010110010010111", "2111001111100111", "3111001111001111",
+                "4101101111001001", "5111100111001111", "6111100111101111", "7111001001001001", "8111101111101111",
+                "9111101111001001"
+        };
+        for (String glyph : glyphs) {
+            byte[] rows = new byte[GLYPH_HEIGHT];
+            for (int row = 0; row < GLYPH_HEIGHT; row++) {
+                rows[row] = (byte) Integer.parseInt(glyph.substring(1 + row * GLYPH_WIDTH, 1 + (row + 1) * GLYPH_WIDTH), 2);
+            }
+            GLYPHS[glyph.charAt(0)] = rows;
+            GLYPHS[Character.toLowerCase(glyph.charAt(0))] = rows;
+        }
+    }
+
+    private record Label(String name, int width, int height, int[] pixels) {}
+
+    private static final Map<UUID, Label> LABELS = new ConcurrentHashMap<>();
+
+    private ClaimLabelCache() {}
+
+    /**
+     * Draws the name of the party in the top left corner of the image, cut off at the edges of the image
+     */
+    public static void draw(MapImage image, PartyInfo party) {
+        Label label = LABELS.get(party.getId());
+        if (label == null || !label.name.equals(party.getName())) {
+            label = rasterize(party.getName());
+            LABELS.put(party.getId(), label);
+        }
+        int width = Math.min(label.width, image.width);
+        int height = Math.min(label.height, image.height);
+        for (int y = 0; y < height; y++) {
+            int row = y * label.width;
+            int imageRow = y * image.width;
+            for (int x = 0; x < width; x++) {
+                int color = label.pixels[row + x];
+                if (color != 0) image.data[imageRow + x] = color;
+            }
+        }
+    }
+
+    public static void invalidate(UUID partyId) {
+        LABELS.remove(partyId);
+    }
+
+    /**
+     * Draws the outline by stamping the text in black around its position and the text in white on top, 0 is left for transparent pixels
+     */
+    private static Label rasterize(String name) {
+        int width = TEXT_X + name.length() * GLYPH_ADVANCE;
+        int height = TEXT_Y + GLYPH_HEIGHT + 1;
+        int[] pixels = new int[width * height];
+        for (int offsetY = -1; offsetY <= 1; offsetY++) {
+            for (int offsetX = -1; offsetX <= 1; offsetX++) {
+                if (offsetX == 0 && offsetY == 0) continue;
+                stamp(pixels, width, TEXT_X + offsetX, TEXT_Y + offsetY, name, OUTLINE_COLOR);
+            }
+        }
+        stamp(pixels, width, TEXT_X, TEXT_Y, name, TEXT_COLOR);
+        return new Label(name, width, height, pixels);
+    }
+
+    private static void stamp(int[] pixels, int width, int x, int y, String name, int color) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            byte[] glyph = c < GLYPHS.length ? GLYPHS[c] : null;
+            if (glyph == null) continue;
+            int glyphX = x + i * GLYPH_ADVANCE;
+            for (int gy = 0; gy < GLYPH_HEIGHT; gy++) {
+                for (int gx = 0; gx < GLYPH_WIDTH; gx++) {
+                    if (((glyph[gy] >> (GLYPH_WIDTH - 1 - gx)) & 1) == 1) {
+                        pixels[(y + gy) * width + glyphX + gx] = color;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int pack(int r, int g, int b) {
+        return r << 24 | g << 16 | b << 8 | 255;
+    }
+}
@@ -9,9 +9,6 @@ import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.math.util.ChunkUtil;
 import com.hypixel.hytale.protocol.packets.worldmap.MapImage;
 import com.hypixel.hytale.protocol.packets.worldmap.UpdateWorldMap;
-import com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType;
-import com.hypixel.hytale.server.core.asset.type.environment.config.Environment;
-import com.hypixel.hytale.server.core.asset.type.fluid.Fluid;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.chunk.ChunkColumn;
 import com.hypixel.hytale.server.core.universe.world.chunk.WorldChunk;
@@ -21,9 +18,8 @@ import com.hypixel.hytale.server.core.universe.world.storage.ChunkStore;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.Objects;
+import java.util.Arrays;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
 public class CustomImageBuilder {
     private final long index;
@@ -37,21 +33,24 @@ public class CustomImageBuilder {
     @Nonnull
     private final short[] heightSamples;
     @Nonnull
-    private final int[] tintSamples;
-    @Nonnull
-    private final int[] blockSamples;
+    private final int[] blockColorSamples;
     @Nonnull
     private final short[] neighborHeightSamples;
     @Nonnull
     private final short[] fluidDepthSamples;
     @Nonnull
-    private final int[] environmentSamples;
-    @Nonnull
-    private final int[] fluidSamples;
+    private final int[] fluidColorSamples;
+    // Tinted block colours of this image, a chunk only has a few block and biome tint pairs
+    private final long[] colorMemoKeys = new long[64];
+    private final int[] colorMemoValues = new int[64];
     private final CustomImageBuilder.Color outColor = new CustomImageBuilder.Color();
     @Nullable
     private WorldChunk worldChunk;
+    // When the chunk was read, terrain read before a block change of the chunk isn't cached
+    private long readAt;
     private FluidSection[] fluidSections;
+    // Terrain sampled next to an unloaded chunk has flat edges, it isn't cached so it is sampled again once the neighbour is loaded
+    private boolean neighborsLoaded = true;
 
     public CustomImageBuilder(long index, int imageWidth, int imageHeight, World world) {
         this.index = index;
@@ -62,12 +61,11 @@ public class CustomImageBuilder {
         this.blockStepX = Math.max(1, 32 / this.image.width);
         this.blockStepZ = Math.max(1, 32 / this.image.height);
         this.heightSamples = new short[this.sampleWidth * this.sampleHeight];
-        this.tintSamples = new int[this.sampleWidth * this.sampleHeight];
-        this.blockSamples = new int[this.sampleWidth * this.sampleHeight];
+        this.blockColorSamples = new int[this.sampleWidth * this.sampleHeight];
         this.neighborHeightSamples = new short[(this.sampleWidth + 2) * (this.sampleHeight + 2)];
         this.fluidDepthSamples = new short[this.sampleWidth * this.sampleHeight];
-        this.environmentSamples = new int[this.sampleWidth * this.sampleHeight];
-        this.fluidSamples = new int[this.sampleWidth * this.sampleHeight];
+        this.fluidColorSamples = new int[this.sampleWidth * this.sampleHeight];
+        Arrays.fill(this.colorMemoKeys, -1L);
     }
 
     public long getIndex() {
@@ -79,113 +77,52 @@ public class CustomImageBuilder {
         return this.image;
     }
 
-    @Nonnull
-    private CompletableFuture<CustomImageBuilder> fetchChunk() {
-        return this.world.getChunkStore().getChunkReferenceAsync(this.index).thenApplyAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                this.worldChunk = (WorldChunk)ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                ChunkColumn chunkColumn = (ChunkColumn)ref.getStore().getComponent(ref, ChunkColumn.getComponentType());
-                this.fluidSections = new FluidSection[10];
-
-                for(int y = 0; y < 10; ++y) {
-                    Ref<ChunkStore> sectionRef = chunkColumn.getSection(y);
-                    this.fluidSections[y] = (FluidSection)this.world.getChunkStore().getStore().getComponent(sectionRef, FluidSection.getComponentType());
-                }
+    /**
+     * Reads the chunk and its fluid sections, must run on the world thread. Returns false when the chunk isn't loaded
+     */
+    boolean readChunk(@Nullable Ref<ChunkStore> ref) {
+        if (ref == null || !ref.isValid()) return false;
+        this.readAt = System.nanoTime();
+        this.worldChunk = (WorldChunk)ref.getStore().getComponent(ref, WorldChunk.getComponentType());
+        ChunkColumn chunkColumn = (ChunkColumn)ref.getStore().getComponent(ref, ChunkColumn.getComponentType());
+        this.fluidSections = new FluidSection[10];
+
+        for(int y = 0; y < 10; ++y) {
+            Ref<ChunkStore> sectionRef = chunkColumn.getSection(y);
+            this.fluidSections[y] = (FluidSection)this.world.getChunkStore().getStore().getComponent(sectionRef, FluidSection.getComponentType());
+        }
 
-                return this;
-            } else {
-                return null;
-            }
-        }, this.world);
+        return this.worldChunk != null;
     }
 
-    @Nonnull
-    private CompletableFuture<CustomImageBuilder> sampleNeighborsSync() {
-        CompletableFuture<Void> north = this.world.getChunkStore().getChunkReferenceAsync(ChunkUtil.indexChunk(this.worldChunk.getX(), this.worldChunk.getZ() - 1)).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk worldChunk = (WorldChunk)ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int z = (this.sampleHeight - 1) * this.blockStepZ;
-
-                for(int ix = 0; ix < this.sampleWidth; ++ix) {
-                    int x = ix * this.blockStepX;
-                    this.neighborHeightSamples[1 + ix] = worldChunk.getHeight(x, z);
-                }
-
-            }
-        }, this.world);
-        CompletableFuture<Void> south = this.world.getChunkStore().getChunkReferenceAsync(ChunkUtil.indexChunk(this.worldChunk.getX(), this.worldChunk.getZ() + 1)).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk worldChunk = (WorldChunk)ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int z = 0;
-                int neighbourStartIndex = (this.sampleHeight + 1) * (this.sampleWidth + 2) + 1;
-
-                for(int ix = 0; ix < this.sampleWidth; ++ix) {
-                    int x = ix * this.blockStepX;
-                    this.neighborHeightSamples[neighbourStartIndex + ix] = worldChunk.getHeight(x, z);
-                }
-
-            }
-        }, this.world);
-        CompletableFuture<Void> west = this.world.getChunkStore().getChunkReferenceAsync(ChunkUtil.indexChunk(this.worldChunk.getX() - 1, this.worldChunk.getZ())).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk worldChunk = (WorldChunk)ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int x = (this.sampleWidth - 1) * this.blockStepX;
-
-                for(int iz = 0; iz < this.sampleHeight; ++iz) {
-                    int z = iz * this.blockStepZ;
-                    this.neighborHeightSamples[(iz + 1) * (this.sampleWidth + 2)] = worldChunk.getHeight(x, z);
-                }
-
-            }
-        }, this.world);
-        CompletableFuture<Void> east = this.world.getChunkStore().getChunkReferenceAsync(ChunkUtil.indexChunk(this.worldChunk.getX() + 1, this.worldChunk.getZ())).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk worldChunk = (WorldChunk)ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int x = 0;
-
-                for(int iz = 0; iz < this.sampleHeight; ++iz) {
-                    int z = iz * this.blockStepZ;
-                    this.neighborHeightSamples[(iz + 1) * (this.sampleWidth + 2) + this.sampleWidth + 1] = worldChunk.getHeight(x, z);
-                }
-
-            }
-        }, this.world);
-        CompletableFuture<Void> northeast = this.world.getChunkStore().getChunkReferenceAsync(ChunkUtil.indexChunk(this.worldChunk.getX() + 1, this.worldChunk.getZ() - 1)).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk worldChunk = (WorldChunk)ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int x = 0;
-                int z = (this.sampleHeight - 1) * this.blockStepZ;
-                this.neighborHeightSamples[0] = worldChunk.getHeight(x, z);
-            }
-        }, this.world);
-        CompletableFuture<Void> northwest = this.world.getChunkStore().getChunkReferenceAsync(ChunkUtil.indexChunk(this.worldChunk.getX() - 1, this.worldChunk.getZ() - 1)).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk worldChunk = (WorldChunk)ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int x = (this.sampleWidth - 1) * this.blockStepX;
-                int z = (this.sampleHeight - 1) * this.blockStepZ;
-                this.neighborHeightSamples[this.sampleWidth + 1] = worldChunk.getHeight(x, z);
-            }
-        }, this.world);
-        CompletableFuture<Void> southeast = this.world.getChunkStore().getChunkReferenceAsync(ChunkUtil.indexChunk(this.worldChunk.getX() + 1, this.worldChunk.getZ() + 1)).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk worldChunk = (WorldChunk)ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int x = 0;
-                int z = 0;
-                this.neighborHeightSamples[(this.sampleHeight + 1) * (this.sampleWidth + 2) + this.sampleWidth + 1] = worldChunk.getHeight(x, z);
-            }
-        }, this.world);
-        CompletableFuture<Void> southwest = this.world.getChunkStore().getChunkReferenceAsync(ChunkUtil.indexChunk(this.worldChunk.getX() - 1, this.worldChunk.getZ() + 1)).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk worldChunk = (WorldChunk)ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int x = (this.sampleWidth - 1) * this.blockStepX;
-                int z = 0;
-                this.neighborHeightSamples[(this.sampleHeight + 1) * (this.sampleWidth + 2)] = worldChunk.getHeight(x, z);
+    /**
+     * Fills the heights of the neighbour at the offset around the samples of this image, its last row or column for -1 and its first for +1.
+     * They are copied from the samples of the neighbour when it was sampled in the same batch, read from its chunk otherwise
+     */
+    void fillNeighborEdge(int dx, int dz, @Nullable CustomImageBuilder sampled, @Nullable WorldChunk chunk) {
+        if (sampled == null && chunk == null) {
+            this.neighborsLoaded = false;
+            return;
+        }
+        int fromX = dx < 0 ? this.sampleWidth - 1 : 0;
+        int toX = dx == 0 ? this.sampleWidth - 1 : fromX;
+        int fromZ = dz < 0 ? this.sampleHeight - 1 : 0;
+        int toZ = dz == 0 ? this.sampleHeight - 1 : fromZ;
+
+        for(int iz = fromZ; iz <= toZ; ++iz) {
+            int targetZ = dz == 0 ? iz + 1 : (dz < 0 ? 0 : this.sampleHeight + 1);
+            for(int ix = fromX; ix <= toX; ++ix) {
+                int targetX = dx == 0 ? ix + 1 : (dx < 0 ? 0 : this.sampleWidth + 1);
+                this.neighborHeightSamples[targetZ * (this.sampleWidth + 2) + targetX] = sampled != null ?
+                        sampled.heightSamples[iz * this.sampleWidth + ix] : chunk.getHeight(ix * this.blockStepX, iz * this.blockStepZ);
             }
-        }, this.world);
-        return CompletableFuture.allOf(north, south, west, east, northeast, northwest, southeast, southwest).thenApply((v) -> this);
+        }
     }
 
-    private CustomImageBuilder generateImageAsync() {
+    /**
+     * Samples the heights, block colours and fluids of the chunk read by {@link #readChunk}
+     */
+    void sampleChunk() {
         for(int ix = 0; ix < this.sampleWidth; ++ix) {
             for(int iz = 0; iz < this.sampleHeight; ++iz) {
                 int sampleIndex = iz * this.sampleWidth + ix;
@@ -194,12 +131,11 @@ public class CustomImageBuilder {
                 short height = this.worldChunk.getHeight(x, z);
                 int tint = this.worldChunk.getTint(x, z);
                 this.heightSamples[sampleIndex] = height;
-                this.tintSamples[sampleIndex] = tint;
                 int blockId = this.worldChunk.getBlock(x, height, z);
-                this.blockSamples[sampleIndex] = blockId;
+                this.blockColorSamples[sampleIndex] = this.getBlockColor(blockId, tint);
                 int fluidId = 0;
                 int fluidTop = 320;
-                Fluid fluid = null;
+                int fluidParticleColor = MapColorTable.NO_COLOR;
                 int chunkYGround = ChunkUtil.chunkCoordinate(height);
                 int chunkY = 9;
 
@@ -213,7 +149,7 @@ public class CustomImageBuilder {
                         for(int blockY = maxBlockY; blockY >= minBlockY; --blockY) {
                             fluidId = fluidSection.getFluidId(x, blockY, z);
                             if (fluidId != 0) {
-                                fluid = (Fluid)Fluid.getAssetMap().getAsset(fluidId);
+                                fluidParticleColor = MapColorTable.getFluidParticleColor(fluidId);
                                 fluidTop = blockY;
                                 break label97;
                             }
@@ -240,8 +176,7 @@ public class CustomImageBuilder {
                     for(int blockY = maxBlockY; blockY >= minBlockY; --blockY) {
                         int nextFluidId = fluidSection.getFluidId(x, blockY, z);
                         if (nextFluidId != fluidId) {
-                            Fluid nextFluid = (Fluid)Fluid.getAssetMap().getAsset(nextFluidId);
-                            if (!Objects.equals(fluid.getParticleColor(), nextFluid.getParticleColor())) {
+                            if (MapColorTable.getFluidParticleColor(nextFluidId) != fluidParticleColor) {
                                 fluidBottom = blockY + 1;
                                 break label119;
                             }
@@ -250,13 +185,16 @@ public class CustomImageBuilder {
                 }
 
                 short fluidDepth = fluidId != 0 ? (short)(fluidTop - fluidBottom + 1) : 0;
-                int environmentId = this.worldChunk.getBlockChunk().getEnvironment(x, fluidTop, z);
                 this.fluidDepthSamples[sampleIndex] = fluidDepth;
-                this.environmentSamples[sampleIndex] = environmentId;
-                this.fluidSamples[sampleIndex] = fluidId;
+                this.fluidColorSamples[sampleIndex] = fluidId != 0 ? MapColorTable.getFluidColor(fluidId, this.worldChunk.getBlockChunk().getEnvironment(x, fluidTop, z)) : MapColorTable.NO_COLOR;
             }
         }
+    }
 
+    /**
+     * Shades the sampled terrain with the heights of the neighbour edges, caches it and draws the overlay on top
+     */
+    CustomImageBuilder renderTerrain() {
         float imageToSampleRatioWidth = (float)this.sampleWidth / (float)this.image.width;
         float imageToSampleRatioHeight = (float)this.sampleHeight / (float)this.image.height;
         int blockPixelWidth = Math.max(1, this.image.width / this.sampleWidth);
@@ -271,26 +209,6 @@ public class CustomImageBuilder {
         int minBlockX = ChunkUtil.minBlock(chunkX);
         int minBlockZ = ChunkUtil.minBlock(chunkZ);
 
-        // CUSTOM CODE
-        var claimedChunk = ClaimManager.getInstance().getChunk(this.worldChunk.getWorld().getName(), this.worldChunk.getX(), this.worldChunk.getZ());
-        PartyInfo partyInfo = null;
-        if (claimedChunk != null) {
-            partyInfo = ClaimManager.getInstance().getPartyById(claimedChunk.getPartyOwner());
-        }
-        var reservedChunk = Main.CONFIG.get().isEnablePerimeterReservation() && Main.CONFIG.get().isShowPerimeterReservationOnTheMap() ?
-            ClaimManager.getInstance().getReservedChunk(this.worldChunk.getWorld().getName(), this.worldChunk.getX(), this.worldChunk.getZ()) : null;
-        PartyInfo reservedPartyInfo = null;
-        if (reservedChunk != null) {
-            reservedPartyInfo = ClaimManager.getInstance().getPartyById(reservedChunk.getReservedBy());
-        }
-        var nearbyChunks = new ChunkInfo[]{
-                ClaimManager.getInstance().getChunk(this.worldChunk.getWorld().getName(), this.worldChunk.getX(), this.worldChunk.getZ() + 1), //NORTH
-                ClaimManager.getInstance().getChunk(this.worldChunk.getWorld().getName(), this.worldChunk.getX(), this.worldChunk.getZ() - 1), //SOUTH
-                ClaimManager.getInstance().getChunk(this.worldChunk.getWorld().getName(), this.worldChunk.getX() + 1, this.worldChunk.getZ()), //EAST
-                ClaimManager.getInstance().getChunk(this.worldChunk.getWorld().getName(), this.worldChunk.getX() - 1, this.worldChunk.getZ()), //WEST
-        };
-        //-
-
         for(int ix = 0; ix < this.image.width; ++ix) {
             for(int iz = 0; iz < this.image.height; ++iz) {
                 int sampleX = Math.min((int)((float)ix * imageToSampleRatioWidth), this.sampleWidth - 1);
@@ -299,9 +217,11 @@ public class CustomImageBuilder {
                 int blockPixelX = ix % blockPixelWidth;
                 int blockPixelZ = iz % blockPixelHeight;
                 short height = this.heightSamples[sampleIndex];
-                int tint = this.tintSamples[sampleIndex];
-                int blockId = this.blockSamples[sampleIndex];
-                getBlockColor(blockId, tint, this.outColor);
+                int blockColor = this.blockColorSamples[sampleIndex];
+                this.outColor.r = blockColor >> 16 & 255;
+                this.outColor.g = blockColor >> 8 & 255;
+                this.outColor.b = blockColor & 255;
+                this.outColor.a = 255;
 
                 short north = this.neighborHeightSamples[sampleZ * (this.sampleWidth + 2) + sampleX + 1];
                 short south = this.neighborHeightSamples[(sampleZ + 2) * (this.sampleWidth + 2) + sampleX + 1];
@@ -314,15 +234,52 @@ public class CustomImageBuilder {
                 float shade = shadeFromHeights(blockPixelX, blockPixelZ, blockPixelWidth, blockPixelHeight, height, north, south, west, east, northWest, northEast, southWest, southEast);
                 this.outColor.multiply(shade);
                 if (height < 320) {
-                    int fluidId = this.fluidSamples[sampleIndex];
-                    if (fluidId != 0) {
-                        short fluidDepth = this.fluidDepthSamples[sampleIndex];
-                        int environmentId = this.environmentSamples[sampleIndex];
-                        getFluidColor(fluidId, environmentId, fluidDepth, this.outColor);
+                    int fluidColor = this.fluidColorSamples[sampleIndex];
+                    if (fluidColor != MapColorTable.NO_COLOR) {
+                        applyFluidColor(fluidColor, this.fluidDepthSamples[sampleIndex], this.outColor);
                     }
                 }
 
-                //CUSTOM CODE
+                this.populateImageData(iz * this.image.width + ix, sampleX, sampleZ, minBlockX, minBlockZ);
+            }
+        }
+
+        if (this.neighborsLoaded) {
+            TerrainImageCache.put(this.world.getName(), this.index, this.image.width, this.image.height, this.image.data.clone(), this.readAt);
+        }
+        return this.drawOverlay();
+    }
+
+    /**
+     * Draws the claim and reservation colours and the party name on top of the terrain pixels of the image
+     */
+    private CustomImageBuilder drawOverlay() {
+        int chunkX = ChunkUtil.xOfChunkIndex(this.index);
+        int chunkZ = ChunkUtil.zOfChunkIndex(this.index);
+        String worldName = this.world.getName();
+        var claimedChunk = ClaimManager.getInstance().getChunk(worldName, chunkX, chunkZ);
+        PartyInfo partyInfo = null;
+        if (claimedChunk != null) {
+            partyInfo = ClaimManager.getInstance().getPartyById(claimedChunk.getPartyOwner());
+        }
+        var reservedChunk = Main.CONFIG.get().isEnablePerimeterReservation() && Main.CONFIG.get().isShowPerimeterReservationOnTheMap() ?
+            ClaimManager.getInstance().getReservedChunk(worldName, chunkX, chunkZ) : null;
+        PartyInfo reservedPartyInfo = null;
+        if (reservedChunk != null) {
+            reservedPartyInfo = ClaimManager.getInstance().getPartyById(reservedChunk.getReservedBy());
+        }
+        if (partyInfo == null && reservedPartyInfo == null) return this;
+        var nearbyChunks = new ChunkInfo[]{
+                ClaimManager.getInstance().getChunk(worldName, chunkX, chunkZ + 1), //NORTH
+                ClaimManager.getInstance().getChunk(worldName, chunkX, chunkZ - 1), //SOUTH
+                ClaimManager.getInstance().getChunk(worldName, chunkX + 1, chunkZ), //EAST
+                ClaimManager.getInstance().getChunk(worldName, chunkX - 1, chunkZ), //WEST
+        };
+
+        for(int ix = 0; ix < this.image.width; ++ix) {
+            for(int iz = 0; iz < this.image.height; ++iz) {
+                int pixelIndex = iz * this.image.width + ix;
+                this.outColor.unpack(this.image.data[pixelIndex]);
                 if (partyInfo != null) {
                     var isBorder = false;
                     var borderSize = 2;
@@ -333,27 +290,16 @@ public class CustomImageBuilder {
                             || (iz >= this.image.height - borderSize - 1 && (nearbyChunks[0] == null || !nearbyChunks[0].getPartyOwner().equals(partyId)))) {
                         isBorder = true;
                     }
-                    getForceBlockColor(blockId, partyInfo.getColor(), this.outColor, isBorder, false);
-                } else if (reservedPartyInfo != null) {
-                    getForceBlockColor(blockId, reservedPartyInfo.getColor(), this.outColor, false, true);
+                    getForceBlockColor(partyInfo.getColor(), this.outColor, isBorder, false);
+                } else {
+                    getForceBlockColor(reservedPartyInfo.getColor(), this.outColor, false, true);
                 }
-                //-
-
-                this.populateImageData(iz * this.image.width + ix, sampleX, sampleZ, minBlockX, minBlockZ);
+                this.image.data[pixelIndex] = this.outColor.pack();
             }
         }
 
         if (partyInfo != null && Main.CONFIG.get().isRenderClaimNamesOnWorldMap()) {
-            String name = partyInfo.getName().toUpperCase();
-            drawText(this.image, 1, 1, name, new Color(0, 0, 0, 255).pack());
-            drawText(this.image, 1, 2, name, new Color(0, 0, 0, 255).pack());
-            drawText(this.image, 1, 3, name, new Color(0, 0, 0, 255).pack());
-            drawText(this.image, 2, 1, name, new Color(0, 0, 0, 255).pack());
-            drawText(this.image, 2, 3, name, new Color(0, 0, 0, 255).pack());
-            drawText(this.image, 3, 1, name, new Color(0, 0, 0, 255).pack());
-            drawText(this.image, 3, 2, name, new Color(0, 0, 0, 255).pack());
-            drawText(this.image, 3, 3, name, new Color(0, 0, 0, 255).pack());
-            drawText(this.image, 2, 2, name, new Color(255, 255, 255, 255).pack());
+            ClaimLabelCache.draw(this.image, partyInfo);
         }
 
         return this;
@@ -388,34 +334,20 @@ public class CustomImageBuilder {
         return ambient + diffuse * lambert;
     }
 
-    private static void getBlockColor(int blockId, int biomeTintColor, @Nonnull CustomImageBuilder.Color outColor) {
-        BlockType block = (BlockType)BlockType.getAssetMap().getAsset(blockId);
-        int biomeTintR = biomeTintColor >> 16 & 255;
-        int biomeTintG = biomeTintColor >> 8 & 255;
-        int biomeTintB = biomeTintColor >> 0 & 255;
-        com.hypixel.hytale.protocol.Color[] tintUp = block.getTintUp();
-        boolean hasTint = tintUp != null && tintUp.length > 0;
-        int selfTintR = hasTint ? tintUp[0].red & 255 : 255;
-        int selfTintG = hasTint ? tintUp[0].green & 255 : 255;
-        int selfTintB = hasTint ? tintUp[0].blue & 255 : 255;
-        float biomeTintMultiplier = (float)block.getBiomeTintUp() / 100.0F;
-        int tintColorR = (int)((float)selfTintR + (float)(biomeTintR - selfTintR) * biomeTintMultiplier);
-        int tintColorG = (int)((float)selfTintG + (float)(biomeTintG - selfTintG) * biomeTintMultiplier);
-        int tintColorB = (int)((float)selfTintB + (float)(biomeTintB - selfTintB) * biomeTintMultiplier);
-        com.hypixel.hytale.protocol.Color particleColor = block.getParticleColor();
-        if (particleColor != null && biomeTintMultiplier < 1.0F) {
-            tintColorR = tintColorR * (particleColor.red & 255) / 255;
-            tintColorG = tintColorG * (particleColor.green & 255) / 255;
-            tintColorB = tintColorB * (particleColor.blue & 255) / 255;
+    /**
+     * Tinted colour of the block from the {@link MapColorTable}, remembered for the rest of the image
+     */
+    private int getBlockColor(int blockId, int biomeTintColor) {
+        long key = (long) blockId << 32 | (biomeTintColor & 0xFFFFFFFFL);
+        int slot = (int) (key ^ key >>> 29) & (this.colorMemoKeys.length - 1);
+        if (this.colorMemoKeys[slot] != key) {
+            this.colorMemoKeys[slot] = key;
+            this.colorMemoValues[slot] = MapColorTable.getBlockColor(blockId, biomeTintColor);
         }
-
-        outColor.r = tintColorR & 255;
-        outColor.g = tintColorG & 255;
-        outColor.b = tintColorB & 255;
-        outColor.a = 255;
+        return this.colorMemoValues[slot];
     }
 
-    private static void getForceBlockColor(int blockId, int partyColor, @Nonnull CustomImageBuilder.Color outColor, boolean isBorder, boolean isReserved) {
+    private static void getForceBlockColor(int partyColor, @Nonnull CustomImageBuilder.Color outColor, boolean isBorder, boolean isReserved) {
         int biomeTintR = partyColor >> 16 & 255;
         int biomeTintG = partyColor >> 8 & 255;
         int biomeTintB = partyColor >> 0 & 255;
@@ -429,26 +361,10 @@ public class CustomImageBuilder {
         outColor.a = 255;
     }
 
-    private static void getFluidColor(int fluidId, int environmentId, int fluidDepth, @Nonnull CustomImageBuilder.Color outColor) {
-        int tintColorR = 255;
-        int tintColorG = 255;
-        int tintColorB = 255;
-        Environment environment = (Environment)Environment.getAssetMap().getAsset(environmentId);
-        com.hypixel.hytale.protocol.Color waterTint = environment.getWaterTint();
-        if (waterTint != null) {
-            tintColorR = tintColorR * (waterTint.red & 255) / 255;
-            tintColorG = tintColorG * (waterTint.green & 255) / 255;
-            tintColorB = tintColorB * (waterTint.blue & 255) / 255;
-        }
-
-        Fluid fluid = (Fluid)Fluid.getAssetMap().getAsset(fluidId);
-        com.hypixel.hytale.protocol.Color partcileColor = fluid.getParticleColor();
-        if (partcileColor != null) {
-            tintColorR = tintColorR * (partcileColor.red & 255) / 255;
-            tintColorG = tintColorG * (partcileColor.green & 255) / 255;
-            tintColorB = tintColorB * (partcileColor.blue & 255) / 255;
-        }
-
+    private static void applyFluidColor(int fluidColor, int fluidDepth, @Nonnull CustomImageBuilder.Color outColor) {
+        int tintColorR = fluidColor >> 16 & 255;
+        int tintColorG = fluidColor >> 8 & 255;
+        int tintColorB = fluidColor & 255;
         float depthMultiplier = Math.min(1.0F, 1.0F / (float)fluidDepth);
         outColor.r = (int)((float)tintColorR + (float)((outColor.r & 255) - tintColorR) * depthMultiplier) & 255;
         outColor.g = (int)((float)tintColorG + (float)((outColor.g & 255) - tintColorG) * depthMultiplier) & 255;
@@ -459,112 +375,12 @@ public class CustomImageBuilder {
         this.image.data[pixelIndex] = this.outColor.pack();
     }
 
-    private void drawText(MapImage image, int x, int y, String text, int color) {
-        for (int i = 0; i < text.length(); i++) {
-            drawChar(image, x + i * 4 + 4, y + 4, text.charAt(i), color);
-        }
-    }
-
-    private void drawChar(MapImage image, int x, int y, char c, int color) {
-        if (c == ' ') return;
-        byte[] glyph = getGlyph(c);
-        for (int gy = 0; gy < 5; gy++) {
-            for (int gx = 0; gx < 3; gx++) {
-                if (((glyph[gy] >> (2 - gx)) & 1) == 1) {
-                    int px = x + gx;
-                    int py = y + gy;
-                    if (px >= 0 && px < image.width && py >= 0 && py < image.height) {
-                        image.data[py * image.width + px] = color;
-                    }
-                }
-            }
-        }
-    }
-
-    private byte[] getGlyph(char c) {
-        switch (Character.toUpperCase(c)) {
-            case 'A':
-                return new byte[]{0b010, 0b101, 0b111, 0b101, 0b101};
-            case 'B':
-                return new byte[]{0b110, 0b101, 0b110, 0b101, 0b110};
-            case 'C':
-                return new byte[]{0b011, 0b100, 0b100, 0b100, 0b011};
-            case 'D':
-                return new byte[]{0b110, 0b101, 0b101, 0b101, 0b110};
-            case 'E':
-                return new byte[]{0b111, 0b100, 0b110, 0b100, 0b111};
-            case 'F':
-                return new byte[]{0b111, 0b100, 0b110, 0b100, 0b100};
-            case 'G':
-                return new byte[]{0b011, 0b100, 0b101, 0b101, 0b011};
-            case 'H':
-                return new byte[]{0b101, 0b101, 0b111, 0b101, 0b101};
-            case 'I':
-                return new byte[]{0b111, 0b010, 0b010, 0b010, 0b111};
-            case 'J':
-                return new byte[]{0b001, 0b001, 0b001, 0b101, 0b010};
-            case 'K':
-                return new byte[]{0b101, 0b101, 0b110, 0b101, 0b101};
-            case 'L':
-                return new byte[]{0b100, 0b100, 0b100, 0b100, 0b111};
-            case 'M':
-                return new byte[]{0b101, 0b111, 0b101, 0b101, 0b101};
-            case 'N':
-                return new byte[]{0b101, 0b111, 0b111, 0b101, 0b101};
-            case 'O':
-                return new byte[]{0b010, 0b101, 0b101, 0b101, 0b010};
-            case 'P':
-                return new byte[]{0b110, 0b101, 0b110, 0b100, 0b100};
-            case 'Q':
-                return new byte[]{0b010, 0b101, 0b101, 0b011, 0b001};
-            case 'R':
-                return new byte[]{0b110, 0b101, 0b110, 0b101, 0b101};
-            case 'S':
-                return new byte[]{0b011, 0b100, 0b010, 0b001, 0b110};
-            case 'T':
-                return new byte[]{0b111, 0b010, 0b010, 0b010, 0b010};
-            case 'U':
-                return new byte[]{0b101, 0b101, 0b101, 0b101, 0b111};
-            case 'V':
-                return new byte[]{0b101, 0b101, 0b101, 0b101, 0b010};
-            case 'W':
-                return new byte[]{0b101, 0b101, 0b101, 0b111, 0b101};
-            case 'X':
-                return new byte[]{0b101, 0b101, 0b010, 0b101, 0b101};
-            case 'Y':
-                return new byte[]{0b101, 0b101, 0b010, 0b010, 0b010};
-            case 'Z':
-                return new byte[]{0b111, 0b001, 0b010, 0b100, 0b111};
-            case ' ':
-                return new byte[]{0b000, 0b000, 0b000, 0b000, 0b000};
-            case '0':
-                return new byte[]{0b111, 0b101, 0b101, 0b101, 0b111};
-            case '1':
-                return new byte[]{0b010, 0b110, 0b010, 0b010, 0b111};
-            case '2':
-                return new byte[]{0b111, 0b001, 0b111, 0b100, 0b111};
-            case '3':
-                return new byte[]{0b111, 0b001, 0b111, 0b001, 0b111};
-            case '4':
-                return new byte[]{0b101, 0b101, 0b111, 0b001, 0b001};
-            case '5':
-                return new byte[]{0b111, 0b100, 0b111, 0b001, 0b111};
-            case '6':
-                return new byte[]{0b111, 0b100, 0b111, 0b101, 0b111};
-            case '7':
-                return new byte[]{0b111, 0b001, 0b001, 0b001, 0b001};
-            case '8':
-                return new byte[]{0b111, 0b101, 0b111, 0b101, 0b111};
-            case '9':
-                return new byte[]{0b111, 0b101, 0b111, 0b001, 0b001};
-            default:
-                return new byte[]{0b000, 0b000, 0b000, 0b000, 0b000};
-        }
-    }
-
-    @Nonnull
-    public static CompletableFuture<CustomImageBuilder> build(long index, int imageWidth, int imageHeight, World world) {
-        return CompletableFuture.completedFuture(new CustomImageBuilder(index, imageWidth, imageHeight, world)).thenCompose(CustomImageBuilder::fetchChunk).thenCompose((builder) -> builder != null ? builder.sampleNeighborsSync() : CompletableFuture.completedFuture(null)).thenApplyAsync((builder) -> builder != null ? builder.generateImageAsync() : null);
+    /**
+     * Copies the cached terrain into the image and draws the overlay on top, without touching the chunk or its neighbours
+     */
+    CustomImageBuilder drawCachedTerrain(int[] terrain) {
+        System.arraycopy(terrain, 0, this.image.data, 0, terrain.length);
+        return this.drawOverlay();
     }
 
     private static class Color {
@@ -583,6 +399,13 @@ public class CustomImageBuilder {
         public Color() {
         }
 
+        public void unpack(int packed) {
+            this.r = packed >>> 24;
+            this.g = packed >> 16 & 255;
+            this.b = packed >> 8 & 255;
+            this.a = packed & 255;
+        }
+
         public int pack() {
             return (this.r & 255) << 24 | (this.g & 255) << 16 | (this.b & 255) << 8 | this.a & 255;
         }
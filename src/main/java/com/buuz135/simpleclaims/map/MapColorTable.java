@@ -0,0 +1,151 @@
+package com.buuz135.simpleclaims.map;
+
+import com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType;
+import com.hypixel.hytale.server.core.asset.type.environment.config.Environment;
+import com.hypixel.hytale.server.core.asset.type.fluid.Fluid;
+
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Map colours of every block type, fluid and environment, indexed by their asset id and packed as 0xRRGGBB.
+ * Built the first time a map image is generated and rebuilt when those assets are reloaded, so colouring a pixel is an array load
+ * instead of resolving the asset and reading its colours.
+ */
+public final class MapColorTable {
+
+    // Stored for a missing colour, multiplying by white leaves the colour as it is
+    public static final int WHITE = 0xFFFFFF;
+    // Stored for a fluid without a particle colour, so it can still be told apart from a white one
+    public static final int NO_COLOR = -1;
+
+    private record Tables(int[] blockTint, float[] blockBiomeTint, int[] blockParticle, int[] fluidParticle, int[] waterTint) {}
+
+    private static volatile Tables tables;
+
+    private MapColorTable() {}
+
+    /**
+     * Builds the tables from the loaded assets and publishes them, the built tables are returned since an invalidate can drop them right away
+     */
+    private static synchronized Tables rebuild() {
+        var blocks = BlockType.getAssetMap();
+        int blockSize = size(blocks.getAssetMap(), blocks::getIndex);
+        int[] blockTint = new int[blockSize];
+        float[] blockBiomeTint = new float[blockSize];
+        int[] blockParticle = new int[blockSize];
+        for (Map.Entry<String, BlockType> entry : blocks.getAssetMap().entrySet()) {
+            int index = blocks.getIndex(entry.getKey());
+            if (index < 0) continue;
+            BlockType block = entry.getValue();
+            com.hypixel.hytale.protocol.Color[] tintUp = block.getTintUp();
+            blockTint[index] = tintUp != null && tintUp.length > 0 ? pack(tintUp[0]) : WHITE;
+            blockBiomeTint[index] = (float) block.getBiomeTintUp() / 100.0F;
+            // The particle colour only darkens blocks that don't fully take the biome tint
+            blockParticle[index] = block.getParticleColor() != null && blockBiomeTint[index] < 1.0F ? pack(block.getParticleColor()) : WHITE;
+        }
+
+        var fluids = Fluid.getAssetMap();
+        int[] fluidParticle = new int[size(fluids.getAssetMap(), fluids::getIndex)];
+        for (Map.Entry<String, Fluid> entry : fluids.getAssetMap().entrySet()) {
+            int index = fluids.getIndex(entry.getKey());
+            if (index >= 0) fluidParticle[index] = entry.getValue().getParticleColor() != null ? pack(entry.getValue().getParticleColor()) : NO_COLOR;
+        }
+
+        var environments = Environment.getAssetMap();
+        int[] waterTint = new int[size(environments.getAssetMap(), environments::getIndex)];
+        for (Map.Entry<String, Environment> entry : environments.getAssetMap().entrySet()) {
+            int index = environments.getIndex(entry.getKey());
+            if (index >= 0) waterTint[index] = entry.getValue().getWaterTint() != null ? pack(entry.getValue().getWaterTint()) : WHITE;
+        }
+        Tables built = new Tables(blockTint, blockBiomeTint, blockParticle, fluidParticle, waterTint);
+        tables = built;
+        return built;
+    }
+
+    /**
+     * Drops the tables, they get rebuilt the next time a map image is generated
+     */
+    public static void invalidate() {
+        tables = null;
+    }
+
+    /**
+     * Colour of the top of the block with the biome tint of its column, the same blend the map always used
+     */
+    public static int getBlockColor(int blockId, int biomeTintColor) {
+        Tables current = getTables();
+        int self;
+        float biomeTintMultiplier;
+        int particle;
+        if (blockId >= 0 && blockId < current.blockTint.length) {
+            self = current.blockTint[blockId];
+            biomeTintMultiplier = current.blockBiomeTint[blockId];
+            particle = current.blockParticle[blockId];
+        } else {
+            // Asset registered after the tables were built, read it on the spot
+            BlockType block = (BlockType) BlockType.getAssetMap().getAsset(blockId);
+            if (block == null) return WHITE;
+            com.hypixel.hytale.protocol.Color[] tintUp = block.getTintUp();
+            self = tintUp != null && tintUp.length > 0 ? pack(tintUp[0]) : WHITE;
+            biomeTintMultiplier = (float) block.getBiomeTintUp() / 100.0F;
+            particle = block.getParticleColor() != null && biomeTintMultiplier < 1.0F ? pack(block.getParticleColor()) : WHITE;
+        }
+        int r = blend(self >> 16 & 255, biomeTintColor >> 16 & 255, biomeTintMultiplier) * (particle >> 16 & 255) / 255;
+        int g = blend(self >> 8 & 255, biomeTintColor >> 8 & 255, biomeTintMultiplier) * (particle >> 8 & 255) / 255;
+        int b = blend(self & 255, biomeTintColor & 255, biomeTintMultiplier) * (particle & 255) / 255;
+        return (r & 255) << 16 | (g & 255) << 8 | b & 255;
+    }
+
+    /**
+     * Particle colour of the fluid or {@link #NO_COLOR}, fluids with the same colour are drawn as one body
+     */
+    public static int getFluidParticleColor(int fluidId) {
+        Tables current = getTables();
+        if (fluidId >= 0 && fluidId < current.fluidParticle.length) return current.fluidParticle[fluidId];
+        Fluid fluid = (Fluid) Fluid.getAssetMap().getAsset(fluidId);
+        return fluid != null && fluid.getParticleColor() != null ? pack(fluid.getParticleColor()) : NO_COLOR;
+    }
+
+    /**
+     * Colour of the fluid under the water tint of the environment
+     */
+    public static int getFluidColor(int fluidId, int environmentId) {
+        int particle = getFluidParticleColor(fluidId);
+        Tables current = getTables();
+        int water;
+        if (environmentId >= 0 && environmentId < current.waterTint.length) {
+            water = current.waterTint[environmentId];
+        } else {
+            Environment environment = (Environment) Environment.getAssetMap().getAsset(environmentId);
+            water = environment != null && environment.getWaterTint() != null ? pack(environment.getWaterTint()) : WHITE;
+        }
+        if (particle == NO_COLOR) return water;
+        int r = (water >> 16 & 255) * (particle >> 16 & 255) / 255;
+        int g = (water >> 8 & 255) * (particle >> 8 & 255) / 255;
+        int b = (water & 255) * (particle & 255) / 255;
+        return r << 16 | g << 8 | b;
+    }
+
+    private static int blend(int self, int biome, float biomeTintMultiplier) {
+        return (int) ((float) self + (float) (biome - self) * biomeTintMultiplier);
+    }
+
+    private static Tables getTables() {
+        Tables current = tables;
+        if (current == null) current = rebuild();
+        return current;
+    }
+
+    private static <T> int size(Map<String, T> assets, ToIntFunction<String> index) {
+        int size = 0;
+        for (String id : assets.keySet()) {
+            size = Math.max(size, index.applyAsInt(id) + 1);
+        }
+        return size;
+    }
+
+    private static int pack(com.hypixel.hytale.protocol.Color color) {
+        return (color.red & 255) << 16 | (color.green & 255) << 8 | color.blue & 255;
+    }
+}
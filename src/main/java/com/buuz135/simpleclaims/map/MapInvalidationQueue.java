@@ -0,0 +1,84 @@
+package com.buuz135.simpleclaims.map;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Map chunks waiting to be redrawn, per world. Each world has two sets: claims are queued into one while the world thread drains the other,
+ * they are swapped once the queue has been quiet for the debounce time, so a burst of claims is sent as a single update and nothing queued
+ * while a batch is being sent is lost.
+ */
+public class MapInvalidationQueue {
+
+    // A constant stream of claims is still flushed after this many debounce periods
+    private static final int MAX_DEBOUNCE_PERIODS = 4;
+
+    private static final class WorldQueue {
+        private LongSet pending = new LongOpenHashSet();
+        private LongSet draining = new LongOpenHashSet();
+        private boolean drainingInUse;
+        private long firstQueued;
+        private long lastQueued;
+    }
+
+    private final Map<String, WorldQueue> worlds = new ConcurrentHashMap<>();
+
+    public void add(String world, long index) {
+        WorldQueue queue = worlds.computeIfAbsent(world, k -> new WorldQueue());
+        synchronized (queue) {
+            if (queue.pending.isEmpty()) queue.firstQueued = System.currentTimeMillis();
+            queue.lastQueued = System.currentTimeMillis();
+            queue.pending.add(index);
+        }
+    }
+
+    public void addAll(String world, LongSet indexes) {
+        if (indexes.isEmpty()) return;
+        WorldQueue queue = worlds.computeIfAbsent(world, k -> new WorldQueue());
+        synchronized (queue) {
+            if (queue.pending.isEmpty()) queue.firstQueued = System.currentTimeMillis();
+            queue.lastQueued = System.currentTimeMillis();
+            queue.pending.addAll(indexes);
+        }
+    }
+
+    /**
+     * Swaps the queued chunks of the world out once nothing was queued for the debounce time, returns null while it isn't time yet,
+     * when nothing is queued or while the previous batch hasn't been released with {@link #release}
+     */
+    @Nullable
+    public LongSet poll(String world, long debounceMillis) {
+        WorldQueue queue = worlds.get(world);
+        if (queue == null) return null;
+        synchronized (queue) {
+            if (queue.pending.isEmpty() || queue.drainingInUse) return null;
+            long now = System.currentTimeMillis();
+            if (now - queue.lastQueued < debounceMillis && now - queue.firstQueued < debounceMillis * MAX_DEBOUNCE_PERIODS) return null;
+            LongSet ready = queue.pending;
+            queue.pending = queue.draining;
+            queue.draining = ready;
+            queue.drainingInUse = true;
+            return ready;
+        }
+    }
+
+    /**
+     * Hands the set returned by {@link #poll} back once it was sent, it is reused for the next batch
+     */
+    public void release(String world) {
+        WorldQueue queue = worlds.get(world);
+        if (queue == null) return;
+        synchronized (queue) {
+            queue.draining.clear();
+            queue.drainingInUse = false;
+        }
+    }
+
+    public void removeWorld(String world) {
+        worlds.remove(world);
+    }
+}
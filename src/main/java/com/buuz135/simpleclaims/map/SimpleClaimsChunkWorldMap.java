@@ -7,7 +7,6 @@ import com.hypixel.hytale.server.core.universe.world.map.WorldMap;
 import com.hypixel.hytale.server.core.universe.world.worldmap.IWorldMap;
 import com.hypixel.hytale.server.core.universe.world.worldmap.WorldMapSettings;
 import com.hypixel.hytale.server.core.universe.world.worldmap.provider.chunk.ChunkWorldMap;
-import it.unimi.dsi.fastutil.longs.LongIterator;
 import it.unimi.dsi.fastutil.longs.LongSet;
 
 import java.util.Collections;
@@ -25,20 +24,11 @@ public class SimpleClaimsChunkWorldMap implements IWorldMap {
 
     @Override
     public CompletableFuture<WorldMap> generate(World world, int imageWidth, int imageHeight, LongSet chunksToGenerate) {
-        CompletableFuture<CustomImageBuilder>[] futures = new CompletableFuture[chunksToGenerate.size()];
-        int futureIndex = 0;
+        return ChunkImageBatch.build(world, imageWidth, imageHeight, chunksToGenerate).thenApply((builders) -> {
+            WorldMap worldMap = new WorldMap(builders.size());
 
-        for (LongIterator iterator = chunksToGenerate.iterator(); iterator.hasNext(); futures[futureIndex++] = CustomImageBuilder.build(iterator.nextLong(), imageWidth, imageHeight, world)) {
-        }
-
-        return CompletableFuture.allOf(futures).thenApply((unused) -> {
-            WorldMap worldMap = new WorldMap(futures.length);
-
-            for (int i = 0; i < futures.length; ++i) {
-                CustomImageBuilder builder = futures[i].getNow(null);
-                if (builder != null) {
-                    worldMap.getChunks().put(builder.getIndex(), builder.getImage());
-                }
+            for (CustomImageBuilder builder : builders) {
+                worldMap.getChunks().put(builder.getIndex(), builder.getImage());
             }
 
             return worldMap;
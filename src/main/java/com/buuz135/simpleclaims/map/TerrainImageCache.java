@@ -0,0 +1,113 @@
+package com.buuz135.simpleclaims.map;
+
+import com.buuz135.simpleclaims.Main;
+import com.hypixel.hytale.math.util.ChunkUtil;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the shaded terrain pixels of the map images, before the claim colours and names are drawn on top.
+ * A claim change only redraws the overlay of the cached terrain instead of sampling the chunk and its neighbours again.
+ * The least recently used chunks are dropped once the configured size is reached, block changes drop the chunk and its neighbours
+ * since the shading of a chunk depends on the heights of the chunks around it. Changes that don't go through a block event, like explosions,
+ * fluids or prefabs, are picked up once the terrain is older than the configured time.
+ */
+public final class TerrainImageCache {
+
+    private record Key(String world, long index) {}
+
+    private record Entry(int width, int height, int[] pixels, long readAt) {}
+
+    // Terrain read before the last block change of a chunk is stale, a render that was already running can't put it back
+    private static final int MAX_INVALIDATIONS = 4096;
+
+    private static final Map<Key, Entry> CACHE = new LinkedHashMap<>(256, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > Main.CONFIG.get().getMapTerrainCacheSize();
+        }
+    };
+
+    private static final Map<Key, Long> INVALIDATIONS = new LinkedHashMap<>(256) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Long> eldest) {
+            return size() > MAX_INVALIDATIONS;
+        }
+    };
+
+    // Renders that read their terrain before the last clear can't put it back either, only touched while holding the cache lock
+    private static long cleared = System.nanoTime();
+
+    private TerrainImageCache() {}
+
+    /**
+     * Terrain pixels of the chunk for an image of that size, or null when they aren't cached. The returned array must not be modified
+     */
+    public static int[] get(String world, long index, int width, int height) {
+        if (Main.CONFIG.get().getMapTerrainCacheSize() <= 0) return null;
+        Entry entry;
+        synchronized (CACHE) {
+            entry = CACHE.get(new Key(world, index));
+        }
+        if (entry == null || entry.width != width || entry.height != height) return null;
+        return isExpired(entry.readAt) ? null : entry.pixels;
+    }
+
+    /**
+     * Caches the terrain of a chunk read at the {@link System#nanoTime()} given, unless a block of it changed since then
+     */
+    public static void put(String world, long index, int width, int height, int[] pixels, long readAt) {
+        if (Main.CONFIG.get().getMapTerrainCacheSize() <= 0) return;
+        var key = new Key(world, index);
+        synchronized (CACHE) {
+            Long invalidated = INVALIDATIONS.get(key);
+            if (readAt - cleared < 0 || invalidated != null && invalidated - readAt >= 0) return;
+            CACHE.put(key, new Entry(width, height, pixels, readAt));
+        }
+    }
+
+    /**
+     * Drops the chunk of the block and the chunks around it, their edge shading uses the heights of this chunk
+     */
+    public static void invalidateBlock(String world, int blockX, int blockZ) {
+        int chunkX = ChunkUtil.chunkCoordinate(blockX);
+        int chunkZ = ChunkUtil.chunkCoordinate(blockZ);
+        if (Main.CONFIG.get().getMapTerrainCacheSize() <= 0) return;
+        long now = System.nanoTime();
+        synchronized (CACHE) {
+            for (int x = chunkX - 1; x <= chunkX + 1; x++) {
+                for (int z = chunkZ - 1; z <= chunkZ + 1; z++) {
+                    var key = new Key(world, ChunkUtil.indexChunk(x, z));
+                    CACHE.remove(key);
+                    // Moved to the end so the oldest invalidations are the ones dropped
+                    INVALIDATIONS.remove(key);
+                    INVALIDATIONS.put(key, now);
+                }
+            }
+        }
+    }
+
+    public static void invalidateWorld(String world) {
+        synchronized (CACHE) {
+            CACHE.keySet().removeIf(key -> key.world.equals(world));
+            INVALIDATIONS.keySet().removeIf(key -> key.world.equals(world));
+        }
+    }
+
+    /**
+     * Drops everything, the block colours changed
+     */
+    public static void clear() {
+        long now = System.nanoTime();
+        synchronized (CACHE) {
+            CACHE.clear();
+            cleared = now;
+        }
+    }
+
+    private static boolean isExpired(long readAt) {
+        int seconds = Main.CONFIG.get().getMapCacheSeconds();
+        return seconds > 0 && System.nanoTime() - readAt > seconds * 1_000_000_000L;
+    }
+}
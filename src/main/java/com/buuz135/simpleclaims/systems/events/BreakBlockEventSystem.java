@@ -1,9 +1,11 @@
 package com.buuz135.simpleclaims.systems.events;
 
-import com.buuz135.simpleclaims.Main;
 import com.buuz135.simpleclaims.claim.ClaimManager;
 import com.buuz135.simpleclaims.claim.party.PartyInfo;
 import com.buuz135.simpleclaims.claim.party.PartyOverrides;
+import com.buuz135.simpleclaims.gui.ChunkInfoMapCache;
+import com.buuz135.simpleclaims.map.TerrainImageCache;
+import com.buuz135.simpleclaims.util.BlockInteractionTable;
 import com.hypixel.hytale.component.ArchetypeChunk;
 import com.hypixel.hytale.component.CommandBuffer;
 import com.hypixel.hytale.component.Ref;
@@ -22,7 +24,6 @@ import org.checkerframework.checker.nullness.compatqual.NonNullDecl;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Collections;
-import java.util.Locale;
 import java.util.Set;
 
 
@@ -36,17 +37,19 @@ public class BreakBlockEventSystem extends EntityEventSystem<EntityStore, BreakB
     public void handle(final int index, @Nonnull final ArchetypeChunk<EntityStore> archetypeChunk, @Nonnull final Store<EntityStore> store, @Nonnull final CommandBuffer<EntityStore> commandBuffer, @Nonnull final BreakBlockEvent event) {
         // TODO: This class will be used later to implement https://github.com/Buuz135/SimpleClaims/issues/52
         // For now, this fixes the issue of SimpleClaims not blocking breaks at all in Creative Mode.
-        var blockName = event.getBlockType().getId().toLowerCase(Locale.ROOT);
-
-        for (String blocksThatIgnoreInteractRestriction : Main.CONFIG.get().getBlocksThatIgnoreInteractRestrictions()) {
-            if (blockName.contains(blocksThatIgnoreInteractRestriction.toLowerCase(Locale.ROOT))) return;
+        var targetBlock = event.getTargetBlock();
+        int blockId = store.getExternalData().getWorld().getBlock(targetBlock.getX(), targetBlock.getY(), targetBlock.getZ());
+        if (!BlockInteractionTable.isIgnored(blockId)) {
+            Ref<EntityStore> ref = archetypeChunk.getReferenceTo(index);
+            Player player = store.getComponent(ref, Player.getComponentType());
+            PlayerRef playerRef = store.getComponent(ref, PlayerRef.getComponentType());
+            if (playerRef != null && !ClaimManager.getInstance().isAllowedToInteract(playerRef.getUuid(), player.getWorld().getName(), event.getTargetBlock().getX(), event.getTargetBlock().getZ(), PartyInfo::isBlockBreakEnabled, PartyOverrides.PARTY_PROTECTION_BREAK_BLOCKS)) {
+                event.setCancelled(true);
+            }
         }
-
-        Ref<EntityStore> ref = archetypeChunk.getReferenceTo(index);
-        Player player = store.getComponent(ref, Player.getComponentType());
-        PlayerRef playerRef = store.getComponent(ref, PlayerRef.getComponentType());
-        if (playerRef != null && !ClaimManager.getInstance().isAllowedToInteract(playerRef.getUuid(), player.getWorld().getName(), event.getTargetBlock().getX(), event.getTargetBlock().getZ(), PartyInfo::isBlockBreakEnabled, PartyOverrides.PARTY_PROTECTION_BREAK_BLOCKS)) {
-            event.setCancelled(true);
+        if (!event.isCancelled()) {
+            TerrainImageCache.invalidateBlock(store.getExternalData().getWorld().getName(), event.getTargetBlock().getX(), event.getTargetBlock().getZ());
+            ChunkInfoMapCache.invalidateBlock(store.getExternalData().getWorld().getName(), event.getTargetBlock().getX(), event.getTargetBlock().getZ());
         }
     }
 
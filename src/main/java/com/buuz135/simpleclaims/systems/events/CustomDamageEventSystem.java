@@ -42,7 +42,10 @@ public class CustomDamageEventSystem extends DamageEventSystem {
                 if (attackerPlayerComponent != null) { //The source is a player
                     // && !ClaimManager.getInstance().isAllowedToInteract(playerRef.getUuid(), player.getWorld().getName(), (int) transform.getX(), (int) transform.getZ(), PartyInfo::isPVPEnabled)) {
                     var chunk = ClaimManager.getInstance().getChunkRawCoords(player.getWorld().getName(), (int) transform.getX(), (int) transform.getZ());
-                    if (chunk != null) {
+                    if (ClaimManager.getInstance().isDimensionLoading(player.getWorld().getName())) {
+                        // The chunk may be claimed with PvP off, it isn't known until the claims of the world are loaded
+                        damage.setCancelled(true);
+                    } else if (chunk != null) {
                         var partyInfo = ClaimManager.getInstance().getPartyById(chunk.getPartyOwner());
                         if (partyInfo != null && !partyInfo.isPVPEnabled()) {
                             damage.setCancelled(true);
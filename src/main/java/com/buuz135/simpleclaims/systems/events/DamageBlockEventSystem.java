@@ -1,9 +1,9 @@
 package com.buuz135.simpleclaims.systems.events;
 
-import com.buuz135.simpleclaims.Main;
 import com.buuz135.simpleclaims.claim.ClaimManager;
 import com.buuz135.simpleclaims.claim.party.PartyInfo;
 import com.buuz135.simpleclaims.claim.party.PartyOverrides;
+import com.buuz135.simpleclaims.util.BlockInteractionTable;
 import com.hypixel.hytale.component.ArchetypeChunk;
 import com.hypixel.hytale.component.CommandBuffer;
 import com.hypixel.hytale.component.Ref;
@@ -21,7 +21,6 @@ import org.checkerframework.checker.nullness.compatqual.NonNullDecl;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Collections;
-import java.util.Locale;
 import java.util.Set;
 
 
@@ -33,11 +32,9 @@ public class DamageBlockEventSystem extends EntityEventSystem<EntityStore, Damag
 
     @Override
     public void handle(final int index, @Nonnull final ArchetypeChunk<EntityStore> archetypeChunk, @Nonnull final Store<EntityStore> store, @Nonnull final CommandBuffer<EntityStore> commandBuffer, @Nonnull final DamageBlockEvent event) {
-        var blockName = event.getBlockType().getId().toLowerCase(Locale.ROOT);
-
-        for (String blocksThatIgnoreInteractRestriction : Main.CONFIG.get().getBlocksThatIgnoreInteractRestrictions()) {
-            if (blockName.contains(blocksThatIgnoreInteractRestriction.toLowerCase(Locale.ROOT))) return;
-        }
+        var targetBlock = event.getTargetBlock();
+        int blockId = store.getExternalData().getWorld().getBlock(targetBlock.getX(), targetBlock.getY(), targetBlock.getZ());
+        if (BlockInteractionTable.isIgnored(blockId)) return;
 
         Ref<EntityStore> ref = archetypeChunk.getReferenceTo(index);
         Player player = store.getComponent(ref, Player.getComponentType());
@@ -1,9 +1,11 @@
 package com.buuz135.simpleclaims.systems.events;
 
-import com.buuz135.simpleclaims.Main;
 import com.buuz135.simpleclaims.claim.ClaimManager;
 import com.buuz135.simpleclaims.claim.party.PartyInfo;
 import com.buuz135.simpleclaims.claim.party.PartyOverrides;
+import com.buuz135.simpleclaims.gui.ChunkInfoMapCache;
+import com.buuz135.simpleclaims.map.TerrainImageCache;
+import com.buuz135.simpleclaims.util.BlockInteractionTable;
 import com.hypixel.hytale.component.CommandBuffer;
 import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.component.dependency.Dependency;
@@ -15,7 +17,6 @@ import org.checkerframework.checker.nullness.compatqual.NonNullDecl;
 
 import javax.annotation.Nonnull;
 import java.util.Collections;
-import java.util.Locale;
 import java.util.Set;
 
 /**
@@ -37,19 +38,18 @@ public class GlobalBreakBlockEventSystem extends WorldEventSystem<EntityStore, B
         String worldName = world.getName();
         if (worldName == null) return;
 
-        var blockName = event.getBlockType().getId().toLowerCase(Locale.ROOT);
-
-        for (String blocksThatIgnoreInteractRestriction : Main.CONFIG.get().getBlocksThatIgnoreInteractRestrictions()) {
-            if (blockName.contains(blocksThatIgnoreInteractRestriction.toLowerCase(Locale.ROOT))) return;
-        }
-
         int x = event.getTargetBlock().getX();
         int z = event.getTargetBlock().getZ();
+        int blockId = world.getBlock(x, event.getTargetBlock().getY(), z);
 
         // Block all global break events in claimed chunks
-        if (!ClaimManager.getInstance().isAllowedToInteract(null, worldName, x, z, PartyInfo::isBlockBreakEnabled, PartyOverrides.PARTY_PROTECTION_BREAK_BLOCKS)) {
+        if (!BlockInteractionTable.isIgnored(blockId) && !ClaimManager.getInstance().isAllowedToInteract(null, worldName, x, z, PartyInfo::isBlockBreakEnabled, PartyOverrides.PARTY_PROTECTION_BREAK_BLOCKS)) {
             event.setCancelled(true);
         }
+        if (!event.isCancelled()) {
+            TerrainImageCache.invalidateBlock(worldName, x, z);
+            ChunkInfoMapCache.invalidateBlock(worldName, x, z);
+        }
     }
 
     @NonNullDecl
@@ -1,9 +1,9 @@
 package com.buuz135.simpleclaims.systems.events;
 
-import com.buuz135.simpleclaims.Main;
 import com.buuz135.simpleclaims.claim.ClaimManager;
 import com.buuz135.simpleclaims.claim.party.PartyInfo;
 import com.buuz135.simpleclaims.claim.party.PartyOverrides;
+import com.buuz135.simpleclaims.util.BlockInteractionTable;
 import com.hypixel.hytale.component.CommandBuffer;
 import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.component.dependency.Dependency;
@@ -15,7 +15,6 @@ import org.checkerframework.checker.nullness.compatqual.NonNullDecl;
 
 import javax.annotation.Nonnull;
 import java.util.Collections;
-import java.util.Locale;
 import java.util.Set;
 
 /**
@@ -39,12 +38,9 @@ public class GlobalDamageBlockEventSystem extends WorldEventSystem<EntityStore,
 
         int x = event.getTargetBlock().getX();
         int z = event.getTargetBlock().getZ();
+        int blockId = world.getBlock(x, event.getTargetBlock().getY(), z);
 
-        var blockName = event.getBlockType().getId().toLowerCase(Locale.ROOT);
-
-        for (String blocksThatIgnoreInteractRestriction : Main.CONFIG.get().getBlocksThatIgnoreInteractRestrictions()) {
-            if (blockName.contains(blocksThatIgnoreInteractRestriction.toLowerCase(Locale.ROOT))) return;
-        }
+        if (BlockInteractionTable.isIgnored(blockId)) return;
 
         // Block all global damage events in claimed chunks
         if (!ClaimManager.getInstance().isAllowedToInteract(null, worldName, x, z, PartyInfo::isBlockBreakEnabled, PartyOverrides.PARTY_PROTECTION_BREAK_BLOCKS)) {
@@ -1,11 +1,10 @@
 package com.buuz135.simpleclaims.systems.events;
 
-import com.buuz135.simpleclaims.Main;
 import com.buuz135.simpleclaims.claim.ClaimManager;
 import com.buuz135.simpleclaims.claim.party.PartyInfo;
-import com.buuz135.simpleclaims.claim.party.PartyOverrides;
 import com.buuz135.simpleclaims.systems.tick.CraftingUiQuantitiesSystem;
 import com.buuz135.simpleclaims.util.BenchChestCache;
+import com.buuz135.simpleclaims.util.BlockInteractionTable;
 import com.buuz135.simpleclaims.util.WindowExtraResourcesState;
 import com.hypixel.hytale.builtin.crafting.state.BenchState;
 import com.hypixel.hytale.component.ArchetypeChunk;
@@ -31,7 +30,6 @@ import org.checkerframework.checker.nullness.compatqual.NonNullDecl;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Collections;
-import java.util.Locale;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -47,22 +45,14 @@ public class InteractEventSystem extends EntityEventSystem<EntityStore, UseBlock
         Ref<EntityStore> ref = archetypeChunk.getReferenceTo(index);
         Player player = store.getComponent(ref, Player.getComponentType());
         PlayerRef playerRef = store.getComponent(ref, PlayerRef.getComponentType());
-        Predicate<PartyInfo> defaultInteract = PartyInfo::isBlockInteractEnabled;
-        String permission = PartyOverrides.PARTY_PROTECTION_INTERACT;
-        var blockName = event.getBlockType().getId().toLowerCase(Locale.ROOT);
-        var ignored = false;
-
-        for (String blocksThatIgnoreInteractRestriction : Main.CONFIG.get().getBlocksThatIgnoreInteractRestrictions()) {
-            if (blockName.contains(blocksThatIgnoreInteractRestriction.toLowerCase(Locale.ROOT))) ignored = true;
-        }
-
-        if (blockName.contains("chest")) {
-            defaultInteract = PartyInfo::isChestInteractEnabled;
-            permission = PartyOverrides.PARTY_PROTECTION_INTERACT_CHEST;
-        } else if (blockName.contains("bench") && !blockName.contains("furniture")) {
-            defaultInteract = PartyInfo::isBenchInteractEnabled;
-            permission = PartyOverrides.PARTY_PROTECTION_INTERACT_BENCH;
-
+        World world = store.getExternalData().getWorld();
+        var targetBlock = event.getTargetBlock();
+        int blockId = world.getBlock(targetBlock.getX(), targetBlock.getY(), targetBlock.getZ());
+        var category = BlockInteractionTable.getCategory(blockId);
+        Predicate<PartyInfo> defaultInteract = category.getDefaultInteract();
+        String permission = category.getPermission();
+
+        if (category == BlockInteractionTable.Category.BENCH) {
             if (playerRef != null && !ClaimManager.getInstance().isAllowedToInteract(playerRef.getUuid(), player.getWorld().getName(), event.getTargetBlock().getX(), event.getTargetBlock().getZ(), defaultInteract, permission)) {
                 event.setCancelled(true);
                 playerRef.getPacketHandler().getChannel().attr(WindowExtraResourcesState.NEXT_OPEN_EXTRA).set(null);
@@ -71,26 +61,15 @@ public class InteractEventSystem extends EntityEventSystem<EntityStore, UseBlock
 
             PacketHandler ph = playerRef.getPacketHandler();
             var ch = ph.getChannel();
-            World world = player.getWorld();
 
-            var targetBlock = event.getTargetBlock();
             ExtraResources next = buildExtraResourcesForBench(world, playerRef, targetBlock.getX(), targetBlock.getY(), targetBlock.getZ());
             if (next != null) {
                 ch.attr(WindowExtraResourcesState.NEXT_OPEN_EXTRA).set(next);
                 WindowExtraResourcesState.getOrCreateBenchSet(ch).add(0); // provisional id
             }
             return;
-        } else if (blockName.contains("door")) {
-            defaultInteract = PartyInfo::isDoorInteractEnabled;
-            permission = PartyOverrides.PARTY_PROTECTION_INTERACT_DOOR;
-        } else if (blockName.contains("chair") || blockName.contains("stool") || (blockName.contains("bench") && blockName.contains("furniture"))) {
-            defaultInteract = PartyInfo::isChairInteractEnabled;
-            permission = PartyOverrides.PARTY_PROTECTION_INTERACT_CHAIR;
-        } else if (blockName.contains("portal") || blockName.contains("teleporter")) {
-            defaultInteract = PartyInfo::isPortalInteractEnabled;
-            permission = PartyOverrides.PARTY_PROTECTION_INTERACT_PORTAL;
         }
-        if (!ignored && (playerRef != null && !ClaimManager.getInstance().isAllowedToInteract(playerRef.getUuid(), player.getWorld().getName(), event.getTargetBlock().getX(), event.getTargetBlock().getZ(), defaultInteract, permission))) {
+        if (!BlockInteractionTable.isIgnored(blockId) && (playerRef != null && !ClaimManager.getInstance().isAllowedToInteract(playerRef.getUuid(), player.getWorld().getName(), event.getTargetBlock().getX(), event.getTargetBlock().getZ(), defaultInteract, permission))) {
             event.setCancelled(true);
         }
     }
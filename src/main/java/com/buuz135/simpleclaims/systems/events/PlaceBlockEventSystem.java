@@ -3,6 +3,8 @@ package com.buuz135.simpleclaims.systems.events;
 import com.buuz135.simpleclaims.claim.ClaimManager;
 import com.buuz135.simpleclaims.claim.party.PartyInfo;
 import com.buuz135.simpleclaims.claim.party.PartyOverrides;
+import com.buuz135.simpleclaims.gui.ChunkInfoMapCache;
+import com.buuz135.simpleclaims.map.TerrainImageCache;
 import com.hypixel.hytale.component.ArchetypeChunk;
 import com.hypixel.hytale.component.CommandBuffer;
 import com.hypixel.hytale.component.Ref;
@@ -37,6 +39,10 @@ public class PlaceBlockEventSystem extends EntityEventSystem<EntityStore, PlaceB
         if (playerRef != null && !ClaimManager.getInstance().isAllowedToInteract(playerRef.getUuid(), player.getWorld().getName(), event.getTargetBlock().getX(), event.getTargetBlock().getZ(), PartyInfo::isBlockPlaceEnabled, PartyOverrides.PARTY_PROTECTION_PLACE_BLOCKS)) {
            event.setCancelled(true);
        }
+       if (!event.isCancelled()) {
+           TerrainImageCache.invalidateBlock(store.getExternalData().getWorld().getName(), event.getTargetBlock().getX(), event.getTargetBlock().getZ());
+           ChunkInfoMapCache.invalidateBlock(store.getExternalData().getWorld().getName(), event.getTargetBlock().getX(), event.getTargetBlock().getZ());
+       }
     }
 
     @Nullable
@@ -1,6 +1,7 @@
 package com.buuz135.simpleclaims.systems.tick;
 
 
+import com.buuz135.simpleclaims.Main;
 import com.buuz135.simpleclaims.claim.ClaimManager;
 import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.component.system.DelayedSystem;
@@ -8,29 +9,51 @@ import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.ChunkStore;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import org.checkerframework.checker.nullness.compatqual.NonNullDecl;
 
 public class WorldMapUpdateTickingSystem extends DelayedSystem<ChunkStore> {
 
 
     public WorldMapUpdateTickingSystem() {
-        super(3);
+        super(1);
     }
 
     @Override
     public void delayedTick(float v, int i, @NonNullDecl Store<ChunkStore> store) {
         World world = store.getExternalData().getWorld();
-        if (ClaimManager.getInstance().getMapUpdateQueue().containsKey(world.getName())) {
-            final var chunks = ClaimManager.getInstance().getMapUpdateQueue().get(world.getName());
-            world.execute(() -> {
+        var invalidations = ClaimManager.getInstance().getMapInvalidations();
+        final var chunks = invalidations.poll(world.getName(), Main.CONFIG.get().getMapUpdateDebounceMillis());
+        if (chunks == null) return;
+        world.execute(() -> {
+            try {
                 world.getWorldMapManager().clearImagesInChunks(chunks);
-                for (PlayerRef playerRef : world.getPlayerRefs()) {
-                    var player = world.getEntityStore().getStore().getComponent(playerRef.getReference(), Player.getComponentType());
-                    player.getWorldMapTracker().clearChunks(chunks);
-                }
-            });
-            ClaimManager.getInstance().getMapUpdateQueue().remove(world.getName());
-            ClaimManager.getInstance().getWorldsNeedingUpdates().remove(world.getName());
+                sendToPlayers(world, chunks);
+            } finally {
+                invalidations.release(world.getName());
+            }
+        });
+    }
+
+    /**
+     * Clears the chunks on the map of the players whose map tracker holds them, players with none of them loaded are skipped.
+     * A chunk a tracker doesn't hold is sent fresh once it loads it, so no map keeps a stale tile
+     */
+    private static void sendToPlayers(World world, LongSet chunks) {
+        for (PlayerRef playerRef : world.getPlayerRefs()) {
+            var player = world.getEntityStore().getStore().getComponent(playerRef.getReference(), Player.getComponentType());
+            if (player == null) continue;
+            var tracker = player.getWorldMapTracker();
+            LongSet loaded = null;
+            for (LongIterator iterator = chunks.iterator(); iterator.hasNext(); ) {
+                long index = iterator.nextLong();
+                if (!tracker.isLoaded(index)) continue;
+                if (loaded == null) loaded = new LongOpenHashSet();
+                loaded.add(index);
+            }
+            if (loaded != null) tracker.clearChunks(loaded);
         }
     }
 
@@ -0,0 +1,36 @@
+package com.buuz135.simpleclaims.util;
+
+import com.buuz135.simpleclaims.Main;
+import com.buuz135.simpleclaims.claim.ClaimManager;
+
+public class BackupThread extends Thread {
+
+    private volatile boolean running = true;
+
+    public BackupThread() {
+        this.setName("SimpleClaims-Backup");
+        this.setDaemon(true);
+        // The copy competes with the writer for the disk, the game doesn't wait for it
+        this.setPriority(Thread.MIN_PRIORITY);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                Thread.sleep(Math.max(1, Main.CONFIG.get().getBackupIntervalMinutes()) * 60_000L);
+                ClaimManager.getInstance().getBackups().backup();
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+    }
+
+    /**
+     * Stops the thread, a backup in progress is waited for by the shutdown of the {@link ClaimManager}
+     */
+    public void stopThread() {
+        running = false;
+        this.interrupt();
+    }
+}
@@ -0,0 +1,139 @@
+package com.buuz135.simpleclaims.util;
+
+import com.buuz135.simpleclaims.Main;
+import com.buuz135.simpleclaims.claim.party.PartyInfo;
+import com.buuz135.simpleclaims.claim.party.PartyOverrides;
+import com.buuz135.simpleclaims.config.SimpleClaimsConfig;
+import com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Interaction category and ignore flag of every block type, indexed by the block type asset id.
+ * Built the first time it is used and rebuilt when the block types are reloaded or the config is (a reload replaces the config instance the table
+ * was built from), so classifying a block is an array load
+ * instead of lowercasing its id and matching it against every name.
+ */
+public final class BlockInteractionTable {
+
+    public enum Category {
+        DEFAULT(PartyInfo::isBlockInteractEnabled, PartyOverrides.PARTY_PROTECTION_INTERACT),
+        CHEST(PartyInfo::isChestInteractEnabled, PartyOverrides.PARTY_PROTECTION_INTERACT_CHEST),
+        BENCH(PartyInfo::isBenchInteractEnabled, PartyOverrides.PARTY_PROTECTION_INTERACT_BENCH),
+        DOOR(PartyInfo::isDoorInteractEnabled, PartyOverrides.PARTY_PROTECTION_INTERACT_DOOR),
+        CHAIR(PartyInfo::isChairInteractEnabled, PartyOverrides.PARTY_PROTECTION_INTERACT_CHAIR),
+        PORTAL(PartyInfo::isPortalInteractEnabled, PartyOverrides.PARTY_PROTECTION_INTERACT_PORTAL);
+
+        private static final Category[] VALUES = values();
+
+        private final Predicate<PartyInfo> defaultInteract;
+        private final String permission;
+
+        Category(Predicate<PartyInfo> defaultInteract, String permission) {
+            this.defaultInteract = defaultInteract;
+            this.permission = permission;
+        }
+
+        public Predicate<PartyInfo> getDefaultInteract() {
+            return defaultInteract;
+        }
+
+        public String getPermission() {
+            return permission;
+        }
+    }
+
+    private static final int IGNORED = 0x80;
+    private static final int CATEGORY_MASK = 0x7F;
+
+    private record Table(byte[] categories, SimpleClaimsConfig config) {}
+
+    private static volatile Table table;
+
+    private BlockInteractionTable() {}
+
+    /**
+     * Recomputes the table from the loaded block types and the current config, returning the categories it built
+     */
+    public static synchronized byte[] rebuild() {
+        SimpleClaimsConfig config = Main.CONFIG.get();
+        String[] ignoredNames = getIgnoredNames(config);
+        var assetMap = BlockType.getAssetMap();
+        Map<String, BlockType> assets = assetMap.getAssetMap();
+        int size = 0;
+        for (String id : assets.keySet()) {
+            size = Math.max(size, assetMap.getIndex(id) + 1);
+        }
+        byte[] next = new byte[size];
+        for (String id : assets.keySet()) {
+            int index = assetMap.getIndex(id);
+            if (index >= 0) next[index] = classify(id, ignoredNames);
+        }
+        table = new Table(next, config);
+        return next;
+    }
+
+    /**
+     * Drops the table, it gets rebuilt the next time a block is classified
+     */
+    public static void invalidate() {
+        table = null;
+    }
+
+    public static Category getCategory(int blockId) {
+        return Category.VALUES[lookup(blockId) & CATEGORY_MASK];
+    }
+
+    public static boolean isIgnored(int blockId) {
+        return (lookup(blockId) & IGNORED) != 0;
+    }
+
+    private static int lookup(int blockId) {
+        byte[] current = getTable();
+        if (blockId >= 0 && blockId < current.length) return current[blockId];
+        // Asset registered after the table was built, classify it on the spot
+        BlockType blockType = (BlockType) BlockType.getAssetMap().getAsset(blockId);
+        return blockType == null ? 0 : classify(blockType.getId(), getIgnoredNames(Main.CONFIG.get()));
+    }
+
+    private static byte[] getTable() {
+        Table current = table;
+        if (current == null || current.config != Main.CONFIG.get()) return rebuild();
+        return current.categories;
+    }
+
+    private static String[] getIgnoredNames(SimpleClaimsConfig config) {
+        String[] configured = config.getBlocksThatIgnoreInteractRestrictions();
+        String[] names = new String[configured.length];
+        for (int i = 0; i < configured.length; i++) {
+            names[i] = configured[i].toLowerCase(Locale.ROOT);
+        }
+        return names;
+    }
+
+    private static byte classify(String id, String[] ignoredNames) {
+        String blockName = id.toLowerCase(Locale.ROOT);
+        Category category = Category.DEFAULT;
+        if (blockName.contains("chest")) {
+            category = Category.CHEST;
+        } else if (blockName.contains("bench") && !blockName.contains("furniture")) {
+            category = Category.BENCH;
+        } else if (blockName.contains("door")) {
+            category = Category.DOOR;
+        } else if (blockName.contains("chair") || blockName.contains("stool") || (blockName.contains("bench") && blockName.contains("furniture"))) {
+            category = Category.CHAIR;
+        } else if (blockName.contains("portal") || blockName.contains("teleporter")) {
+            category = Category.PORTAL;
+        }
+        int value = category.ordinal();
+        for (String ignoredName : ignoredNames) {
+            if (blockName.contains(ignoredName)) {
+                value |= IGNORED;
+                break;
+            }
+        }
+        return (byte) value;
+    }
+}
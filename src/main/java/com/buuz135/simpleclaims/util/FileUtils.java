@@ -24,6 +24,13 @@ public class FileUtils {
     public static String NAMES_CACHE_PATH = MAIN_PATH + File.separator + "NameCache.json";
     public static String ADMIN_OVERRIDES_PATH = MAIN_PATH + File.separator + "AdminOverrides.json";
     public static String DATABASE_PATH = MAIN_PATH + File.separator + "SimpleClaims.db";
+    // H2 adds its own .mv.db extension
+    public static String H2_DATABASE_PATH = MAIN_PATH + File.separator + "SimpleClaims";
+    public static String MIGRATED_MARKER_PATH = MAIN_PATH + File.separator + ".migrated";
+    public static String PENDING_WRITES_PATH = MAIN_PATH + File.separator + "PendingWrites.txt";
+    public static String BACKUPS_PATH = MAIN_PATH + File.separator + "Backups";
+    // Holds the name of the backup to restore at the next startup
+    public static String RESTORE_BACKUP_PATH = MAIN_PATH + File.separator + "RestoreBackup.txt";
 
     public static void ensureDirectory(String path){
         var file = new File(path);
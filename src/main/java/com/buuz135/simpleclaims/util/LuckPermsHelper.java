@@ -26,12 +26,17 @@ public class LuckPermsHelper {
             user = userManager.loadUser(uuid).join();
         }
         if (user != null) {
-            user.getNodes(NodeType.PERMISSION).stream().map(PermissionNode::getPermission).forEach(list::add);
-            for (Group inheritedGroup : user.getInheritedGroups(QueryOptions.builder(QueryMode.NON_CONTEXTUAL).build())) {
-                inheritedGroup.getNodes(NodeType.PERMISSION).stream().map(PermissionNode::getPermission).forEach(list::add);
-            }
+            list.addAll(getPerms(user));
+        }
+        return list;
+    }
+
+    public static HashSet<String> getPerms(User user) {
+        var list = new HashSet<String>();
+        user.getNodes(NodeType.PERMISSION).stream().map(PermissionNode::getPermission).forEach(list::add);
+        for (Group inheritedGroup : user.getInheritedGroups(QueryOptions.builder(QueryMode.NON_CONTEXTUAL).build())) {
+            inheritedGroup.getNodes(NodeType.PERMISSION).stream().map(PermissionNode::getPermission).forEach(list::add);
         }
-        ;
         return list;
     }
 }
@@ -0,0 +1,34 @@
+package com.buuz135.simpleclaims.util;
+
+import com.buuz135.simpleclaims.Main;
+import com.buuz135.simpleclaims.claim.ClaimManager;
+
+public class NameCacheFlushThread extends Thread {
+
+    private volatile boolean running = true;
+
+    public NameCacheFlushThread() {
+        this.setName("SimpleClaims-NameCacheFlush");
+        this.setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                Thread.sleep(Math.max(1, Main.CONFIG.get().getNameCacheFlushIntervalSeconds()) * 1000L);
+                ClaimManager.getInstance().flushNameCache();
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+    }
+
+    /**
+     * Stops the thread, the names still pending are flushed by the shutdown of the {@link ClaimManager}
+     */
+    public void stopThread() {
+        running = false;
+        this.interrupt();
+    }
+}
@@ -4,7 +4,7 @@ import com.buuz135.simpleclaims.claim.ClaimManager;
 
 public class PartyInactivityThread extends Thread {
 
-    private boolean running = true;
+    private volatile boolean running = true;
 
     public PartyInactivityThread() {
         this.setName("PartyInactivityTickingSystem");
@@ -16,7 +16,7 @@ public class PartyInactivityThread extends Thread {
         try {
             Thread.sleep(30 * 1000);
         } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+            return;
         }
         while (running) {
             try {
@@ -28,8 +28,16 @@ public class PartyInactivityThread extends Thread {
         }
     }
 
-    public void stopThread() {
+    /**
+     * Stops the thread and waits for a running inactivity check to finish, so it doesn't queue writes after the shutdown drain
+     */
+    public void stopThread(long timeoutMs) {
         running = false;
         this.interrupt();
+        try {
+            this.join(Math.max(1, timeoutMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 }
@@ -0,0 +1,130 @@
+package com.buuz135.simpleclaims.util;
+
+import com.buuz135.simpleclaims.Main;
+import com.buuz135.simpleclaims.claim.ClaimManager;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.universe.Universe;
+import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.event.group.GroupDataRecalculateEvent;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+
+/**
+ * Caches the resolved numeric permissions of players so claim limits can be read from world threads.
+ * Online players are resolved in place. Offline players are never resolved on the calling thread, loading them can block on the permission
+ * storage: party members are warmed in the background when the parties load and when they join a party, a miss counts as having none of
+ * the permissions until the background resolve lands, and expired entries keep their values while they are resolved again. This is the only expiry of the permission values, the party limits built from them
+ * expire with the entries they were built from. Entries are refreshed right away when LuckPerms recalculates a user or a group.
+ */
+public final class PermissionCache {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private record Entry(long expiresAtMs, Permissions.Limits limits) {}
+
+    private static final Map<UUID, Entry> CACHE = new ConcurrentHashMap<>();
+    private static final Set<UUID> LOADING = ConcurrentHashMap.newKeySet();
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "SimpleClaims-Permissions");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static volatile boolean subscribedLuckPerms = false;
+
+    private PermissionCache() {}
+
+    public static Permissions.Limits get(UUID uuid) {
+        Entry entry = CACHE.get(uuid);
+        if (entry != null && System.currentTimeMillis() < entry.expiresAtMs) return entry.limits;
+        if (Universe.get().getPlayer(uuid) != null) return refresh(uuid);
+        warm(uuid);
+        // The party limits built from this expire right away, they are built again once the resolve lands
+        return entry != null ? entry.limits : Permissions.Limits.NONE;
+    }
+
+    /**
+     * When the cached permissions of the player expire, 0 when they aren't cached
+     */
+    public static long getExpiresAt(UUID uuid) {
+        Entry entry = CACHE.get(uuid);
+        return entry != null ? entry.expiresAtMs : 0;
+    }
+
+    /**
+     * Resolves the permissions of the player in the background if they aren't cached yet
+     */
+    public static void warm(UUID uuid) {
+        Entry entry = CACHE.get(uuid);
+        if (entry != null && System.currentTimeMillis() < entry.expiresAtMs) return;
+        if (EXECUTOR.isShutdown() || !LOADING.add(uuid)) return;
+        EXECUTOR.submit(() -> {
+            try {
+                refresh(uuid);
+            } catch (Exception e) {
+                LOGGER.at(Level.WARNING).log("Failed to resolve permissions of " + uuid + ": " + e.getMessage());
+            } finally {
+                LOADING.remove(uuid);
+            }
+        });
+    }
+
+    /**
+     * Marks the cached permissions of the player as stale, the old values are kept until they are resolved again
+     */
+    public static void invalidate(UUID uuid) {
+        if (CACHE.computeIfPresent(uuid, (key, entry) -> new Entry(0, entry.limits)) != null) warm(uuid);
+    }
+
+    public static void invalidateAll() {
+        for (UUID uuid : CACHE.keySet()) {
+            invalidate(uuid);
+        }
+    }
+
+    /**
+     * Stops resolving permissions in the background, called when the plugin shuts down
+     */
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+    private static Permissions.Limits refresh(UUID uuid) {
+        return update(uuid, Permissions.resolve(uuid));
+    }
+
+    private static Permissions.Limits update(UUID uuid, Permissions.Limits limits) {
+        var ttl = Math.max(0, Main.CONFIG.get().getPermissionCacheSeconds()) * 1000L;
+        var previous = CACHE.put(uuid, new Entry(System.currentTimeMillis() + ttl, limits));
+        if (previous == null || !previous.limits.equals(limits)) {
+            var party = ClaimManager.getInstance().getPartyFromPlayer(uuid);
+            if (party != null) party.invalidatePermissionLimits();
+        }
+        return limits;
+    }
+
+    /**
+     * Listens to LuckPerms recalculations, called the first time LuckPerms is used to resolve a player
+     */
+    static void subscribeLuckPerms() {
+        if (subscribedLuckPerms) return;
+        synchronized (PermissionCache.class) {
+            if (subscribedLuckPerms) return;
+            subscribedLuckPerms = true;
+            var eventBus = LuckPermsProvider.get().getEventBus();
+            // The recalculated user is already loaded, so it is resolved in place instead of loading it again
+            eventBus.subscribe(UserDataRecalculateEvent.class, event -> {
+                var uuid = event.getUser().getUniqueId();
+                if (CACHE.containsKey(uuid)) update(uuid, Permissions.resolve(LuckPermsHelper.getPerms(event.getUser())));
+            });
+            eventBus.subscribe(GroupDataRecalculateEvent.class, event -> invalidateAll());
+        }
+    }
+}
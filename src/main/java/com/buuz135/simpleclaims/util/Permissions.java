@@ -3,8 +3,8 @@ package com.buuz135.simpleclaims.util;
 import com.hypixel.hytale.server.core.permissions.PermissionsModule;
 import com.hypixel.hytale.server.core.permissions.provider.PermissionProvider;
 
+import java.util.Collection;
 import java.util.HashSet;
-import java.util.Set;
 import java.util.UUID;
 
 public class Permissions {
@@ -13,49 +13,74 @@ public class Permissions {
     public static final String MAX_ADD_CHUNK_AMOUNT = "simpleclaims.admin.max_add_chunk_amount";
     public static final String CLAIM_CHUNK_GAIN_MINUTES = "simpleclaims.player.claim_chunk_gain_minutes";
 
+    /**
+     * Numeric permission values of a player, -1 when the player doesn't have the permission
+     */
+    public record Limits(int claimAmount, int maxAddChunkAmount, int claimChunkGainMinutes) {
+
+        public static final Limits NONE = new Limits(-1, -1, -1);
+
+    }
+
     public static int getPermissionClaimAmount(UUID uuid) { //TODO Check of admin parties
-        return getIntPermission(uuid, CLAIM_CHUNK_AMOUNT);
+        return PermissionCache.get(uuid).claimAmount();
     }
 
     public static int getPermissionMaxAddChunkAmount(UUID uuid) {
-        return getIntPermission(uuid, MAX_ADD_CHUNK_AMOUNT);
+        return PermissionCache.get(uuid).maxAddChunkAmount();
     }
 
     public static int getPermissionClaimChunkGainMinutes(UUID uuid) {
-        return getIntPermission(uuid, CLAIM_CHUNK_GAIN_MINUTES);
+        return PermissionCache.get(uuid).claimChunkGainMinutes();
     }
 
-    private static int getIntPermission(UUID uuid, String permissionNode) {
-        int amount = -1;
+    /**
+     * Resolves every numeric permission of the player in a single pass over its nodes, this can block on the permission storage
+     */
+    public static Limits resolve(UUID uuid) {
+        int[] amounts = {-1, -1, -1};
         for (PermissionProvider provider : PermissionsModule.get().getProviders()) {
             if (provider.getName().equals("LuckPerms")) {
-                for (String perm : LuckPermsHelper.getPerms(uuid)) {
-                    if (perm.startsWith(permissionNode + ".")) {
-                        try {
-                            var parsed = Integer.parseInt(perm.replace(permissionNode + ".", ""));
-                            if (parsed > amount) amount = parsed;
-                        } catch (NumberFormatException ignored) {
-                        }
-                    }
-                }
-                return amount;
+                PermissionCache.subscribeLuckPerms();
+                collect(LuckPermsHelper.getPerms(uuid), amounts);
+                return new Limits(amounts[0], amounts[1], amounts[2]);
             }
             var userNodes = new HashSet<String>();
             userNodes.addAll(provider.getUserPermissions(uuid));
             for (String s : provider.getGroupsForUser(uuid)) {
                 userNodes.addAll(provider.getGroupPermissions(s));
             }
-            for (String node : userNodes) {
-                if (node.startsWith(permissionNode + ".")) {
-                    try {
-                        var parsed = Integer.parseInt(node.replace(permissionNode + ".", ""));
-                        if (parsed > amount) amount = parsed;
-                    } catch (NumberFormatException ignored) {
-                    }
-                }
-            }
+            collect(userNodes, amounts);
+        }
+
+        return new Limits(amounts[0], amounts[1], amounts[2]);
+    }
+
+    /**
+     * Resolves the numeric permissions out of already loaded permission nodes
+     */
+    public static Limits resolve(Collection<String> nodes) {
+        int[] amounts = {-1, -1, -1};
+        collect(nodes, amounts);
+        return new Limits(amounts[0], amounts[1], amounts[2]);
+    }
+
+    private static void collect(Collection<String> nodes, int[] amounts) {
+        for (String node : nodes) {
+            amounts[0] = Math.max(amounts[0], parse(node, CLAIM_CHUNK_AMOUNT));
+            amounts[1] = Math.max(amounts[1], parse(node, MAX_ADD_CHUNK_AMOUNT));
+            amounts[2] = Math.max(amounts[2], parse(node, CLAIM_CHUNK_GAIN_MINUTES));
         }
+    }
 
-        return amount;
+    private static int parse(String node, String permissionNode) {
+        if (node.length() <= permissionNode.length() + 1 || !node.startsWith(permissionNode) || node.charAt(permissionNode.length()) != '.') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(node.substring(permissionNode.length() + 1));
+        } catch (NumberFormatException ignored) {
+            return -1;
+        }
     }
 }
@@ -102,7 +102,7 @@ public final class TypeConversion {
         return typeName.trim().toLowerCase(Locale.ROOT);
     }
 
-    private static boolean parseBooleanFlexible(String value) {
+    public static boolean parseBooleanFlexible(String value) {
         if (value == null) return false;
         String v = value.trim().toLowerCase(Locale.ROOT);
         return switch (v) {
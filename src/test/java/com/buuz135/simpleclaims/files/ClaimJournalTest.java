@@ -0,0 +1,163 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.claim.chunk.ChunkInfo;
+import com.buuz135.simpleclaims.claim.chunk.ReservedChunk;
+import com.buuz135.simpleclaims.claim.tracking.ModifiedTracking;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.math.util.ChunkUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimJournalTest {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final int RECORD_SIZE = 128;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsHaveFixedSizeAndChecksum() throws IOException {
+        var journal = new ClaimJournal(LOGGER, directory);
+        journal.claim("default", claim(UUID.randomUUID(), 3, -7));
+        journal.close();
+
+        byte[] bytes = Files.readAllBytes(directory.resolve(ClaimJournal.JOURNAL_FILE));
+        // The dimension record and the claim
+        assertEquals(2 * RECORD_SIZE, bytes.length);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        assertEquals(1, buffer.get(0));
+        assertEquals(2, buffer.get(RECORD_SIZE));
+        assertEquals(3, buffer.getInt(RECORD_SIZE + 5));
+        assertEquals(-7, buffer.getInt(RECORD_SIZE + 9));
+        for (int offset = 0; offset < bytes.length; offset += RECORD_SIZE) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes, offset, RECORD_SIZE - 4);
+            assertEquals((int) crc.getValue(), buffer.getInt(offset + RECORD_SIZE - 4));
+        }
+    }
+
+    @Test
+    void roundTripKeepsEveryField() throws IOException {
+        UUID party = UUID.randomUUID();
+        UUID creator = UUID.randomUUID();
+        var journal = new ClaimJournal(LOGGER, directory);
+        journal.claim("default", new ChunkInfo(party, 10, 20, new ModifiedTracking(creator, "Builder", "2026-01-02T03:04:05")));
+        journal.reserve("nether", new ReservedChunk(party, -1, -2));
+        journal.close();
+
+        var contents = new ClaimJournal(LOGGER, directory).read(dimension -> true);
+        ChunkInfo chunk = contents.claims().get("default").get(ChunkUtil.indexChunk(10, 20));
+        assertEquals(party, chunk.getPartyOwner());
+        assertEquals(creator, chunk.getCreatedTracked().getUserUUID());
+        assertEquals("Builder", chunk.getCreatedTracked().getUserName());
+        assertEquals("2026-01-02T03:04:05", chunk.getCreatedTracked().getDate());
+        assertEquals(party, contents.reservedChunks().get("nether").get(ChunkUtil.indexChunk(-1, -2)).getReservedBy());
+    }
+
+    @Test
+    void partialRecordAtTheEndIsCutOff() throws IOException {
+        var journal = new ClaimJournal(LOGGER, directory);
+        journal.claim("default", claim(UUID.randomUUID(), 0, 0));
+        journal.claim("default", claim(UUID.randomUUID(), 1, 0));
+        journal.close();
+        Path path = directory.resolve(ClaimJournal.JOURNAL_FILE);
+        Files.write(path, new byte[50], StandardOpenOption.APPEND);
+
+        var contents = new ClaimJournal(LOGGER, directory).read(dimension -> true);
+        assertEquals(2, contents.claims().get("default").size());
+        assertEquals(3 * RECORD_SIZE, Files.size(path));
+    }
+
+    @Test
+    void recordWithBadChecksumEndsTheReplay() throws IOException {
+        var journal = new ClaimJournal(LOGGER, directory);
+        journal.claim("default", claim(UUID.randomUUID(), 0, 0));
+        journal.claim("default", claim(UUID.randomUUID(), 1, 0));
+        journal.claim("default", claim(UUID.randomUUID(), 2, 0));
+        journal.close();
+        Path path = directory.resolve(ClaimJournal.JOURNAL_FILE);
+        byte[] bytes = Files.readAllBytes(path);
+        // Torn write in the middle of the third claim
+        bytes[3 * RECORD_SIZE + 20] ^= 0x55;
+        Files.write(path, bytes);
+
+        var reopened = new ClaimJournal(LOGGER, directory);
+        var contents = reopened.read(dimension -> true);
+        assertEquals(2, contents.claims().get("default").size());
+        assertEquals(3 * RECORD_SIZE, Files.size(path));
+        assertEquals(3, reopened.getJournalRecords());
+    }
+
+    @Test
+    void compactionFoldsTheJournalIntoTheSnapshot() throws IOException {
+        UUID party = UUID.randomUUID();
+        var journal = new ClaimJournal(LOGGER, directory);
+        journal.claim("default", claim(party, 0, 0));
+        journal.claim("default", claim(party, 1, 0));
+        journal.unclaim("default", 0, 0);
+        journal.reserve("default", new ReservedChunk(party, 5, 5));
+        journal.flush();
+        journal.compact();
+
+        assertFalse(Files.exists(directory.resolve(ClaimJournal.JOURNAL_FILE)));
+        assertTrue(Files.exists(directory.resolve(ClaimJournal.SNAPSHOT_FILE)));
+        assertEquals(0, journal.getJournalRecords());
+
+        // Records after the compaction keep the dimension ids of the snapshot
+        journal.claim("default", claim(party, 2, 0));
+        journal.close();
+        var contents = new ClaimJournal(LOGGER, directory).read(dimension -> true);
+        var claims = contents.claims().get("default");
+        assertEquals(2, claims.size());
+        assertFalse(claims.containsKey(ChunkUtil.indexChunk(0, 0)));
+        assertTrue(claims.containsKey(ChunkUtil.indexChunk(2, 0)));
+        assertEquals(1, contents.reservedChunks().get("default").size());
+    }
+
+    @Test
+    void rolledBackBatchNeverReachesTheFile() throws IOException {
+        UUID party = UUID.randomUUID();
+        var journal = new ClaimJournal(LOGGER, directory);
+        journal.claim("default", claim(party, 0, 0));
+        journal.flush();
+        journal.begin();
+        journal.claim("other", claim(party, 1, 0));
+        journal.deletePartyChunks(party);
+        journal.rollback();
+        journal.begin();
+        journal.claim("default", claim(party, 2, 0));
+        journal.commit();
+        journal.close();
+
+        var contents = new ClaimJournal(LOGGER, directory).read(dimension -> true);
+        assertNull(contents.claims().get("other"));
+        assertEquals(2, contents.claims().get("default").size());
+    }
+
+    @Test
+    void dimensionFilterSkipsOtherDimensions() throws IOException {
+        var journal = new ClaimJournal(LOGGER, directory);
+        journal.claim("default", claim(UUID.randomUUID(), 0, 0));
+        journal.claim("other", claim(UUID.randomUUID(), 0, 0));
+        journal.close();
+
+        var contents = new ClaimJournal(LOGGER, directory).read("other"::equals);
+        assertNull(contents.claims().get("default"));
+        assertEquals(1, contents.claims().get("other").size());
+    }
+
+    private static ChunkInfo claim(UUID party, int chunkX, int chunkZ) {
+        return new ChunkInfo(party, chunkX, chunkZ, new ModifiedTracking(UUID.randomUUID(), "Tester", "2026-01-01T00:00:00"));
+    }
+}
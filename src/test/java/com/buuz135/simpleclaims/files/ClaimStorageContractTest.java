@@ -0,0 +1,218 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.claim.chunk.ChunkInfo;
+import com.buuz135.simpleclaims.claim.chunk.ReservedChunk;
+import com.buuz135.simpleclaims.claim.tracking.ModifiedTracking;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.math.util.ChunkUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behaviour every {@link ClaimStorage} shares, run against each backend by the subclasses. Writes go through
+ * {@link ClaimStorage#runBatch(Runnable)} like the {@link DatabaseWriteQueue} sends them
+ */
+abstract class ClaimStorageContractTest {
+
+    protected static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    // Whole seconds, the JDBC backends store dates as epoch millis and print them back without the fraction
+    protected static final String DATE = "2026-01-02T03:04:05";
+
+    @TempDir
+    Path directory;
+
+    protected ClaimStorage storage;
+
+    protected abstract ClaimStorage create();
+
+    /**
+     * Whether a storage created on the same files sees the writes of a closed one
+     */
+    protected boolean isPersistent() {
+        return true;
+    }
+
+    @BeforeEach
+    void openStorage() {
+        StorageTestFiles.useDirectory(directory);
+        storage = create();
+    }
+
+    @AfterEach
+    void closeStorage() {
+        storage.close();
+    }
+
+    protected void reopen() {
+        storage.close();
+        storage = create();
+    }
+
+    @Test
+    void claimsRoundTrip() {
+        UUID party = UUID.randomUUID();
+        UUID creator = UUID.randomUUID();
+        storage.runBatch(() -> {
+            storage.saveClaim("default", new ChunkInfo(party, 3, -7, new ModifiedTracking(creator, "Builder", DATE)));
+            storage.saveClaim("default", claim(party, 4, -7));
+            storage.saveClaim("other", claim(party, 0, 0));
+        });
+
+        var claims = storage.loadClaims("default");
+        assertEquals(2, claims.size());
+        ChunkInfo chunk = claims.get(ChunkUtil.indexChunk(3, -7));
+        assertEquals(party, chunk.getPartyOwner());
+        assertEquals(3, chunk.getChunkX());
+        assertEquals(-7, chunk.getChunkZ());
+        assertEquals(creator, chunk.getCreatedTracked().getUserUUID());
+        assertEquals("Builder", chunk.getCreatedTracked().getUserName());
+        assertEquals(DATE, chunk.getCreatedTracked().getDate());
+        assertEquals(Set.of("default", "other"), storage.loadClaims().keySet());
+        assertTrue(storage.loadClaims("missing").isEmpty());
+    }
+
+    @Test
+    void savingAClaimAgainReplacesIt() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        storage.runBatch(() -> storage.saveClaims("default", List.of(claim(first, 0, 0), claim(first, 1, 0))));
+        storage.runBatch(() -> storage.saveClaim("default", claim(second, 1, 0)));
+
+        var claims = storage.loadClaims("default");
+        assertEquals(2, claims.size());
+        assertEquals(first, claims.get(ChunkUtil.indexChunk(0, 0)).getPartyOwner());
+        assertEquals(second, claims.get(ChunkUtil.indexChunk(1, 0)).getPartyOwner());
+    }
+
+    @Test
+    void deletingAClaimOnlyRemovesThatChunk() {
+        UUID party = UUID.randomUUID();
+        storage.runBatch(() -> {
+            storage.saveClaim("default", claim(party, 0, 0));
+            storage.saveClaim("default", claim(party, 1, 0));
+            storage.saveClaim("other", claim(party, 0, 0));
+        });
+        storage.runBatch(() -> storage.deleteClaim("default", 0, 0));
+
+        var claims = storage.loadClaims("default");
+        assertEquals(1, claims.size());
+        assertTrue(claims.containsKey(ChunkUtil.indexChunk(1, 0)));
+        assertEquals(1, storage.loadClaims("other").size());
+    }
+
+    @Test
+    void reservedChunksRoundTrip() {
+        UUID party = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        storage.runBatch(() -> {
+            storage.saveReservedChunk("default", new ReservedChunk(party, 0, 0));
+            storage.saveReservedChunk("default", new ReservedChunk(party, 1, 0));
+            storage.saveReservedChunk("default", new ReservedChunk(other, 2, 0));
+            storage.saveReservedChunk("default", new ReservedChunk(other, 3, 0));
+        });
+        storage.runBatch(() -> {
+            storage.deleteReservedChunk("default", 3, 0);
+            storage.deleteReservedChunksByParty("default", party);
+        });
+
+        var reserved = storage.loadReservedChunks("default");
+        assertEquals(1, reserved.size());
+        ReservedChunk chunk = reserved.get(ChunkUtil.indexChunk(2, 0));
+        assertEquals(other, chunk.getReservedBy());
+        assertEquals(2, chunk.getChunkX());
+        assertEquals(0, chunk.getChunkZ());
+        assertEquals(Set.of("default"), storage.loadReservedChunks().keySet());
+        assertTrue(storage.loadReservedChunks("missing").isEmpty());
+    }
+
+    @Test
+    void deletingPartyChunksCoversEveryDimension() {
+        UUID party = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        storage.runBatch(() -> {
+            storage.saveClaim("default", claim(party, 0, 0));
+            storage.saveClaim("nether", claim(party, 0, 0));
+            storage.saveClaim("default", claim(other, 1, 0));
+            storage.saveReservedChunk("nether", new ReservedChunk(party, 5, 5));
+            storage.saveReservedChunk("nether", new ReservedChunk(other, 6, 6));
+        });
+        storage.runBatch(() -> storage.deletePartyChunks(party));
+
+        var claims = storage.loadClaims("default");
+        assertEquals(1, claims.size());
+        assertEquals(other, claims.get(ChunkUtil.indexChunk(1, 0)).getPartyOwner());
+        assertTrue(storage.loadClaims("nether").isEmpty());
+        var reserved = storage.loadReservedChunks("nether");
+        assertEquals(1, reserved.size());
+        assertTrue(reserved.containsKey(ChunkUtil.indexChunk(6, 6)));
+    }
+
+    @Test
+    void claimsAreCountedPerParty() {
+        UUID party = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        storage.runBatch(() -> {
+            storage.saveClaim("default", claim(party, 0, 0));
+            storage.saveClaim("nether", claim(party, 0, 0));
+            storage.saveClaim("default", claim(other, 1, 0));
+        });
+
+        var counts = storage.countClaimsByParty();
+        assertEquals(2, counts.get(party));
+        assertEquals(1, counts.get(other));
+    }
+
+    @Test
+    void namesAndAdminOverridesRoundTrip() {
+        UUID player = UUID.randomUUID();
+        UUID admin = UUID.randomUUID();
+        UUID removed = UUID.randomUUID();
+        storage.runBatch(() -> {
+            storage.saveNameCache(player, "Old", 10, 1.5f);
+            storage.saveNameCache(player, "New", 20, 2.5f);
+            storage.saveAdminOverride(admin);
+            storage.saveAdminOverride(removed);
+        });
+        storage.runBatch(() -> storage.deleteAdminOverride(removed));
+
+        assertEquals("New", storage.loadNameCache().getPlayerName(player));
+        assertEquals(player, storage.loadNameCache().getPlayerUUID("New"));
+        assertEquals(Set.of(admin), storage.loadAdminOverrides());
+    }
+
+    @Test
+    void writesSurviveAReopen() {
+        if (!isPersistent()) return;
+        UUID party = UUID.randomUUID();
+        UUID player = UUID.randomUUID();
+        storage.runBatch(() -> {
+            storage.saveClaim("default", claim(party, 0, 0));
+            storage.saveClaim("default", claim(party, 1, 0));
+            storage.saveReservedChunk("default", new ReservedChunk(party, 2, 0));
+            storage.saveNameCache(player, "Player", 10, 1.5f);
+            storage.saveAdminOverride(player);
+        });
+        storage.runBatch(() -> storage.deleteClaim("default", 0, 0));
+        reopen();
+
+        var claims = storage.loadClaims("default");
+        assertEquals(1, claims.size());
+        assertEquals(DATE, claims.get(ChunkUtil.indexChunk(1, 0)).getCreatedTracked().getDate());
+        assertEquals(1, storage.loadReservedChunks("default").size());
+        assertEquals("Player", storage.loadNameCache().getPlayerName(player));
+        assertEquals(Set.of(player), storage.loadAdminOverrides());
+    }
+
+    protected static ChunkInfo claim(UUID party, int chunkX, int chunkZ) {
+        return new ChunkInfo(party, chunkX, chunkZ, new ModifiedTracking(UUID.randomUUID(), "Tester", DATE));
+    }
+}
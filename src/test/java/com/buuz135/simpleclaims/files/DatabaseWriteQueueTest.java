@@ -0,0 +1,137 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.files.DatabaseWriteQueue.WriteKey;
+import com.buuz135.simpleclaims.files.DatabaseWriteQueue.WriteKey.Kind;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.math.util.ChunkUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseWriteQueueTest {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    // Long enough that nothing is written before the test flushes
+    private static final long FLUSH_INTERVAL = 60_000;
+
+    private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void newerWriteReplacesThePendingOneAndMovesToTheBack() {
+        var queue = new DatabaseWriteQueue(LOGGER, new MemoryClaimStorage(), 100, 1000, FLUSH_INTERVAL);
+        UUID party = UUID.randomUUID();
+        UUID player = UUID.randomUUID();
+        WriteKey claim = WriteKey.chunk(Kind.CLAIM, "default", ChunkUtil.indexChunk(1, 2));
+        queue.submit(WriteKey.of(Kind.PARTY, party), record("party 1"));
+        queue.submit(claim, record("claim"));
+        queue.submit(WriteKey.of(Kind.NAME, player), record("name"));
+        queue.submit(WriteKey.of(Kind.PARTY, party), record("party 2"));
+
+        assertEquals(3, queue.getQueueDepth());
+        assertEquals(List.of("claim:default:1:2", "name:" + player, "party:" + party), queue.getPendingKeys());
+        assertTrue(queue.flush(5000));
+        assertEquals(List.of("claim", "name", "party 2"), written);
+        assertEquals(3, queue.getFlushedWrites());
+        assertTrue(queue.shutdown(5000));
+    }
+
+    @Test
+    void deleteCancelsThePendingSave() {
+        var queue = new DatabaseWriteQueue(LOGGER, new MemoryClaimStorage(), 100, 1000, FLUSH_INTERVAL);
+        WriteKey key = WriteKey.chunk(Kind.CLAIM, "default", ChunkUtil.indexChunk(0, 0));
+        queue.submit(key, record("save"));
+        queue.submit(key, record("delete"));
+
+        assertTrue(queue.flush(5000));
+        assertEquals(List.of("delete"), written);
+        assertTrue(queue.shutdown(5000));
+    }
+
+    @Test
+    void equalChunksOfOtherDimensionsDontCoalesce() {
+        var queue = new DatabaseWriteQueue(LOGGER, new MemoryClaimStorage(), 100, 1000, FLUSH_INTERVAL);
+        long index = ChunkUtil.indexChunk(0, 0);
+        queue.submit(WriteKey.chunk(Kind.CLAIM, "default", index), record("default"));
+        queue.submit(WriteKey.chunk(Kind.CLAIM, "nether", index), record("nether"));
+        queue.submit(WriteKey.chunk(Kind.RESERVED, "default", index), record("reserved"));
+
+        assertTrue(queue.flush(5000));
+        assertEquals(List.of("default", "nether", "reserved"), written);
+        assertTrue(queue.shutdown(5000));
+    }
+
+    @Test
+    void failingWriteDoesntStopTheBatch() {
+        var queue = new DatabaseWriteQueue(LOGGER, new MemoryClaimStorage(), 100, 1000, FLUSH_INTERVAL);
+        queue.submit(WriteKey.of(Kind.ADMIN, UUID.randomUUID()), () -> {
+            throw new IllegalStateException("Expected by the test");
+        });
+        queue.submit(WriteKey.of(Kind.ADMIN, UUID.randomUUID()), record("after"));
+
+        assertTrue(queue.flush(5000));
+        assertEquals(List.of("after"), written);
+        assertTrue(queue.shutdown(5000));
+    }
+
+    @Test
+    void shutdownFlushesPendingWritesAndDropsLaterOnes() {
+        var queue = new DatabaseWriteQueue(LOGGER, new MemoryClaimStorage(), 100, 1000, FLUSH_INTERVAL);
+        queue.submit(WriteKey.of(Kind.PARTY, UUID.randomUUID()), record("first"));
+        queue.submit(WriteKey.of(Kind.PARTY, UUID.randomUUID()), record("second"));
+
+        assertTrue(queue.shutdown(5000));
+        assertEquals(List.of("first", "second"), written);
+        queue.submit(WriteKey.of(Kind.PARTY, UUID.randomUUID()), record("dropped"));
+        assertEquals(1, queue.getDroppedWrites());
+        assertEquals(2, written.size());
+    }
+
+    @Test
+    void fullQueueMakesNewKeysWaitForTheWriter() throws Exception {
+        var batchStarted = new CountDownLatch(1);
+        var finishBatch = new CountDownLatch(1);
+        var storage = new MemoryClaimStorage() {
+            @Override
+            public void runBatch(Runnable writes) {
+                batchStarted.countDown();
+                try {
+                    finishBatch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.runBatch(writes);
+            }
+        };
+        var queue = new DatabaseWriteQueue(LOGGER, storage, 1, 2, 0);
+        UUID coalesced = UUID.randomUUID();
+        queue.submit(WriteKey.of(Kind.NAME, UUID.randomUUID()), record("first"));
+        assertTrue(batchStarted.await(5, TimeUnit.SECONDS));
+        queue.submit(WriteKey.of(Kind.NAME, coalesced), record("second"));
+        queue.submit(WriteKey.of(Kind.NAME, UUID.randomUUID()), record("third"));
+        // Coalescing into a pending key doesn't grow the queue, so it never waits
+        queue.submit(WriteKey.of(Kind.NAME, coalesced), record("second again"));
+
+        var blocked = CompletableFuture.runAsync(() -> queue.submit(WriteKey.of(Kind.NAME, UUID.randomUUID()), record("fourth")));
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+        assertEquals(2, queue.getQueueDepth());
+        finishBatch.countDown();
+
+        blocked.get(5, TimeUnit.SECONDS);
+        assertTrue(queue.flush(5000));
+        assertEquals(List.of("first", "third", "second again", "fourth"), written);
+        assertTrue(queue.shutdown(5000));
+    }
+
+    private Runnable record(String write) {
+        return () -> written.add(write);
+    }
+}
@@ -0,0 +1,9 @@
+package com.buuz135.simpleclaims.files;
+
+class H2ClaimStorageTest extends ClaimStorageContractTest {
+
+    @Override
+    protected ClaimStorage create() {
+        return new H2ClaimStorage(LOGGER);
+    }
+}
@@ -0,0 +1,176 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.util.FileUtils;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.math.util.ChunkUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Migration of the version 1 tables, with the dimension name and chunk coordinates as keys and dates as text, to the packed chunk keys of version 2
+ */
+class JdbcMigrationTest {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final String DATE = "2026-01-02T03:04:05";
+
+    @TempDir
+    Path directory;
+
+    private final UUID party = UUID.randomUUID();
+
+    @BeforeEach
+    void useDirectory() {
+        StorageTestFiles.useDirectory(directory);
+    }
+
+    @Test
+    void versionOneTablesAreMigrated() throws SQLException {
+        createVersionOneTables(DATE);
+
+        var storage = new SQLiteClaimStorage(LOGGER);
+        try {
+            var claims = storage.loadClaims("default");
+            assertEquals(2, claims.size());
+            assertEquals(party, claims.get(ChunkUtil.indexChunk(3, -7)).getPartyOwner());
+            assertEquals(DATE, claims.get(ChunkUtil.indexChunk(3, -7)).getCreatedTracked().getDate());
+            assertEquals(1, storage.loadClaims("nether").size());
+            assertEquals(party, storage.loadReservedChunks("default").get(ChunkUtil.indexChunk(-1, -2)).getReservedBy());
+            assertEquals(3, storage.countClaimsByParty().get(party));
+        } finally {
+            storage.close();
+        }
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            assertEquals(2, queryInt(statement, "SELECT MAX(version) FROM schema_version"));
+            long millis = LocalDateTime.parse(DATE).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            try (ResultSet rs = statement.executeQuery("SELECT created_at, modified_at FROM parties")) {
+                assertTrue(rs.next());
+                assertEquals(millis, rs.getLong("created_at"));
+                assertEquals(-1, rs.getLong("modified_at"));
+            }
+            assertFalse(exists(statement, "SELECT created_date FROM parties"));
+            assertFalse(exists(statement, "SELECT chunkX FROM claims"));
+            for (String table : new String[]{"claims_v1", "claims_v2", "reserved_chunks_v1", "reserved_chunks_v2"}) {
+                assertFalse(exists(statement, "SELECT 1 FROM " + table), table);
+            }
+        }
+    }
+
+    @Test
+    void unreadableDateKeepsTheOldTables() throws SQLException {
+        createVersionOneTables("yesterday");
+
+        new SQLiteClaimStorage(LOGGER).close();
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            assertEquals(3, queryInt(statement, "SELECT COUNT(*) FROM claims WHERE chunkX IS NOT NULL"));
+            assertEquals(1, queryInt(statement, "SELECT COUNT(*) FROM reserved_chunks WHERE chunkX IS NOT NULL"));
+            assertTrue(exists(statement, "SELECT created_date FROM parties"));
+            assertFalse(exists(statement, "SELECT 1 FROM claims_v2"));
+        }
+    }
+
+    @Test
+    void incompleteMigratedTableIsDiscarded() throws SQLException {
+        createVersionOneTables(DATE);
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            // Interrupted while the new claims table was being filled
+            statement.execute("CREATE TABLE claims_v2 (dimension_id INTEGER, chunk_key INTEGER, party_owner TEXT, created_user_uuid TEXT, created_user_name TEXT, created_at INTEGER, PRIMARY KEY (dimension_id, chunk_key))");
+            statement.execute("INSERT INTO claims_v2 VALUES (0, 0, '" + UUID.randomUUID() + "', NULL, NULL, -1)");
+        }
+
+        var storage = new SQLiteClaimStorage(LOGGER);
+        try {
+            var claims = storage.loadClaims("default");
+            assertEquals(2, claims.size());
+            assertEquals(party, claims.get(ChunkUtil.indexChunk(3, -7)).getPartyOwner());
+            assertEquals(1, storage.loadReservedChunks("default").size());
+        } finally {
+            storage.close();
+        }
+    }
+
+    @Test
+    void interruptedSwapIsFinished() throws SQLException {
+        long claimKey = ChunkUtil.indexChunk(3, -7);
+        long reservedKey = ChunkUtil.indexChunk(-1, -2);
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            // The claims table was swapped and the reserved chunks one wasn't yet, the party dates were converted but not dropped
+            statement.execute("CREATE TABLE parties (id TEXT PRIMARY KEY, owner TEXT, name TEXT, description TEXT, color INTEGER, created_user_uuid TEXT, created_user_name TEXT, created_date TEXT, modified_user_uuid TEXT, modified_user_name TEXT, modified_date TEXT, created_at INTEGER, modified_at INTEGER)");
+            statement.execute("CREATE TABLE dimensions (id INTEGER PRIMARY KEY, name TEXT UNIQUE)");
+            statement.execute("INSERT INTO dimensions VALUES (0, 'default')");
+            statement.execute("CREATE TABLE claims_v1 (dimension TEXT, chunkX INTEGER, chunkZ INTEGER, party_owner TEXT, created_user_uuid TEXT, created_user_name TEXT, created_date TEXT, PRIMARY KEY (dimension, chunkX, chunkZ))");
+            statement.execute("CREATE TABLE claims (dimension_id INTEGER, chunk_key INTEGER, party_owner TEXT, created_user_uuid TEXT, created_user_name TEXT, created_at INTEGER, PRIMARY KEY (dimension_id, chunk_key))");
+            statement.execute("INSERT INTO claims VALUES (0, " + claimKey + ", '" + party + "', NULL, NULL, -1)");
+            statement.execute("CREATE TABLE reserved_chunks (dimension TEXT, chunkX INTEGER, chunkZ INTEGER, reserved_by TEXT, PRIMARY KEY (dimension, chunkX, chunkZ))");
+            statement.execute("CREATE TABLE reserved_chunks_v2 (dimension_id INTEGER, chunk_key INTEGER, reserved_by TEXT, PRIMARY KEY (dimension_id, chunk_key))");
+            statement.execute("INSERT INTO reserved_chunks_v2 VALUES (0, " + reservedKey + ", '" + party + "')");
+        }
+
+        var storage = new SQLiteClaimStorage(LOGGER);
+        try {
+            assertEquals(party, storage.loadClaims("default").get(claimKey).getPartyOwner());
+            assertEquals(party, storage.loadReservedChunks("default").get(reservedKey).getReservedBy());
+        } finally {
+            storage.close();
+        }
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            assertFalse(exists(statement, "SELECT created_date FROM parties"));
+            for (String table : new String[]{"claims_v1", "reserved_chunks_v1", "reserved_chunks_v2"}) {
+                assertFalse(exists(statement, "SELECT 1 FROM " + table), table);
+            }
+        }
+    }
+
+    /**
+     * Tables as the plugin created them before the schema was versioned, three claims across two dimensions, a reserved chunk and a party
+     */
+    private void createVersionOneTables(String date) throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE parties (id TEXT PRIMARY KEY, owner TEXT, name TEXT, description TEXT, color INTEGER, created_user_uuid TEXT, created_user_name TEXT, created_date TEXT, modified_user_uuid TEXT, modified_user_name TEXT, modified_date TEXT)");
+            statement.execute("CREATE TABLE claims (dimension TEXT, chunkX INTEGER, chunkZ INTEGER, party_owner TEXT, created_user_uuid TEXT, created_user_name TEXT, created_date TEXT, PRIMARY KEY (dimension, chunkX, chunkZ))");
+            statement.execute("CREATE TABLE reserved_chunks (dimension TEXT, chunkX INTEGER, chunkZ INTEGER, reserved_by TEXT, PRIMARY KEY (dimension, chunkX, chunkZ))");
+            statement.execute("INSERT INTO parties (id, owner, name, description, color, created_date, modified_date) VALUES ('" + party + "', '" + UUID.randomUUID() + "', 'Party', '', 0, '" + date + "', '')");
+            statement.execute("INSERT INTO claims VALUES ('default', 3, -7, '" + party + "', '" + UUID.randomUUID() + "', 'Builder', '" + date + "')");
+            statement.execute("INSERT INTO claims VALUES ('default', 4, -7, '" + party + "', NULL, NULL, '')");
+            statement.execute("INSERT INTO claims VALUES ('nether', 0, 0, '" + party + "', NULL, NULL, NULL)");
+            statement.execute("INSERT INTO reserved_chunks VALUES ('default', -1, -2, '" + party + "')");
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection("jdbc:sqlite:" + new File(FileUtils.DATABASE_PATH).getAbsolutePath());
+    }
+
+    private static int queryInt(Statement statement, String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getInt(1);
+        }
+    }
+
+    private static boolean exists(Statement statement, String sql) {
+        try {
+            statement.executeQuery(sql + " WHERE 1 = 0").close();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.buuz135.simpleclaims.files;
+
+import com.hypixel.hytale.math.util.ChunkUtil;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalClaimStorageTest extends ClaimStorageContractTest {
+
+    private int compactionRecords = 1000;
+
+    @Override
+    protected ClaimStorage create() {
+        return new JournalClaimStorage(LOGGER, compactionRecords);
+    }
+
+    @Test
+    void claimsOfTheTablesAreConvertedOnFirstOpen() {
+        UUID party = UUID.randomUUID();
+        storage.close();
+        // Starts over from a directory with only the SQLite tables
+        for (String file : new String[]{ClaimJournal.SNAPSHOT_FILE, ClaimJournal.JOURNAL_FILE}) {
+            assertDoesNotThrow(() -> Files.deleteIfExists(directory.resolve(file)));
+        }
+        var tables = new SQLiteClaimStorage(LOGGER);
+        tables.runBatch(() -> tables.saveClaim("default", claim(party, 4, 4)));
+        tables.close();
+
+        storage = create();
+        assertTrue(Files.exists(directory.resolve(ClaimJournal.SNAPSHOT_FILE)) || Files.exists(directory.resolve(ClaimJournal.JOURNAL_FILE)));
+        assertEquals(party, storage.loadClaims("default").get(ChunkUtil.indexChunk(4, 4)).getPartyOwner());
+    }
+
+    @Test
+    void compactionKeepsEveryClaim() {
+        compactionRecords = 2;
+        reopen();
+        UUID party = UUID.randomUUID();
+        for (int i = 0; i < 5; i++) {
+            int chunkX = i;
+            storage.runBatch(() -> storage.saveClaim("default", claim(party, chunkX, 0)));
+        }
+        storage.runBatch(() -> storage.deleteClaim("default", 0, 0));
+        assertTrue(Files.exists(directory.resolve(ClaimJournal.SNAPSHOT_FILE)));
+        reopen();
+
+        var claims = storage.loadClaims("default");
+        assertEquals(4, claims.size());
+        assertFalse(claims.containsKey(ChunkUtil.indexChunk(0, 0)));
+    }
+
+    @Test
+    void loadsSeeEveryCommittedBatch() {
+        UUID party = UUID.randomUUID();
+        storage.runBatch(() -> storage.saveClaim("default", claim(party, 0, 0)));
+        assertEquals(1, storage.loadClaims("default").size());
+        // The index read by the load above is dropped by the next batch
+        storage.runBatch(() -> storage.saveClaim("default", claim(party, 1, 0)));
+        assertEquals(2, storage.loadClaims("default").size());
+        reopen();
+        assertEquals(2, storage.loadClaims("default").size());
+    }
+
+    @Test
+    void loadDuringAnOpenBatchWaitsForIt() throws Exception {
+        UUID party = UUID.randomUUID();
+        storage.runBatch(() -> storage.saveClaim("default", claim(party, 0, 0)));
+        var batchOpen = new CountDownLatch(1);
+        var finishBatch = new CountDownLatch(1);
+        var writer = CompletableFuture.runAsync(() -> storage.runBatch(() -> {
+            storage.saveClaim("default", claim(party, 1, 0));
+            batchOpen.countDown();
+            try {
+                finishBatch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(batchOpen.await(5, TimeUnit.SECONDS));
+
+        var load = CompletableFuture.supplyAsync(() -> storage.loadClaims("default").size());
+        Thread.sleep(100);
+        assertFalse(load.isDone());
+        finishBatch.countDown();
+
+        writer.get(5, TimeUnit.SECONDS);
+        assertEquals(2, load.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void loadsAfterStartupOnlyReadTheirDimension() {
+        UUID party = UUID.randomUUID();
+        storage.runBatch(() -> {
+            storage.saveClaim("default", claim(party, 0, 0));
+            storage.saveClaim("other", claim(party, 0, 0));
+        });
+        storage.finishStartupLoads();
+        storage.runBatch(() -> storage.saveClaim("default", claim(party, 1, 0)));
+
+        assertEquals(2, storage.loadClaims("default").size());
+        assertEquals(1, storage.loadClaims("other").size());
+        assertEquals(3, storage.countClaimsByParty().get(party));
+    }
+}
@@ -0,0 +1,14 @@
+package com.buuz135.simpleclaims.files;
+
+class MemoryClaimStorageTest extends ClaimStorageContractTest {
+
+    @Override
+    protected ClaimStorage create() {
+        return new MemoryClaimStorage();
+    }
+
+    @Override
+    protected boolean isPersistent() {
+        return false;
+    }
+}
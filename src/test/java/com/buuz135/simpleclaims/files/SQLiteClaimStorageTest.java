@@ -0,0 +1,38 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.claim.chunk.ReservedChunk;
+import com.hypixel.hytale.math.util.ChunkUtil;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SQLiteClaimStorageTest extends ClaimStorageContractTest {
+
+    @Override
+    protected ClaimStorage create() {
+        return new SQLiteClaimStorage(LOGGER);
+    }
+
+    @Test
+    void leftoverJournalIsConvertedIntoTheTables() {
+        UUID party = UUID.randomUUID();
+        storage.close();
+        var journalStorage = new JournalClaimStorage(LOGGER, 1000);
+        journalStorage.runBatch(() -> {
+            journalStorage.saveClaim("default", claim(party, 0, 0));
+            journalStorage.saveReservedChunk("default", new ReservedChunk(party, 1, 0));
+        });
+        journalStorage.close();
+
+        storage = create();
+        ClaimConverter.convertLeftoverJournal(LOGGER, storage);
+
+        assertEquals(party, storage.loadClaims("default").get(ChunkUtil.indexChunk(0, 0)).getPartyOwner());
+        assertEquals(1, storage.loadReservedChunks("default").size());
+        assertFalse(Files.exists(directory.resolve(ClaimJournal.JOURNAL_FILE)));
+        assertTrue(Files.exists(directory.resolve(ClaimJournal.JOURNAL_FILE + ".converted")));
+    }
+}
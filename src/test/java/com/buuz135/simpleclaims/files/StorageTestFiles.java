@@ -0,0 +1,29 @@
+package com.buuz135.simpleclaims.files;
+
+import com.buuz135.simpleclaims.util.FileUtils;
+
+import java.io.File;
+import java.nio.file.Path;
+
+/**
+ * Points the files of the storages into a test directory
+ */
+final class StorageTestFiles {
+
+    private StorageTestFiles() {}
+
+    static void useDirectory(Path directory) {
+        String main = directory.toAbsolutePath().toString();
+        FileUtils.MAIN_PATH = main;
+        FileUtils.PARTY_PATH = main + File.separator + "Parties.json";
+        FileUtils.CLAIM_PATH = main + File.separator + "Claims.json";
+        FileUtils.NAMES_CACHE_PATH = main + File.separator + "NameCache.json";
+        FileUtils.ADMIN_OVERRIDES_PATH = main + File.separator + "AdminOverrides.json";
+        FileUtils.DATABASE_PATH = main + File.separator + "SimpleClaims.db";
+        FileUtils.H2_DATABASE_PATH = main + File.separator + "SimpleClaims";
+        FileUtils.MIGRATED_MARKER_PATH = main + File.separator + ".migrated";
+        FileUtils.PENDING_WRITES_PATH = main + File.separator + "PendingWrites.txt";
+        FileUtils.BACKUPS_PATH = main + File.separator + "Backups";
+        FileUtils.RESTORE_BACKUP_PATH = main + File.separator + "RestoreBackup.txt";
+    }
+}